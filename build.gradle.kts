@@ -1,6 +1,7 @@
 plugins {
   application
   id("com.github.johnrengelman.shadow").version("6.1.0")
+  id("me.champeau.jmh").version("0.6.5")
 }
 
 group = "fop"
@@ -12,6 +13,11 @@ repositories {
 
 dependencies {
   implementation("com.google.code.gson:gson:2.8.6")
+  testImplementation("org.junit.jupiter:junit-jupiter:5.7.0")
+}
+
+tasks.test {
+  useJUnitPlatform()
 }
 
 tasks.withType<JavaCompile> {
@@ -21,3 +27,13 @@ tasks.withType<JavaCompile> {
 application {
   mainClassName = "fop.project_cleaner.ui.MainGui"
 }
+
+// ./gradlew jmh [-PjmhIncludes=<regex>] writes build/reports/jmh/results.json
+jmh {
+  jmhVersion.set("1.28")
+  resultFormat.set("JSON")
+  resultsFile.set(project.file("${project.buildDir}/reports/jmh/results.json"))
+  if (project.hasProperty("jmhIncludes")) {
+    includes.set(listOf(project.property("jmhIncludes").toString()))
+  }
+}
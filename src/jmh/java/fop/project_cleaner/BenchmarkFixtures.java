@@ -0,0 +1,37 @@
+package fop.project_cleaner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Helpers shared by the benchmarks, the inputs themselves are created by the
+ * {@link SyntheticCorpusGenerator}
+ */
+final class BenchmarkFixtures {
+	static final PrintStream NULL_STREAM = new PrintStream(OutputStream.nullOutputStream());
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * Deletes a File or directory tree if it exists
+	 *
+	 * @param path the path
+	 * @throws IOException if something cannot be deleted
+	 */
+	static void delete(Path path) throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(path)) {
+			for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end timing of {@link SubmissionsExtractor#extract()} on a generated
+ * Java course. Each measurement is a single run on a fresh output directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExtractBenchmark {
+	@Param({ "30", "300" })
+	public int submissions;
+
+	@Param({ "0.3" })
+	public double variantRate;
+
+	private Path workDir;
+	private SyntheticCorpusGenerator.Corpus corpus;
+	private File output;
+
+	@Setup(Level.Trial)
+	public void generateCorpus() throws IOException {
+		workDir = Files.createTempDirectory("extract-benchmark");
+		var generator = new SyntheticCorpusGenerator(42);
+		generator.setSubmissionCount(submissions);
+		generator.setVariantRate(variantRate);
+		corpus = generator.generate(workDir.resolve("corpus").toFile());
+		output = workDir.resolve("output").toFile();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearOutput() throws IOException {
+		BenchmarkFixtures.delete(output.toPath());
+		output.mkdirs();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteWorkDir() throws IOException {
+		BenchmarkFixtures.delete(workDir);
+	}
+
+	@Benchmark
+	public ExtractionResult extract() {
+		var extractor = new SubmissionsExtractor(corpus.getSubmissions(), output, corpus.getSolution(),
+				corpus.getFileList(), BenchmarkFixtures.NULL_STREAM, BenchmarkFixtures.NULL_STREAM);
+		return extractor.extract();
+	}
+}
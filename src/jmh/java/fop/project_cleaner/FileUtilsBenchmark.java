@@ -0,0 +1,90 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the archive and directory operations of {@link FileUtils} on a
+ * generated Moodle archive
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileUtilsBenchmark {
+	@Param({ "10", "100" })
+	public int submissions;
+
+	@Param({ "20" })
+	public int filesPerProject;
+
+	private Path workDir;
+	private File archive;
+	private File extracted;
+	private File target;
+
+	@Setup(Level.Trial)
+	public void createArchive() throws IOException {
+		workDir = Files.createTempDirectory("file-utils-benchmark");
+		var generator = new SyntheticCorpusGenerator(42);
+		generator.setSubmissionCount(submissions);
+		generator.setSourceFiles(filesPerProject);
+		archive = generator.generate(workDir.toFile()).getSubmissions();
+		extracted = workDir.resolve("extracted").toFile();
+		FileUtils.extractFolder(archive.getAbsolutePath(), extracted.getAbsolutePath());
+		target = workDir.resolve("target").toFile();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTarget() throws IOException {
+		BenchmarkFixtures.delete(target.toPath());
+		target.mkdirs();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteWorkDir() throws IOException {
+		BenchmarkFixtures.delete(workDir);
+	}
+
+	@Benchmark
+	public File extractFolder() {
+		FileUtils.extractFolder(archive.getAbsolutePath(), target.getAbsolutePath());
+		return target;
+	}
+
+	@Benchmark
+	public File copyFolderContent() {
+		FileUtils.copyFolderContent(extracted, target);
+		return target;
+	}
+
+	/**
+	 * Moves the extracted tree to the target and back, so every invocation sees
+	 * the same input
+	 */
+	@Benchmark
+	public File moveFolderContent() {
+		FileUtils.moveFolderContent(extracted, target);
+		FileUtils.moveFolderContent(target, extracted);
+		return extracted;
+	}
+}
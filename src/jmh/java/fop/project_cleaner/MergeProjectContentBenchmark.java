@@ -0,0 +1,106 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks merging a solution into a student project with a typical File
+ * List (sources must exist, tests are overwritten, everything else is copied
+ * if missing), from a {@link SolutionSnapshot} loaded once or from the disk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MergeProjectContentBenchmark {
+	@Param({ "20", "200" })
+	public int files;
+
+	private Path workDir;
+	private File solution;
+	private SolutionSnapshot snapshot;
+	private File pristine;
+	private File target;
+	private SubmissionsExtractor extractor;
+	private final ArrayList<Path> assertExist = new ArrayList<>();
+	private final ArrayList<Path> assertNotExist = new ArrayList<>();
+	private final ArrayList<Path> overwrite = new ArrayList<>();
+	private final ArrayList<Path> copyIfNotExists = new ArrayList<>();
+	private final ArrayList<Path> ignore = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void createProjects() throws IOException {
+		workDir = Files.createTempDirectory("merge-benchmark");
+		solution = workDir.resolve("H07_SOLUTION").toFile();
+		SyntheticCorpusGenerator.writeJavaProject(solution.toPath(), "H07_SOLUTION", files, 2048, new Random(1));
+		pristine = workDir.resolve("H07_Student_Name").toFile();
+		// The student changed the sources and deleted some of the tests
+		SyntheticCorpusGenerator.writeJavaProject(pristine.toPath(), "H07_Student_Name", files, 2048, new Random(2));
+		try (var tests = Files.list(pristine.toPath().resolve("test/h07"))) {
+			tests.filter(x -> x.getFileName().toString().hashCode() % 2 == 0).forEach(x -> x.toFile().delete());
+		}
+		target = workDir.resolve("target").toFile();
+		Path solutionPath = solution.toPath().toAbsolutePath();
+		assertExist.add(solutionPath.resolve("src"));
+		try (var sources = Files.walk(solutionPath.resolve("src"))) {
+			sources.forEach(assertExist::add);
+		}
+		overwrite.add(solutionPath.resolve("test"));
+		assertNotExist.add(solutionPath.resolve("bin"));
+		ignore.add(solutionPath.resolve(".settings"));
+		extractor = new SubmissionsExtractor(null, workDir.toFile(), BenchmarkFixtures.NULL_STREAM,
+				BenchmarkFixtures.NULL_STREAM);
+		snapshot = SolutionSnapshot.load(solution);
+	}
+
+	@Setup(Level.Invocation)
+	public void resetTarget() throws IOException {
+		BenchmarkFixtures.delete(target.toPath());
+		target.mkdirs();
+		FileUtils.copyFolderContent(pristine, target);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteWorkDir() throws IOException {
+		BenchmarkFixtures.delete(workDir);
+	}
+
+	@Benchmark
+	public File mergeProjectContent() {
+		extractor.mergeProjectContent(snapshot, target, assertExist, assertNotExist, overwrite, copyIfNotExists,
+				ignore);
+		return target;
+	}
+
+	/**
+	 * Like {@link #mergeProjectContent()}, but the solution is read from the disk
+	 * for every merge
+	 */
+	@Benchmark
+	public File mergeProjectContentLoadingSolution() {
+		extractor.mergeProjectContent(solution, target, assertExist, assertNotExist, overwrite, copyIfNotExists,
+				ignore);
+		return target;
+	}
+}
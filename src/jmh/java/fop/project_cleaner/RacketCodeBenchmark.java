@@ -0,0 +1,71 @@
+package fop.project_cleaner;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the text processing of Racket submissions in {@link RacoAdapter}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RacketCodeBenchmark {
+	@Param({ "10", "100", "1000" })
+	public int definitions;
+
+	private String code;
+	private String codeWithoutComments;
+	private PrintStream originalOut;
+	private PrintStream originalErr;
+
+	@Setup(Level.Trial)
+	public void createCode() {
+		// RacoAdapter reports its progress on System.out
+		originalOut = System.out;
+		originalErr = System.err;
+		System.setOut(BenchmarkFixtures.NULL_STREAM);
+		System.setErr(BenchmarkFixtures.NULL_STREAM);
+		code = SyntheticCorpusGenerator.racketSource(definitions, new Random(42), true);
+		codeWithoutComments = RacoAdapter.removeCommentsFromCode(code);
+	}
+
+	@TearDown(Level.Trial)
+	public void restoreStreams() {
+		System.setOut(originalOut);
+		System.setErr(originalErr);
+	}
+
+	@Benchmark
+	public String removeCommentsFromCode() {
+		return RacoAdapter.removeCommentsFromCode(code);
+	}
+
+	@Benchmark
+	public List<Range> getTestRanges() {
+		return RacoAdapter.getTestRanges(codeWithoutComments);
+	}
+
+	@Benchmark
+	public String removeTests() {
+		return RacoAdapter.removeTests(codeWithoutComments);
+	}
+}
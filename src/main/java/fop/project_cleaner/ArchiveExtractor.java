@@ -0,0 +1,181 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.concurrent.CancellationException;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts ZIP-Archives. Entries are streamed to the disk while the optional
+ * {@link ExtractionLimits} are enforced, so an oversized submission is
+ * rejected as soon as it exceeds a limit without reading the rest of it.
+ * Entries that would end up outside of the destination directory are always
+ * rejected.
+ */
+public class ArchiveExtractor {
+	private static final int BUFFER_SIZE = 8192;
+
+	private ExtractionMetrics metrics;
+	private ExtractionControl control;
+	private Predicate<String> entryFilter;
+	private ExtractionLimits limits;
+	private int skippedEntries;
+	private String fromPrefix = "";
+	private String toPrefix = "";
+
+	/**
+	 * @param metrics the {@link ExtractionMetrics} to count the read and written
+	 *                bytes in (can be null)
+	 */
+	public void setMetrics(ExtractionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param control the {@link ExtractionControl} checked before each entry (can
+	 *                be null)
+	 */
+	public void setControl(ExtractionControl control) {
+		this.control = control;
+	}
+
+	/**
+	 * @param entryFilter decides by the entry name which entries are extracted
+	 *                    (null to extract all)
+	 */
+	public void setEntryFilter(Predicate<String> entryFilter) {
+		this.entryFilter = entryFilter;
+	}
+
+	/**
+	 * @param limits the {@link ExtractionLimits} (null for none)
+	 */
+	public void setLimits(ExtractionLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Extracts entries whose names start with one prefix under another one
+	 * instead, e.g. {@code ""} to {@code "H07_Name/"} to extract everything into
+	 * a new folder
+	 *
+	 * @param from the prefix to replace
+	 * @param to   the prefix to use instead
+	 */
+	public void setPrefixRemap(String from, String to) {
+		this.fromPrefix = from;
+		this.toPrefix = to;
+	}
+
+	/**
+	 * @return the number of entries the entry filter skipped in the last
+	 *         {@link #extract(File, File)}
+	 */
+	public int getSkippedEntries() {
+		return skippedEntries;
+	}
+
+	/**
+	 * @param name the name of an entry
+	 * @return true if the name contains a ".." segment. Absolute names are
+	 *         harmless, they are resolved against the destination anyway.
+	 */
+	private static boolean escapesDestination(String name) {
+		for (String segment : name.split("[/\\\\]")) {
+			if (segment.equals("..")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Extracts an archive
+	 *
+	 * @param zipFile     the ZIP-Archive
+	 * @param destination the destination directory
+	 * @throws ExtractionLimitException if the archive exceeds a limit or contains
+	 *                                  an unsafe path
+	 * @throws IOException              if the archive cannot be read or written
+	 * @throws CancellationException    if the extraction was cancelled
+	 */
+	public void extract(File zipFile, File destination) throws IOException {
+		try (ZipFile zip = new ZipFile(zipFile)) {
+			extract(zip, destination);
+		}
+	}
+
+	/**
+	 * Extracts an already opened archive, e.g. after reading its
+	 * {@link ProjectLayout}
+	 *
+	 * @param zip         the ZIP-Archive
+	 * @param destination the destination directory
+	 * @throws ExtractionLimitException if the archive exceeds a limit or contains
+	 *                                  an unsafe path
+	 * @throws IOException              if the archive cannot be read or written
+	 * @throws CancellationException    if the extraction was cancelled
+	 */
+	public void extract(ZipFile zip, File destination) throws IOException {
+		long bytesWritten = 0;
+		long filesWritten = 0;
+		skippedEntries = 0;
+		try {
+			if (limits != null) {
+				limits.checkCentralDirectory(zip, entryFilter);
+			}
+			destination.mkdirs();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				if (control != null) {
+					control.checkpoint();
+				}
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (entryFilter != null && !entryFilter.test(name)) {
+					skippedEntries++;
+					continue;
+				}
+				if (escapesDestination(name)) {
+					throw new ExtractionLimitException("entry " + name + " points outside of the target directory");
+				}
+				if (name.startsWith(fromPrefix)) {
+					name = toPrefix + name.substring(fromPrefix.length());
+				}
+				// java.io is used on purpose, it maps names the platform encoding cannot
+				// represent instead of rejecting them like java.nio.file
+				File target = new File(destination, name);
+				// Like before, directory entries only create their parents
+				target.getParentFile().mkdirs();
+				if (entry.isDirectory()) {
+					continue;
+				}
+				long entryBytes = 0;
+				try (InputStream in = zip.getInputStream(entry); OutputStream out = new FileOutputStream(target)) {
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						entryBytes += read;
+						bytesWritten += read;
+						if (limits != null) {
+							limits.checkEntry(entry, entryBytes, bytesWritten);
+						}
+						out.write(buffer, 0, read);
+					}
+				}
+				filesWritten++;
+			}
+		} finally {
+			if (metrics != null) {
+				metrics.addBytesRead(new File(zip.getName()).length());
+				metrics.addWritten(bytesWritten, filesWritten);
+			}
+		}
+	}
+}
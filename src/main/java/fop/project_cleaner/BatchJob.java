@@ -0,0 +1,256 @@
+package fop.project_cleaner;
+
+import java.io.File;
+
+/**
+ * A single entry of a batch job File (see {@link BatchRunner}). Field names
+ * match the JSON keys of the job File.
+ */
+public class BatchJob {
+	/**
+	 * The mode of a job extracting submissions
+	 */
+	public static final String MODE_EXTRACT = "extract";
+	/**
+	 * The mode of a job applying a fixed solution to a finished extraction, see
+	 * {@link SolutionUpdater}
+	 */
+	public static final String MODE_UPDATE_SOLUTION = "update-solution";
+
+	private String name;
+	private String mode = MODE_EXTRACT;
+	private String submissions;
+	private String solution;
+	private String fileList;
+	private String output;
+	private String language = "java";
+	private String log;
+	private String events;
+	private ExtractionLimits limits;
+
+	/**
+	 * @return the name of the job, defaults to the name of the output directory
+	 */
+	public String getName() {
+		if (name == null || name.isBlank()) {
+			return output == null ? "unnamed" : new File(output).getName();
+		}
+		return name;
+	}
+
+	/**
+	 * @param name the name to set
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the Moodle submissions archive
+	 */
+	public File getSubmissions() {
+		return toFile(submissions);
+	}
+
+	/**
+	 * @param submissions the submissions to set
+	 */
+	public void setSubmissions(String submissions) {
+		this.submissions = submissions;
+	}
+
+	/**
+	 * @return the solution archive (Java) or file (Racket)
+	 */
+	public File getSolution() {
+		return toFile(solution);
+	}
+
+	/**
+	 * @param solution the solution to set
+	 */
+	public void setSolution(String solution) {
+		this.solution = solution;
+	}
+
+	/**
+	 * @return the File List (can be null)
+	 */
+	public File getFileList() {
+		return toFile(fileList);
+	}
+
+	/**
+	 * @param fileList the fileList to set
+	 */
+	public void setFileList(String fileList) {
+		this.fileList = fileList;
+	}
+
+	/**
+	 * @return the output directory
+	 */
+	public File getOutput() {
+		return toFile(output);
+	}
+
+	/**
+	 * @param output the output to set
+	 */
+	public void setOutput(String output) {
+		this.output = output;
+	}
+
+	/**
+	 * @return the {@link LanguageMode}
+	 */
+	public LanguageMode getLanguageMode() {
+		return LanguageMode.valueOf(language.trim().toUpperCase());
+	}
+
+	/**
+	 * @param language the language to set ("java" or "racket")
+	 */
+	public void setLanguage(String language) {
+		this.language = language;
+	}
+
+	/**
+	 * @return the mode ({@value #MODE_EXTRACT} or {@value #MODE_UPDATE_SOLUTION})
+	 */
+	public String getMode() {
+		return mode == null ? MODE_EXTRACT : mode.trim().toLowerCase();
+	}
+
+	/**
+	 * @param mode the mode to set
+	 */
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * @return true if this job applies a fixed solution instead of extracting
+	 */
+	public boolean isSolutionUpdate() {
+		return MODE_UPDATE_SOLUTION.equals(getMode());
+	}
+
+	/**
+	 * @return the File the log of this job is written to (null for stdout)
+	 */
+	public File getLog() {
+		return toFile(log);
+	}
+
+	/**
+	 * @param log the log to set
+	 */
+	public void setLog(String log) {
+		this.log = log;
+	}
+
+	/**
+	 * @return the File the {@link ExtractionEvent}s of this job are written to,
+	 *         defaults to {@value EventLogWriter#DEFAULT_FILE_NAME} in the output
+	 *         directory
+	 */
+	public File getEvents() {
+		if (events == null) {
+			return output == null ? null : new File(output, EventLogWriter.DEFAULT_FILE_NAME);
+		}
+		return toFile(events);
+	}
+
+	/**
+	 * @param events the events to set
+	 */
+	public void setEvents(String events) {
+		this.events = events;
+	}
+
+	/**
+	 * @return the {@link ExtractionLimits} for single submissions, defaults to
+	 *         the defaults of {@link ExtractionLimits}
+	 */
+	public ExtractionLimits getLimits() {
+		return limits == null ? new ExtractionLimits() : limits;
+	}
+
+	/**
+	 * @param limits the limits to set
+	 */
+	public void setLimits(ExtractionLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Resolves relative paths against a base directory (usually the directory of
+	 * the job File)
+	 *
+	 * @param baseDir the base directory
+	 */
+	void resolveAgainst(File baseDir) {
+		submissions = resolve(baseDir, submissions);
+		solution = resolve(baseDir, solution);
+		fileList = resolve(baseDir, fileList);
+		output = resolve(baseDir, output);
+		log = resolve(baseDir, log);
+		events = resolve(baseDir, events);
+	}
+
+	/**
+	 * Checks that all required fields are set
+	 *
+	 * @return a description of the problem or null if the job is valid
+	 */
+	String validate() {
+		if (!MODE_EXTRACT.equals(getMode()) && !isSolutionUpdate()) {
+			return "unknown mode: " + mode;
+		}
+		if (isSolutionUpdate()) {
+			if (output == null || solution == null) {
+				return "solution and output are required";
+			}
+			if (!getOutput().isDirectory()) {
+				return "output not found: " + output;
+			}
+			if (!getSolution().isFile()) {
+				return "solution archive not found: " + solution;
+			}
+			if (fileList != null && !getFileList().isFile()) {
+				return "fileList not found: " + fileList;
+			}
+			return null;
+		}
+		if (submissions == null || output == null || solution == null) {
+			return "submissions, solution and output are required";
+		}
+		try {
+			getLanguageMode();
+		} catch (IllegalArgumentException e) {
+			return "unknown language: " + language;
+		}
+		if (!getSubmissions().isFile()) {
+			return "submissions archive not found: " + submissions;
+		}
+		if (!getSolution().exists()) {
+			return "solution not found: " + solution;
+		}
+		if (fileList != null && !getFileList().isFile()) {
+			return "fileList not found: " + fileList;
+		}
+		return null;
+	}
+
+	private static String resolve(File baseDir, String path) {
+		if (path == null || baseDir == null || new File(path).isAbsolute()) {
+			return path;
+		}
+		return new File(baseDir, path).getAbsolutePath();
+	}
+
+	private static File toFile(String path) {
+		return path == null ? null : new File(path);
+	}
+}
@@ -0,0 +1,298 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Runs several {@link BatchJob}s headless and concurrently in one JVM. The job
+ * File is either a JSON array of jobs or an object of the form
+ *
+ * <pre>
+ * {
+ *   "threads": 2,
+ *   "summary": "summary.json",
+ *   "jobs": [
+ *     { "name": "H07", "submissions": "H07/abgaben.zip", "solution": "H07/H07_SOLUTION.zip",
+ *       "fileList": "H07/fileList.json", "output": "H07/target", "language": "java" }
+ *   ]
+ * }
+ * </pre>
+ *
+ * Relative paths are resolved against the directory of the job File. The exit
+ * code of {@link #run()} is one of the {@code EXIT_*} constants.
+ */
+public class BatchRunner {
+	/**
+	 * All jobs finished and all submissions were processed successfully
+	 */
+	public static final int EXIT_OK = 0;
+	/**
+	 * At least one job was invalid, aborted or crashed
+	 */
+	public static final int EXIT_JOB_FAILED = 1;
+	/**
+	 * The command line or the job File was invalid
+	 */
+	public static final int EXIT_USAGE = 2;
+	/**
+	 * All jobs finished, but some submissions were moved to the faulty directory
+	 */
+	public static final int EXIT_FAULTY_SUBMISSIONS = 3;
+
+	private final List<BatchJob> jobs;
+	private int threads;
+	private File summaryFile;
+
+	/**
+	 * Summary of a single job, serialized into the JSON summary
+	 */
+	static class JobSummary {
+		String name;
+		String language;
+		String output;
+		String status;
+		int submissions;
+		int successful;
+		int faulty;
+		long durationMillis;
+		String error;
+	}
+
+	/**
+	 * Summary of the whole batch, serialized into the JSON summary
+	 */
+	static class BatchSummary {
+		String startedAt;
+		long durationMillis;
+		int exitCode;
+		List<JobSummary> jobs = new ArrayList<>();
+	}
+
+	public BatchRunner(List<BatchJob> jobs) {
+		this.jobs = jobs;
+		this.threads = Math.max(1, Math.min(jobs.size(), Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Reads a job File
+	 *
+	 * @param jobFile the job File
+	 * @return a {@link BatchRunner} for the jobs in that File
+	 * @throws IOException              if the File cannot be read
+	 * @throws IllegalArgumentException if the File is not a valid job File
+	 */
+	public static BatchRunner fromJobFile(File jobFile) throws IOException {
+		JsonElement root;
+		try {
+			root = JsonParser.parseString(Files.readString(jobFile.toPath()));
+		} catch (JsonParseException e) {
+			throw new IllegalArgumentException("Job file is not valid JSON: " + e.getMessage(), e);
+		}
+		Gson gson = new Gson();
+		JsonElement jobArray = root;
+		Integer threads = null;
+		String summary = null;
+		if (root.isJsonObject()) {
+			JsonObject object = root.getAsJsonObject();
+			jobArray = object.get("jobs");
+			if (object.has("threads")) {
+				threads = object.get("threads").getAsInt();
+			}
+			if (object.has("summary")) {
+				summary = object.get("summary").getAsString();
+			}
+		}
+		if (jobArray == null || !jobArray.isJsonArray()) {
+			throw new IllegalArgumentException("Job file must contain a list of jobs");
+		}
+		List<BatchJob> jobs = gson.fromJson(jobArray, new TypeToken<List<BatchJob>>() {
+		}.getType());
+		File baseDir = jobFile.getAbsoluteFile().getParentFile();
+		jobs.forEach(job -> job.resolveAgainst(baseDir));
+		BatchRunner runner = new BatchRunner(jobs);
+		if (threads != null) {
+			runner.setThreads(threads);
+		}
+		if (summary != null) {
+			File summaryFile = new File(summary);
+			runner.setSummaryFile(summaryFile.isAbsolute() ? summaryFile : new File(baseDir, summary));
+		}
+		return runner;
+	}
+
+	/**
+	 * @param threads the number of jobs to run at the same time
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * @param summaryFile the File to write the JSON summary to (null for stdout,
+	 *                    all other output then goes to stderr)
+	 */
+	public void setSummaryFile(File summaryFile) {
+		this.summaryFile = summaryFile;
+	}
+
+	/**
+	 * Runs all jobs and writes the JSON summary
+	 *
+	 * @return the exit code
+	 */
+	public int run() {
+		long start = System.currentTimeMillis();
+		PrintStream stdout = System.out;
+		// Without a summary File, stdout carries nothing but the summary so it can
+		// be parsed; the progress and the logs of the jobs go to stderr
+		if (summaryFile == null) {
+			System.setOut(System.err);
+		}
+		try {
+			return runJobs(start, stdout);
+		} finally {
+			System.setOut(stdout);
+		}
+	}
+
+	private int runJobs(long start, PrintStream stdout) {
+		BatchSummary summary = new BatchSummary();
+		summary.startedAt = Instant.ofEpochMilli(start).toString();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger counter = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "batch-job-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		List<Future<JobSummary>> futures = new ArrayList<>();
+		for (BatchJob job : jobs) {
+			futures.add(pool.submit((Callable<JobSummary>) () -> runJob(job)));
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				summary.jobs.add(futures.get(i).get());
+			} catch (InterruptedException | ExecutionException e) {
+				JobSummary failed = new JobSummary();
+				failed.name = jobs.get(i).getName();
+				failed.status = "failed";
+				failed.error = e.getCause() != null ? e.getCause().toString() : e.toString();
+				summary.jobs.add(failed);
+			}
+		}
+		pool.shutdown();
+		summary.durationMillis = System.currentTimeMillis() - start;
+		summary.exitCode = EXIT_OK;
+		for (JobSummary job : summary.jobs) {
+			if ("failed".equals(job.status)) {
+				summary.exitCode = EXIT_JOB_FAILED;
+				break;
+			}
+			if (job.faulty > 0) {
+				summary.exitCode = EXIT_FAULTY_SUBMISSIONS;
+			}
+		}
+		writeSummary(summary, stdout);
+		return summary.exitCode;
+	}
+
+	private JobSummary runJob(BatchJob job) {
+		JobSummary summary = new JobSummary();
+		summary.name = job.getName();
+		summary.output = job.getOutput() == null ? null : job.getOutput().getAbsolutePath();
+		String problem = job.validate();
+		if (problem != null) {
+			summary.status = "failed";
+			summary.error = problem;
+			System.err.println("✗ Job " + summary.name + " is invalid: " + problem);
+			return summary;
+		}
+		summary.language = job.getLanguageMode().name().toLowerCase();
+		PrintStream jobLog = null;
+		try {
+			if (job.getLog() != null) {
+				jobLog = new PrintStream(new FileOutputStream(job.getLog()), true, StandardCharsets.UTF_8);
+			}
+			System.out.println("❯  Starting job " + summary.name);
+			if (job.isSolutionUpdate()) {
+				long start = System.currentTimeMillis();
+				var result = new SolutionUpdater(job.getOutput(), job.getSolution(), job.getFileList(),
+						jobLog == null ? System.out : jobLog, jobLog == null ? System.err : jobLog).call();
+				summary.submissions = result.getProjectCount();
+				summary.successful = result.getProjectCount() - result.getFailedProjectCount();
+				summary.faulty = result.getFailedProjectCount();
+				summary.durationMillis = System.currentTimeMillis() - start;
+				summary.status = summary.faulty > 0 ? "faulty" : "ok";
+				System.out.println("✓ Finished job " + summary.name + ": " + summary.status);
+				return summary;
+			}
+			job.getOutput().mkdirs();
+			var extractor = new SubmissionsExtractor(job.getSubmissions(), job.getOutput(), job.getSolution(),
+					job.getFileList(), jobLog == null ? System.out : jobLog, jobLog == null ? System.err : jobLog);
+			extractor.setLanguageMode(job.getLanguageMode());
+			extractor.setEventLogFile(job.getEvents());
+			extractor.setLimits(job.getLimits());
+			extractor.setMetricsFile(new File(job.getOutput(), ExtractionMetrics.DEFAULT_FILE_NAME));
+			ExtractionResult result = extractor.extract();
+			summary.submissions = result.getSubmissionCount();
+			summary.successful = result.getSuccessfulCount();
+			summary.faulty = result.getFaultyCount();
+			summary.durationMillis = result.getDurationMillis();
+			if (result.wasAborted()) {
+				summary.status = "failed";
+				summary.error = result.getAbortReason();
+			} else {
+				summary.status = result.getFaultyCount() > 0 ? "faulty" : "ok";
+			}
+			System.out.println("✓ Finished job " + summary.name + ": " + summary.status);
+		} catch (Exception e) {
+			summary.status = "failed";
+			summary.error = e.toString();
+			System.err.println("✗ Job " + summary.name + " failed: " + e);
+		} finally {
+			if (jobLog != null) {
+				jobLog.close();
+			}
+		}
+		return summary;
+	}
+
+	private void writeSummary(BatchSummary summary, PrintStream stdout) {
+		String json = new GsonBuilder().setPrettyPrinting().create().toJson(summary);
+		if (summaryFile == null) {
+			stdout.println(json);
+			return;
+		}
+		try {
+			Files.writeString(summaryFile.toPath(), json);
+		} catch (IOException e) {
+			System.err.println("Summary could not be written to " + summaryFile + ": " + e.getMessage());
+			System.out.println(json);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package fop.project_cleaner;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The classes and methods a compiled class refers to, read from the constant
+ * pool of its class file. Every class and method a class can use directly has
+ * an entry there, so this is what the code may call, independent of how the
+ * source spelled it (static imports, local variables, method references).
+ * Names use the internal form of the class file format, e.g.
+ * {@code java/lang/System} and {@code java/lang/System.exit}.
+ */
+public class ClassFileReferences {
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private final Set<String> classes;
+	private final Set<String> methods;
+
+	private ClassFileReferences(Set<String> classes, Set<String> methods) {
+		this.classes = Collections.unmodifiableSet(classes);
+		this.methods = Collections.unmodifiableSet(methods);
+	}
+
+	/**
+	 * Reads the constant pool of a class file
+	 *
+	 * @param classFile the bytes of the class file
+	 * @return the {@link ClassFileReferences}
+	 * @throws IOException if the bytes are not a class file
+	 */
+	public static ClassFileReferences read(byte[] classFile) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a class file");
+		}
+		// Minor and major version
+		in.readInt();
+		int count = in.readUnsignedShort();
+		String[] utf8 = new String[count];
+		int[] classNames = new int[count];
+		// Methodref and InterfaceMethodref: class index << 16 | name and type index
+		int[] methodRefs = new int[count];
+		int[] nameAndTypes = new int[count];
+		for (int i = 1; i < count; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+			case 1: // Utf8
+				utf8[i] = in.readUTF();
+				break;
+			case 7: // Class
+				classNames[i] = in.readUnsignedShort();
+				break;
+			case 10: // Methodref
+			case 11: // InterfaceMethodref
+				methodRefs[i] = in.readUnsignedShort() << 16 | in.readUnsignedShort();
+				break;
+			case 12: // NameAndType, the descriptor is not needed
+				nameAndTypes[i] = in.readUnsignedShort();
+				in.readUnsignedShort();
+				break;
+			case 8: // String
+			case 16: // MethodType
+			case 19: // Module
+			case 20: // Package
+				in.readUnsignedShort();
+				break;
+			case 15: // MethodHandle, refers to a Methodref read separately
+				in.readUnsignedByte();
+				in.readUnsignedShort();
+				break;
+			case 3: // Integer
+			case 4: // Float
+			case 9: // Fieldref
+			case 17: // Dynamic
+			case 18: // InvokeDynamic
+				in.readInt();
+				break;
+			case 5: // Long
+			case 6: // Double
+				in.readLong();
+				// Takes two entries
+				i++;
+				break;
+			default:
+				throw new IOException("Unknown constant pool tag " + tag + " at entry " + i);
+			}
+		}
+		Set<String> classes = new TreeSet<>();
+		Set<String> methods = new TreeSet<>();
+		for (int i = 1; i < count; i++) {
+			if (classNames[i] != 0) {
+				classes.add(utf8(utf8, classNames[i]));
+			}
+			if (methodRefs[i] != 0) {
+				String owner = utf8(utf8, classNames[checkIndex(methodRefs[i] >>> 16, count)]);
+				String name = utf8(utf8, nameAndTypes[checkIndex(methodRefs[i] & 0xFFFF, count)]);
+				methods.add(owner + "." + name);
+			}
+		}
+		return new ClassFileReferences(classes, methods);
+	}
+
+	private static int checkIndex(int index, int count) throws IOException {
+		if (index <= 0 || index >= count) {
+			throw new IOException("Invalid constant pool index " + index);
+		}
+		return index;
+	}
+
+	private static String utf8(String[] utf8, int index) throws IOException {
+		if (index <= 0 || index >= utf8.length || utf8[index] == null) {
+			throw new IOException("Invalid constant pool index " + index);
+		}
+		return utf8[index];
+	}
+
+	/**
+	 * @return the referenced classes in internal form, including array types
+	 *         like {@code [Ljava/lang/String;}
+	 */
+	public Set<String> getClasses() {
+		return classes;
+	}
+
+	/**
+	 * @return the referenced methods as {@code owner.name}, e.g.
+	 *         {@code java/lang/System.exit}
+	 */
+	public Set<String> getMethods() {
+		return methods;
+	}
+}
@@ -0,0 +1,241 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+
+/**
+ * An immutable, validated Instruction Set as produced by the
+ * {@link InstructionSetCompiler}. All Paths are stored relative to the solution
+ * root (with {@code /} as separator), so the same compiled model can be reused
+ * for every run regardless of where the solution gets extracted to.
+ *
+ * @see InstructionSetCompiler
+ */
+public final class CompiledInstructionSet implements Serializable {
+	private static final long serialVersionUID = 1L;
+	/**
+	 * The time a single Java test may take if the File List does not say
+	 */
+	public static final int DEFAULT_TEST_TIMEOUT_SECONDS = 10;
+
+	private final String sourceHash;
+	private final LanguageMode languageMode;
+	private final int sheetNumber;
+	private final boolean checkNamingConvention;
+	private final boolean fixNamingConvention;
+	private final Map<FileReadMode, List<String>> paths;
+	private final List<String> excludeEntries;
+	private final boolean compile;
+	private final boolean writeClassFiles;
+	private final boolean doTests;
+	private final int testTimeoutSeconds;
+	private final List<String> forbiddenCode;
+	private final boolean sharedLibraries;
+	private final String racketModelJson;
+
+	CompiledInstructionSet(String sourceHash, LanguageMode languageMode, int sheetNumber,
+			boolean checkNamingConvention, boolean fixNamingConvention, Map<FileReadMode, List<String>> paths,
+			List<String> excludeEntries, boolean compile, boolean writeClassFiles, boolean doTests, int testTimeoutSeconds,
+			List<String> forbiddenCode, boolean sharedLibraries, String racketModelJson) {
+		this.sourceHash = sourceHash;
+		this.languageMode = languageMode;
+		this.sheetNumber = sheetNumber;
+		this.checkNamingConvention = checkNamingConvention;
+		this.fixNamingConvention = fixNamingConvention;
+		EnumMap<FileReadMode, List<String>> copy = new EnumMap<>(FileReadMode.class);
+		for (FileReadMode mode : FileReadMode.values()) {
+			copy.put(mode, List.copyOf(paths.getOrDefault(mode, List.of())));
+		}
+		this.paths = Collections.unmodifiableMap(copy);
+		this.excludeEntries = List.copyOf(excludeEntries);
+		this.compile = compile;
+		this.writeClassFiles = writeClassFiles;
+		this.doTests = doTests;
+		this.testTimeoutSeconds = testTimeoutSeconds;
+		this.forbiddenCode = List.copyOf(forbiddenCode);
+		this.sharedLibraries = sharedLibraries;
+		this.racketModelJson = racketModelJson;
+	}
+
+	/**
+	 * @return the hash of the source File List this set was compiled from
+	 */
+	public String getSourceHash() {
+		return sourceHash;
+	}
+
+	/**
+	 * @return the language mode
+	 */
+	public LanguageMode getLanguageMode() {
+		return languageMode;
+	}
+
+	/**
+	 * @return the sheet number
+	 */
+	public int getSheetNumber() {
+		return sheetNumber;
+	}
+
+	/**
+	 * @return if the naming convention should be checked
+	 */
+	public boolean shouldCheckNamingConvention() {
+		return checkNamingConvention;
+	}
+
+	/**
+	 * @return if the naming convention should be fixed
+	 */
+	public boolean shouldFixNamingConvention() {
+		return fixNamingConvention;
+	}
+
+	/**
+	 * Gets the normalized Paths listed for the given mode, relative to the solution
+	 * root
+	 *
+	 * @param mode the {@link FileReadMode}
+	 * @return the relative Paths (never null)
+	 */
+	public List<Path> getPaths(FileReadMode mode) {
+		return paths.get(mode).stream().map(Paths::get).collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return the patterns of the archive entries not to extract
+	 * @see EntryFilter
+	 */
+	public List<String> getExcludeEntries() {
+		return excludeEntries;
+	}
+
+	/**
+	 * @return if the projects should be compiled
+	 */
+	public boolean shouldCompile() {
+		return compile;
+	}
+
+	/**
+	 * @return if the class Files should be written when compiling
+	 */
+	public boolean shouldWriteClassFiles() {
+		return writeClassFiles;
+	}
+
+	/**
+	 * @return if the tests of the solution should be run against the compiled
+	 *         projects (Java only)
+	 */
+	public boolean shouldDoTests() {
+		return doTests;
+	}
+
+	/**
+	 * @return the time a single Java test may take in seconds
+	 */
+	public int getTestTimeoutSeconds() {
+		return testTimeoutSeconds;
+	}
+
+	/**
+	 * @return the code that must not appear in the Java sources of the students
+	 * @see JavaCodeScanner
+	 */
+	public List<String> getForbiddenCode() {
+		return forbiddenCode;
+	}
+
+	/**
+	 * @return if the libraries of the solution should be kept once next to the
+	 *         projects instead of in every project
+	 * @see SharedLibraries
+	 */
+	public boolean shouldShareLibraries() {
+		return sharedLibraries;
+	}
+
+	/**
+	 * Resolves the Paths listed for the given mode against a solution root
+	 *
+	 * @param mode         the {@link FileReadMode}
+	 * @param solutionRoot the solution root directory
+	 * @return the absolute Paths (never null)
+	 */
+	public Set<Path> resolvePaths(FileReadMode mode, File solutionRoot) {
+		Path root = solutionRoot == null ? Paths.get("").toAbsolutePath() : solutionRoot.toPath().toAbsolutePath();
+		Set<Path> resolved = new LinkedHashSet<>();
+		for (String p : paths.get(mode)) {
+			resolved.add(root.resolve(p).toAbsolutePath());
+		}
+		return Collections.unmodifiableSet(resolved);
+	}
+
+	/**
+	 * Creates a fresh (mutable) {@link ActionSetModel} from this compiled set. For
+	 * Java, all Paths are resolved against the given solution root.
+	 *
+	 * @param solutionRoot the solution root directory (only needed in Java mode)
+	 * @return the {@link ActionSetModel}
+	 */
+	public ActionSetModel toActionSetModel(File solutionRoot) {
+		ActionSetModel model;
+		if (languageMode == LanguageMode.RACKET) {
+			model = new Gson().fromJson(racketModelJson, RacketActionSetModel.class);
+		} else {
+			JavaActionSetModel javaModel = new JavaActionSetModel();
+			javaModel.setAssert_exists(new ArrayList<>(resolvePaths(FileReadMode.ASSERT_EXISTS, solutionRoot)));
+			javaModel.setAssert_not_exists(
+					new ArrayList<>(resolvePaths(FileReadMode.ASSERT_NOT_EXISTS, solutionRoot)));
+			javaModel.setOverwrite_always(new ArrayList<>(resolvePaths(FileReadMode.OVERWRITE_ALWAYS, solutionRoot)));
+			javaModel.setCopy_if_not_exists(
+					new ArrayList<>(resolvePaths(FileReadMode.COPY_IF_NOT_EXISTS, solutionRoot)));
+			javaModel.setIgnore(new ArrayList<>(resolvePaths(FileReadMode.IGNORE, solutionRoot)));
+			javaModel.setExclude_entries(new ArrayList<>(excludeEntries));
+			javaModel.setCompile(compile);
+			javaModel.setWrite_class_files(writeClassFiles);
+			javaModel.setDo_tests(doTests);
+			javaModel.setTest_timeout_seconds(testTimeoutSeconds);
+			javaModel.setForbidden_code(new ArrayList<>(forbiddenCode));
+			javaModel.setShared_libraries(sharedLibraries);
+			if (solutionRoot != null) {
+				javaModel.setSolutionFile(solutionRoot);
+			}
+			model = javaModel;
+		}
+		model.setLanguage_mode(languageMode);
+		model.setSheet_number(sheetNumber);
+		model.setCheck_naming_convention(checkNamingConvention);
+		model.setFix_naming_convention(fixNamingConvention);
+		return model;
+	}
+
+	/**
+	 * @return a short human readable summary of this set
+	 */
+	public String describe() {
+		if (languageMode == LanguageMode.RACKET) {
+			return String.format("Racket Instruction Set for sheet %s", sheetNumber);
+		}
+		return paths.entrySet().stream().map(e -> e.getValue().size() + " " + e.getKey().getKey())
+				.collect(Collectors.joining(", ", "Java Instruction Set for sheet " + sheetNumber + ": ",
+						(compile ? writeClassFiles ? ", compile into the output folder" : ", compile" : "")
+								+ (doTests ? ", run the tests of the solution" : "")
+								+ (forbiddenCode.isEmpty() ? "" : ", " + forbiddenCode.size() + " forbidden_code")
+								+ (sharedLibraries ? ", shared libraries" : "")));
+	}
+}
@@ -0,0 +1,275 @@
+package fop.project_cleaner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * The entries of the {@code .classpath} File of an Eclipse project, read and
+ * rewritten with a streaming parser. A project without {@code .classpath} gets
+ * the Eclipse defaults ({@code src} compiled to {@code bin}).
+ */
+public class EclipseClasspath {
+	/**
+	 * The name of the File
+	 */
+	public static final String FILE_NAME = ".classpath";
+
+	/**
+	 * A {@code classpathentry}
+	 */
+	public static final class Entry {
+		private final String kind;
+		private final String path;
+
+		Entry(String kind, String path) {
+			this.kind = kind;
+			this.path = path;
+		}
+
+		/**
+		 * @return the kind ({@code src}, {@code lib}, {@code con},
+		 *         {@code output}, ...)
+		 */
+		public String getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the path as written in the File
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public String toString() {
+			return kind + ":" + path;
+		}
+	}
+
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+	private final List<Entry> entries;
+
+	private EclipseClasspath(List<Entry> entries) {
+		this.entries = Collections.unmodifiableList(entries);
+	}
+
+	/**
+	 * Reads the {@code .classpath} File of a project
+	 *
+	 * @param projectDir the project directory
+	 * @return the {@link EclipseClasspath}
+	 * @throws IOException if the File exists but cannot be read or parsed
+	 */
+	public static EclipseClasspath of(Path projectDir) throws IOException {
+		Path file = projectDir.resolve(FILE_NAME);
+		if (!Files.isRegularFile(file)) {
+			return new EclipseClasspath(List.of(new Entry("src", "src"), new Entry("output", "bin")));
+		}
+		List<Entry> entries = new ArrayList<>();
+		try (InputStream in = Files.newInputStream(file)) {
+			XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT
+							&& reader.getLocalName().equals("classpathentry")) {
+						String kind = reader.getAttributeValue(null, "kind");
+						String path = reader.getAttributeValue(null, "path");
+						if (kind != null && path != null) {
+							entries.add(new Entry(kind, path));
+						}
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(FILE_NAME + " of " + projectDir.getFileName() + " is invalid: " + e.getMessage(),
+					e);
+		}
+		return new EclipseClasspath(entries);
+	}
+
+	/**
+	 * Rewrites the paths of the entries of a {@code .classpath} File. The File is
+	 * streamed from a reader to a writer, so everything else (attributes, other
+	 * elements, comments) is kept in order; it is only replaced if an entry
+	 * changed.
+	 *
+	 * @param projectDir the project directory
+	 * @param rewrite    returns the new path of an entry or null to keep it
+	 * @return the number of entries changed
+	 * @throws IOException if the File cannot be read, parsed or written
+	 */
+	public static int rewrite(Path projectDir, Function<Entry, String> rewrite) throws IOException {
+		Path file = projectDir.resolve(FILE_NAME);
+		if (!Files.isRegularFile(file)) {
+			return 0;
+		}
+		Path temp = Files.createTempFile(projectDir, FILE_NAME, ".tmp");
+		int changed = 0;
+		try {
+			try (InputStream in = Files.newInputStream(file); OutputStream out = Files.newOutputStream(temp)) {
+				XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+				XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+				try {
+					changed = copy(reader, writer, rewrite);
+					writer.flush();
+				} finally {
+					writer.close();
+					reader.close();
+				}
+			} catch (XMLStreamException e) {
+				throw new IOException(FILE_NAME + " of " + projectDir.getFileName() + " is invalid: " + e.getMessage(),
+						e);
+			}
+			if (changed > 0) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return changed;
+	}
+
+	/**
+	 * Copies the document event by event. A start element is held back until the
+	 * next event, so elements without content are written as {@code <x/>} like
+	 * Eclipse does.
+	 */
+	private static int copy(XMLStreamReader reader, XMLStreamWriter writer, Function<Entry, String> rewrite)
+			throws XMLStreamException {
+		int changed = 0;
+		int depth = 0;
+		String pendingName = null;
+		List<String[]> pendingAttributes = new ArrayList<>();
+		writer.writeStartDocument(StandardCharsets.UTF_8.name(),
+				reader.getVersion() == null ? "1.0" : reader.getVersion());
+		writer.writeCharacters("\n");
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (pendingName != null) {
+				boolean empty = event == XMLStreamConstants.END_ELEMENT;
+				if (empty) {
+					writer.writeEmptyElement(pendingName);
+				} else {
+					writer.writeStartElement(pendingName);
+				}
+				for (String[] attribute : pendingAttributes) {
+					writer.writeAttribute(attribute[0], attribute[1]);
+				}
+				pendingName = null;
+				pendingAttributes.clear();
+				if (empty) {
+					depth--;
+					continue;
+				}
+			}
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				pendingName = reader.getLocalName();
+				String kind = reader.getAttributeValue(null, "kind");
+				String path = reader.getAttributeValue(null, "path");
+				String newPath = pendingName.equals("classpathentry") && kind != null && path != null
+						? rewrite.apply(new Entry(kind, path))
+						: null;
+				if (newPath != null && !newPath.equals(path)) {
+					changed++;
+				} else {
+					newPath = null;
+				}
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					String name = reader.getAttributeLocalName(i);
+					pendingAttributes.add(new String[] { name,
+							newPath != null && name.equals("path") ? newPath : reader.getAttributeValue(i) });
+				}
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				writer.writeEndElement();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				writer.writeCharacters(reader.getText());
+				break;
+			case XMLStreamConstants.CDATA:
+				writer.writeCData(reader.getText());
+				break;
+			case XMLStreamConstants.COMMENT:
+				writer.writeComment(reader.getText());
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+				break;
+			default:
+				break;
+			}
+			// The reader drops the line breaks outside of the root element
+			if (depth == 0 && event != XMLStreamConstants.CHARACTERS && event != XMLStreamConstants.SPACE
+					&& event != XMLStreamConstants.END_DOCUMENT) {
+				writer.writeCharacters("\n");
+			}
+		}
+		writer.writeEndDocument();
+		return changed;
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		// The Files come from students, so no external entities
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * @return all entries in File order
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return the source folders inside the project (references to other
+	 *         projects are left out)
+	 */
+	public List<String> getSourceFolders() {
+		return entries.stream().filter(x -> x.kind.equals("src") && !x.path.startsWith("/")).map(x -> x.path)
+				.collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return the libraries, relative to the project unless absolute
+	 */
+	public List<String> getLibraries() {
+		return entries.stream().filter(x -> x.kind.equals("lib")).map(x -> x.path)
+				.collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return the output folder, {@code bin} if none is set
+	 */
+	public String getOutputFolder() {
+		return entries.stream().filter(x -> x.kind.equals("output")).map(x -> x.path).findFirst().orElse("bin");
+	}
+}
@@ -0,0 +1,121 @@
+package fop.project_cleaner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Decides by the name of a ZIP entry if it is extracted at all, so build
+ * output, IDE metadata and OS junk in a submission are never written to the
+ * disk. Patterns may contain {@code *} and {@code ?} and are matched against
+ * the segments of the entry name:
+ * <ul>
+ * <li>{@code name} excludes every entry with a segment matching it, e.g.
+ * {@code __MACOSX} or {@code *.class}</li>
+ * <li>{@code name/} only excludes a directory next to the project folder or
+ * directly inside it, e.g. {@code bin/}, so a package of that name is kept.
+ * For an archive of the project content without its folder, use
+ * {@link #withoutProjectFolder()}, the project then starts at the top
+ * level.</li>
+ * </ul>
+ * Instances are immutable and can be shared between threads.
+ */
+public class EntryFilter implements Predicate<String> {
+	/**
+	 * The patterns used if a File List does not set {@code exclude_entries}
+	 */
+	public static final List<String> DEFAULT_PATTERNS = List.of("__MACOSX", ".DS_Store", ".metadata", ".idea",
+			"bin/", "out/", "*.class");
+
+	private final List<Pattern> anywhere;
+	private final List<Pattern> topLevel;
+	// The directory patterns apply to the segments before this index
+	private final int topLevelDepth;
+
+	/**
+	 * Create a new {@link EntryFilter}
+	 *
+	 * @param patterns the patterns of the entries to exclude
+	 * @throws IllegalArgumentException if a pattern is empty or contains a
+	 *                                  {@code /} other than at its end
+	 */
+	public EntryFilter(List<String> patterns) {
+		List<Pattern> anywhere = new ArrayList<>();
+		List<Pattern> topLevel = new ArrayList<>();
+		for (String pattern : patterns) {
+			boolean directory = pattern.endsWith("/");
+			String segment = directory ? pattern.substring(0, pattern.length() - 1) : pattern;
+			if (segment.isEmpty() || segment.contains("/")) {
+				throw new IllegalArgumentException("Invalid entry pattern: \"" + pattern + "\"");
+			}
+			(directory ? topLevel : anywhere).add(toRegex(segment));
+		}
+		this.anywhere = List.copyOf(anywhere);
+		this.topLevel = List.copyOf(topLevel);
+		this.topLevelDepth = 2;
+	}
+
+	private EntryFilter(List<Pattern> anywhere, List<Pattern> topLevel, int topLevelDepth) {
+		this.anywhere = anywhere;
+		this.topLevel = topLevel;
+		this.topLevelDepth = topLevelDepth;
+	}
+
+	/**
+	 * @return an {@link EntryFilter} with the same patterns for an archive whose
+	 *         top level is the content of the project (see
+	 *         {@link ProjectLayout#isMissingProjectFolder()}), so
+	 *         {@code src/bin/Foo.java} is kept there
+	 */
+	public EntryFilter withoutProjectFolder() {
+		return new EntryFilter(anywhere, topLevel, 1);
+	}
+
+	/**
+	 * @return an {@link EntryFilter} with the {@link #DEFAULT_PATTERNS}
+	 */
+	public static EntryFilter defaults() {
+		return new EntryFilter(DEFAULT_PATTERNS);
+	}
+
+	private static Pattern toRegex(String glob) {
+		StringBuilder regex = new StringBuilder();
+		for (String part : glob.split("(?=[*?])|(?<=[*?])")) {
+			if (part.equals("*")) {
+				regex.append("[^/]*");
+			} else if (part.equals("?")) {
+				regex.append("[^/]");
+			} else {
+				regex.append(Pattern.quote(part));
+			}
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	/**
+	 * @param name the name of a ZIP entry
+	 * @return true if the entry should be extracted
+	 */
+	@Override
+	public boolean test(String name) {
+		String[] segments = name.replace('\\', '/').split("/");
+		for (int i = 0; i < segments.length; i++) {
+			// The last segment of a File entry is not a directory
+			boolean isDirectory = i < segments.length - 1 || name.endsWith("/");
+			for (Pattern pattern : anywhere) {
+				if (pattern.matcher(segments[i]).matches()) {
+					return false;
+				}
+			}
+			if (isDirectory && i < topLevelDepth) {
+				for (Pattern pattern : topLevel) {
+					if (pattern.matcher(segments[i]).matches()) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}
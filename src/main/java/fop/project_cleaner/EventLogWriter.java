@@ -0,0 +1,119 @@
+package fop.project_cleaner;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Appends {@link ExtractionEvent}s to a JSON-lines File. Events are queued by
+ * the extracting thread and serialized and written by a background thread, so
+ * publishing an event only costs an enqueue. Each line is one JSON object with
+ * the keys {@code time}, {@code type}, {@code submission} and the fields of the
+ * event.
+ */
+public class EventLogWriter implements ExtractionListener, AutoCloseable {
+	/**
+	 * The default name of the event log inside the output directory
+	 */
+	public static final String DEFAULT_FILE_NAME = "events.jsonl";
+	private static final ExtractionEvent END_OF_LOG = new ExtractionEvent(ExtractionEvent.Type.MESSAGE, null);
+
+	private final File file;
+	private final PrintStream err;
+	private final BlockingQueue<ExtractionEvent> queue = new LinkedBlockingQueue<>();
+	private final Thread writerThread;
+	private final Gson gson = new Gson();
+	private volatile boolean closed;
+
+	/**
+	 * Create a new {@link EventLogWriter} and start its background thread
+	 *
+	 * @param file the File to append to
+	 * @param err  the stream to report write errors to
+	 * @throws IOException if the File cannot be opened
+	 */
+	public EventLogWriter(File file, PrintStream err) throws IOException {
+		this.file = file;
+		this.err = err;
+		BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		writerThread = new Thread(() -> writeLoop(writer), "event-log-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * @return the File the events are written to
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public void eventOccurred(ExtractionEvent event) {
+		if (!closed) {
+			queue.add(event);
+		}
+	}
+
+	private void writeLoop(BufferedWriter writer) {
+		List<ExtractionEvent> batch = new ArrayList<>();
+		try (writer) {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch);
+				for (ExtractionEvent event : batch) {
+					if (event == END_OF_LOG) {
+						return;
+					}
+					writer.write(toJson(event));
+					writer.newLine();
+				}
+				batch.clear();
+				writer.flush();
+			}
+		} catch (IOException e) {
+			err.println("Event log could not be written to " + file + ": " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private String toJson(ExtractionEvent event) {
+		JsonObject object = new JsonObject();
+		object.addProperty("time", Instant.ofEpochMilli(event.getTimestamp()).toString());
+		object.addProperty("type", event.getType().name());
+		object.addProperty("submission", event.getSubmission());
+		event.getFields().forEach((key, value) -> object.add(key, gson.toJsonTree(value)));
+		return gson.toJson(object);
+	}
+
+	/**
+	 * Writes all queued events and stops the background thread
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		queue.add(END_OF_LOG);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package fop.project_cleaner;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets another thread cancel or pause a running {@link SubmissionsExtractor}.
+ * The extraction is cooperative: it calls {@link #checkpoint()} between
+ * submissions and between the entries of an archive, which blocks while the
+ * run is paused and throws a {@link CancellationException} once it was
+ * cancelled. External processes registered with
+ * {@link #register(Process)} are destroyed on cancellation, so a long running
+ * raco test does not delay it.
+ */
+public class ExtractionControl {
+	private volatile boolean cancelled;
+	private volatile boolean paused;
+	private final Object pauseLock = new Object();
+	private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Cancels the extraction, wakes up paused threads and destroys all
+	 * registered processes
+	 */
+	public void cancel() {
+		cancelled = true;
+		synchronized (pauseLock) {
+			pauseLock.notifyAll();
+		}
+		for (Process process : processes) {
+			process.destroyForcibly();
+		}
+	}
+
+	/**
+	 * Pauses the extraction at its next checkpoint
+	 */
+	public void pause() {
+		paused = true;
+	}
+
+	/**
+	 * Resumes a paused extraction
+	 */
+	public void resume() {
+		synchronized (pauseLock) {
+			paused = false;
+			pauseLock.notifyAll();
+		}
+	}
+
+	/**
+	 * @return true if the extraction was cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return true if the extraction is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Blocks while the extraction is paused
+	 *
+	 * @throws CancellationException if the extraction was cancelled or the
+	 *                               waiting thread was interrupted
+	 */
+	public void checkpoint() {
+		if (paused) {
+			synchronized (pauseLock) {
+				while (paused && !cancelled) {
+					try {
+						pauseLock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						cancelled = true;
+					}
+				}
+			}
+		}
+		if (cancelled) {
+			throw new CancellationException("Extraction cancelled");
+		}
+	}
+
+	/**
+	 * Registers a running process to destroy on cancellation. A process started
+	 * after the extraction was cancelled is destroyed right away.
+	 *
+	 * @param process the {@link Process}
+	 */
+	public void register(Process process) {
+		processes.add(process);
+		if (cancelled) {
+			process.destroyForcibly();
+		}
+	}
+
+	/**
+	 * @param process the {@link Process} that has terminated
+	 */
+	public void unregister(Process process) {
+		processes.remove(process);
+	}
+}
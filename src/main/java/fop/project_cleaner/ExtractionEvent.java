@@ -0,0 +1,152 @@
+package fop.project_cleaner;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A structured record of something that happened during an extraction. Events
+ * are published to {@link ExtractionListener#eventOccurred(ExtractionEvent)}
+ * and written as one JSON object per line by an {@link EventLogWriter}, so
+ * large runs can be filtered and compared without parsing the text log.
+ */
+public final class ExtractionEvent {
+	/**
+	 * The kinds of events
+	 */
+	public enum Type {
+		/**
+		 * The extraction started, fields: submissions, output, language
+		 */
+		RUN_STARTED,
+		/**
+		 * A new phase of the extraction began, fields: phase
+		 */
+		PHASE,
+		/**
+		 * A submission is about to be processed, fields: directory, bytes, inMemory
+		 */
+		SUBMISSION_STARTED,
+		/**
+		 * A submission was processed, fields: successful, durationMillis
+		 */
+		SUBMISSION_FINISHED,
+		/**
+		 * A project or file name did not match the naming convention, fields: found,
+		 * renamedTo (null if not fixed)
+		 */
+		NAMING_VIOLATION,
+		/**
+		 * A file that should exist is missing in a submission, fields: path,
+		 * copiedFromSolution
+		 */
+		FILE_MISSING,
+		/**
+		 * A file that should not exist is present in a submission, fields: path,
+		 * overwritten
+		 */
+		FILE_UNEXPECTED,
+		/**
+		 * The solution was merged into a submission, fields: identical (Files to
+		 * overwrite that were identical already), overwritten, copied (missing
+		 * Files)
+		 */
+		MERGE_FINISHED,
+		/**
+		 * A submission archive exceeded the {@link ExtractionLimits} and was moved to
+		 * the faulty directory, fields: archive, reason
+		 */
+		LIMIT_EXCEEDED,
+		/**
+		 * Forbidden code was found in a Java source, fields: rule, path, line,
+		 * column
+		 */
+		FORBIDDEN_CODE,
+		/**
+		 * A Java project was compiled, fields: successful, files, errors, problems
+		 * (kind, path, line, column, message)
+		 */
+		COMPILE_RESULT,
+		/**
+		 * A single test was run, fields: task, test, passed (Racket) or class, test,
+		 * passed, status, message, durationMillis (Java)
+		 */
+		TEST_RESULT,
+		/**
+		 * A log message, fields: level, message (only with the system property
+		 * {@value SubmissionsExtractor#MESSAGE_EVENTS_PROPERTY})
+		 */
+		MESSAGE,
+		/**
+		 * The extraction finished (also if aborted), fields: submissions, successful,
+		 * faulty, durationMillis, abortReason
+		 */
+		RUN_FINISHED
+	}
+
+	private final long timestamp;
+	private final Type type;
+	private final String submission;
+	private final Map<String, Object> fields = new LinkedHashMap<>();
+
+	/**
+	 * Create a new {@link ExtractionEvent}
+	 *
+	 * @param type       the {@link Type}
+	 * @param submission the name of the student the event belongs to (can be
+	 *                   null)
+	 */
+	public ExtractionEvent(Type type, String submission) {
+		this.timestamp = System.currentTimeMillis();
+		this.type = type;
+		this.submission = submission;
+	}
+
+	/**
+	 * Adds a field to this event
+	 *
+	 * @param key   the key
+	 * @param value the value (a String, Number or Boolean)
+	 * @return this event
+	 */
+	public ExtractionEvent with(String key, Object value) {
+		fields.put(key, value);
+		return this;
+	}
+
+	/**
+	 * @return the time the event was created in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return the {@link Type}
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the name of the student the event belongs to (can be null)
+	 */
+	public String getSubmission() {
+		return submission;
+	}
+
+	/**
+	 * @return the fields of this event
+	 */
+	public Map<String, Object> getFields() {
+		return Collections.unmodifiableMap(fields);
+	}
+
+	/**
+	 * @param key the key
+	 * @return the value of the field or null
+	 */
+	public Object get(String key) {
+		return fields.get(key);
+	}
+}
@@ -0,0 +1,266 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A write-ahead journal of the submissions of a run, so a cancelled or crashed
+ * run can be resumed with the same output directory. The journal is a text
+ * File inside the output directory: the first line identifies the submissions
+ * archive, every further line is a {@link State} transition of one submission
+ * directory. Each line is forced to the disk before the transition is acted
+ * upon. The journal is deleted when the run completes.
+ */
+public class ExtractionJournal implements AutoCloseable {
+	/**
+	 * The name of the journal inside the output directory
+	 */
+	public static final String FILE_NAME = ".project_cleaner_journal";
+	private static final String ARCHIVE = "ARCHIVE";
+
+	/**
+	 * The states of a submission
+	 */
+	public enum State {
+		/**
+		 * The submission is being processed
+		 */
+		STARTED,
+		/**
+		 * The finished project is about to be renamed into the output directory
+		 */
+		PUBLISHING,
+		/**
+		 * The project was published successfully
+		 */
+		PUBLISHED,
+		/**
+		 * The submission was moved to the faulty directory
+		 */
+		FAULTY;
+
+		/**
+		 * @return true if the submission needs no further work
+		 */
+		public boolean isFinal() {
+			return this == PUBLISHED || this == FAULTY;
+		}
+	}
+
+	/**
+	 * The last known state of a submission
+	 */
+	private static class Entry {
+		final State state;
+		final String project;
+
+		Entry(State state, String project) {
+			this.state = state;
+			this.project = project;
+		}
+	}
+
+	private final File file;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private FileChannel channel;
+
+	private ExtractionJournal(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * @param outputDir the output directory
+	 * @return the journal File inside the output directory
+	 */
+	public static File fileIn(File outputDir) {
+		return new File(outputDir, FILE_NAME);
+	}
+
+	/**
+	 * Starts a new journal, replacing an existing one
+	 *
+	 * @param outputDir the output directory
+	 * @param archive   the submissions archive of the run
+	 * @return the {@link ExtractionJournal}
+	 * @throws IOException if the journal cannot be written
+	 */
+	public static ExtractionJournal create(File outputDir, File archive) throws IOException {
+		ExtractionJournal journal = new ExtractionJournal(fileIn(outputDir));
+		journal.channel = FileChannel.open(journal.file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		journal.append(ARCHIVE + "\t" + fingerprint(archive));
+		syncDirectory(outputDir);
+		return journal;
+	}
+
+	/**
+	 * Opens the journal of an unfinished run to continue it
+	 *
+	 * @param outputDir the output directory
+	 * @param archive   the submissions archive of the run
+	 * @return the {@link ExtractionJournal}, or null if there is no journal or it
+	 *         belongs to a different archive
+	 * @throws IOException if the journal cannot be read or written
+	 */
+	public static ExtractionJournal resume(File outputDir, File archive) throws IOException {
+		File file = fileIn(outputDir);
+		if (!file.isFile()) {
+			return null;
+		}
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		if (lines.isEmpty() || !lines.get(0).equals(ARCHIVE + "\t" + fingerprint(archive))) {
+			return null;
+		}
+		ExtractionJournal journal = new ExtractionJournal(file);
+		for (String line : lines.subList(1, lines.size())) {
+			String[] parts = line.split("\t", -1);
+			// A line cut off by a crash is ignored, the transition never happened
+			if (parts.length != 3) {
+				continue;
+			}
+			try {
+				State state = State.valueOf(parts[0]);
+				journal.entries.put(parts[1], new Entry(state, parts[2].isEmpty() ? null : parts[2]));
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+		}
+		journal.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		return journal;
+	}
+
+	private static String fingerprint(File archive) {
+		return archive.getAbsolutePath() + "\t" + archive.length() + "\t" + archive.lastModified();
+	}
+
+	/**
+	 * Forces a directory entry (e.g. a new File or a rename) to the disk. Not all
+	 * platforms allow to open a directory, there this is a no-op.
+	 *
+	 * @param directory the directory
+	 */
+	static void syncDirectory(File directory) {
+		try (FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// Not supported (e.g. on Windows)
+		}
+	}
+
+	/**
+	 * @return the journal File
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @param submission the name of the submission directory
+	 * @return the last recorded {@link State} of the submission (null if it was
+	 *         never started)
+	 */
+	public State getState(String submission) {
+		Entry entry = entries.get(submission);
+		return entry == null ? null : entry.state;
+	}
+
+	/**
+	 * @param submission the name of the submission directory
+	 * @return true if the submission needs no further work
+	 */
+	public boolean isFinished(String submission) {
+		State state = getState(submission);
+		return state != null && state.isFinal();
+	}
+
+	/**
+	 * @param submission the name of the submission directory
+	 * @return the name of the project recorded with the last transition (can be
+	 *         null)
+	 */
+	public String getProject(String submission) {
+		Entry entry = entries.get(submission);
+		return entry == null ? null : entry.project;
+	}
+
+	/**
+	 * @return the names of all submission directories in the journal
+	 */
+	public Iterable<String> getSubmissions() {
+		return entries.keySet();
+	}
+
+	/**
+	 * @return the number of finished submissions
+	 */
+	public int getFinishedCount() {
+		return (int) entries.values().stream().filter(x -> x.state.isFinal()).count();
+	}
+
+	/**
+	 * @return the number of submissions finished successfully
+	 */
+	public int getPublishedCount() {
+		return (int) entries.values().stream().filter(x -> x.state == State.PUBLISHED).count();
+	}
+
+	/**
+	 * Records a state transition and forces it to the disk. Once the journal is
+	 * closed, also because a write failed, nothing is recorded anymore.
+	 *
+	 * @param submission the name of the submission directory
+	 * @param state      the new {@link State}
+	 * @param project    the name of the project in the output directory (can be
+	 *                   null)
+	 * @throws IOException if the journal cannot be written, it is closed then
+	 */
+	public synchronized void record(String submission, State state, String project) throws IOException {
+		if (channel == null) {
+			return;
+		}
+		try {
+			append(state.name() + "\t" + submission + "\t" + (project == null ? "" : project));
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+		entries.put(submission, new Entry(state, project));
+	}
+
+	private void append(String line) throws IOException {
+		ByteBuffer buffer = StandardCharsets.UTF_8.encode(line + "\n");
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Closes and deletes the journal once the run is complete
+	 */
+	public void delete() {
+		close();
+		file.delete();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			System.err.println("Journal could not be closed: " + e.getMessage());
+		}
+		channel = null;
+	}
+}
@@ -0,0 +1,21 @@
+package fop.project_cleaner;
+
+import java.io.IOException;
+
+/**
+ * Thrown if an archive exceeds one of the {@link ExtractionLimits} or contains
+ * an entry that would be written outside of the destination directory. The
+ * message is the reason shown to the user.
+ */
+public class ExtractionLimitException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Create a new {@link ExtractionLimitException}
+	 *
+	 * @param reason why the archive was rejected
+	 */
+	public ExtractionLimitException(String reason) {
+		super(reason);
+	}
+}
@@ -0,0 +1,147 @@
+package fop.project_cleaner;
+
+import java.util.Enumeration;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Limits for unpacking a single submission, so a zip bomb, a video or a huge
+ * {@code bin/} tree cannot fill the disk or stall the run. The declared sizes
+ * in the central directory are checked before anything is inflated; since
+ * they can be forged, the actual sizes are checked again while streaming.
+ * Field names match the JSON keys of the {@code limits} object of a batch job.
+ */
+public class ExtractionLimits {
+	/**
+	 * The compression ratio is only checked for entries larger than this, small
+	 * text files compress well without being suspicious
+	 */
+	private static final long RATIO_MIN_BYTES = 1024 * 1024;
+
+	private long maxTotalBytes = 512L * 1024 * 1024;
+	private int maxEntries = 10_000;
+	private long maxEntryBytes = 100L * 1024 * 1024;
+	private double maxCompressionRatio = 100;
+
+	/**
+	 * @return {@link ExtractionLimits} that never reject an archive
+	 */
+	public static ExtractionLimits unlimited() {
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.maxTotalBytes = Long.MAX_VALUE;
+		limits.maxEntries = Integer.MAX_VALUE;
+		limits.maxEntryBytes = Long.MAX_VALUE;
+		limits.maxCompressionRatio = Double.POSITIVE_INFINITY;
+		return limits;
+	}
+
+	/**
+	 * @return the maximum number of uncompressed bytes of all entries
+	 */
+	public long getMaxTotalBytes() {
+		return maxTotalBytes;
+	}
+
+	/**
+	 * @param maxTotalBytes the maxTotalBytes to set
+	 */
+	public void setMaxTotalBytes(long maxTotalBytes) {
+		this.maxTotalBytes = maxTotalBytes;
+	}
+
+	/**
+	 * @return the maximum number of entries
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @param maxEntries the maxEntries to set
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @return the maximum number of uncompressed bytes of a single entry
+	 */
+	public long getMaxEntryBytes() {
+		return maxEntryBytes;
+	}
+
+	/**
+	 * @param maxEntryBytes the maxEntryBytes to set
+	 */
+	public void setMaxEntryBytes(long maxEntryBytes) {
+		this.maxEntryBytes = maxEntryBytes;
+	}
+
+	/**
+	 * @return the maximum ratio of uncompressed to compressed size of an entry
+	 */
+	public double getMaxCompressionRatio() {
+		return maxCompressionRatio;
+	}
+
+	/**
+	 * @param maxCompressionRatio the maxCompressionRatio to set
+	 */
+	public void setMaxCompressionRatio(double maxCompressionRatio) {
+		this.maxCompressionRatio = maxCompressionRatio;
+	}
+
+	/**
+	 * Checks the entry count and the declared sizes before extracting
+	 *
+	 * @param zip         the archive
+	 * @param entryFilter the entries that will be extracted (null for all)
+	 * @throws ExtractionLimitException if a limit is exceeded
+	 */
+	void checkCentralDirectory(ZipFile zip, Predicate<String> entryFilter) throws ExtractionLimitException {
+		int entries = 0;
+		long totalBytes = 0;
+		Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+		while (zipEntries.hasMoreElements()) {
+			ZipEntry entry = zipEntries.nextElement();
+			if (entryFilter != null && !entryFilter.test(entry.getName())) {
+				continue;
+			}
+			if (++entries > maxEntries) {
+				throw new ExtractionLimitException("more than " + maxEntries + " entries");
+			}
+			long size = Math.max(entry.getSize(), 0);
+			totalBytes += size;
+			checkEntry(entry, size, totalBytes);
+		}
+	}
+
+	/**
+	 * Checks the bytes written so far while streaming
+	 *
+	 * @param entry      the current entry
+	 * @param entryBytes the bytes of the entry written so far
+	 * @param totalBytes the bytes of all entries written so far
+	 * @throws ExtractionLimitException if a limit is exceeded
+	 */
+	void checkEntry(ZipEntry entry, long entryBytes, long totalBytes) throws ExtractionLimitException {
+		if (entryBytes > maxEntryBytes) {
+			throw new ExtractionLimitException(
+					String.format("entry %s is larger than %s", entry.getName(), formatBytes(maxEntryBytes)));
+		}
+		if (totalBytes > maxTotalBytes) {
+			throw new ExtractionLimitException(
+					String.format("more than %s when unpacked", formatBytes(maxTotalBytes)));
+		}
+		long compressed = entry.getCompressedSize();
+		if (compressed > 0 && entryBytes > RATIO_MIN_BYTES && entryBytes > compressed * maxCompressionRatio) {
+			throw new ExtractionLimitException(String.format("entry %s is compressed more than %.0f:1 (zip bomb?)",
+					entry.getName(), maxCompressionRatio));
+		}
+	}
+
+	private static String formatBytes(long bytes) {
+		return String.format("%.1f MB", bytes / 1e6);
+	}
+}
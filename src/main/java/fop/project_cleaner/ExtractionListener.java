@@ -0,0 +1,78 @@
+package fop.project_cleaner;
+
+/**
+ * Receives progress and log events of a {@link SubmissionsExtractor}. All
+ * methods are called on the thread doing the extraction, so implementations
+ * that touch a UI have to hand the updates over to their UI thread themselves.
+ * All methods have empty default implementations, so listeners only need to
+ * implement what they are interested in.
+ */
+public interface ExtractionListener {
+	/**
+	 * Called when a new phase of the extraction begins
+	 *
+	 * @param phase a short description of the phase (e.g. "Extracting Projects")
+	 */
+	default void phaseChanged(String phase) {
+	}
+
+	/**
+	 * Called once the number of submissions is known
+	 *
+	 * @param submissionCount the number of submissions that will be processed
+	 */
+	default void extractionStarted(int submissionCount) {
+	}
+
+	/**
+	 * Called before a submission is processed
+	 *
+	 * @param submittorName the name of the student
+	 */
+	default void submissionStarted(String submittorName) {
+	}
+
+	/**
+	 * Called after a submission was processed
+	 *
+	 * @param submittorName the name of the student
+	 * @param successful    false if the submission was moved to the faulty
+	 *                      directory
+	 */
+	default void submissionFinished(String submittorName, boolean successful) {
+	}
+
+	/**
+	 * Called whenever the number of processed submissions changes
+	 *
+	 * @param done  the number of processed submissions
+	 * @param total the number of submissions
+	 */
+	default void progressChanged(int done, int total) {
+	}
+
+	/**
+	 * Called for every log message
+	 *
+	 * @param message the message
+	 * @param error   true for warnings and errors
+	 */
+	default void messageLogged(String message, boolean error) {
+	}
+
+	/**
+	 * Called for every structured {@link ExtractionEvent}
+	 *
+	 * @param event the event
+	 */
+	default void eventOccurred(ExtractionEvent event) {
+	}
+
+	/**
+	 * Called when the extraction is done (also if it was aborted)
+	 *
+	 * @param result the {@link ExtractionResult}
+	 */
+	default void extractionFinished(ExtractionResult result) {
+	}
+}
@@ -0,0 +1,505 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Timers and counters of one extraction. All methods are thread safe and cheap
+ * enough to be called for every submission. Steps are timed with
+ * {@link #time(Step, String)} in a try-with-resources block. If JFR events are
+ * enabled (system property {@value #JFR_PROPERTY}), every step and submission
+ * is also committed as a custom JFR event, so it can be correlated with GC and
+ * I/O in a flight recording.
+ */
+public class ExtractionMetrics {
+	/**
+	 * System property that enables the JFR events
+	 */
+	public static final String JFR_PROPERTY = "project_cleaner.jfr";
+	/**
+	 * The default name of the metrics File inside the output directory
+	 */
+	public static final String DEFAULT_FILE_NAME = "metrics.json";
+
+	/**
+	 * The timed steps of an extraction
+	 */
+	public enum Step {
+		/**
+		 * Extracting an archive
+		 */
+		UNZIP,
+		/**
+		 * Checking and rewriting the .project File
+		 */
+		PROJECT_FILE,
+		/**
+		 * Merging the solution into a submission
+		 */
+		MERGE,
+		/**
+		 * Running raco (tests or WXME conversion)
+		 */
+		RACO,
+		/**
+		 * Compiling a Java project
+		 */
+		COMPILE,
+		/**
+		 * Scanning the Java sources for forbidden code
+		 */
+		SCAN,
+		/**
+		 * Running the tests of the solution against a Java project
+		 */
+		TEST,
+		/**
+		 * Moving a finished submission to the output or faulty directory
+		 */
+		MOVE
+	}
+
+	/**
+	 * A running timer, stops when closed
+	 */
+	public final class Timing implements AutoCloseable {
+		private final Step step;
+		private final long start = System.nanoTime();
+		private final StepEvent event;
+
+		private Timing(Step step, String submission) {
+			this.step = step;
+			if (jfrEnabled) {
+				event = new StepEvent();
+				event.step = step.name();
+				event.submission = submission;
+				event.begin();
+			} else {
+				event = null;
+			}
+		}
+
+		@Override
+		public void close() {
+			stepHistograms.get(step).record(System.nanoTime() - start);
+			if (event != null) {
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * A histogram of durations with fixed, roughly logarithmic buckets
+	 */
+	public static class Histogram {
+		private static final long[] BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000,
+				60000 };
+		private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void record(long nanos) {
+			long millis = nanos / 1_000_000;
+			int bucket = 0;
+			while (bucket < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[bucket]) {
+				bucket++;
+			}
+			buckets.incrementAndGet(bucket);
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		/**
+		 * @return the number of recorded durations
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * @return the sum of all durations in milliseconds
+		 */
+		public double getTotalMillis() {
+			return totalNanos.sum() / 1e6;
+		}
+
+		/**
+		 * @return the longest duration in milliseconds
+		 */
+		public double getMaxMillis() {
+			return maxNanos.get() / 1e6;
+		}
+
+		/**
+		 * @param percentile the percentile (0 to 100)
+		 * @return the upper bound of the bucket containing the percentile in
+		 *         milliseconds (the maximum for the last bucket)
+		 */
+		public double getPercentileMillis(double percentile) {
+			long total = getCount();
+			if (total == 0) {
+				return 0;
+			}
+			long threshold = (long) Math.ceil(total * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < buckets.length(); i++) {
+				seen += buckets.get(i);
+				if (seen >= threshold) {
+					return i < BOUNDS_MILLIS.length ? Math.min(BOUNDS_MILLIS[i], getMaxMillis()) : getMaxMillis();
+				}
+			}
+			return getMaxMillis();
+		}
+
+		JsonObject toJson() {
+			JsonObject json = new JsonObject();
+			json.addProperty("count", getCount());
+			json.addProperty("totalMillis", getTotalMillis());
+			json.addProperty("meanMillis", getCount() == 0 ? 0 : getTotalMillis() / getCount());
+			json.addProperty("p50Millis", getPercentileMillis(50));
+			json.addProperty("p90Millis", getPercentileMillis(90));
+			json.addProperty("p99Millis", getPercentileMillis(99));
+			json.addProperty("maxMillis", getMaxMillis());
+			JsonObject bucketJson = new JsonObject();
+			for (int i = 0; i < buckets.length(); i++) {
+				bucketJson.addProperty(i < BOUNDS_MILLIS.length ? "<" + BOUNDS_MILLIS[i] + "ms" : "more",
+						buckets.get(i));
+			}
+			json.add("buckets", bucketJson);
+			return json;
+		}
+	}
+
+	@Name("fop.project_cleaner.Step")
+	@Label("Extraction Step")
+	@Category("Project Cleaner")
+	static class StepEvent extends Event {
+		@Label("Step")
+		String step;
+		@Label("Submission")
+		String submission;
+	}
+
+	@Name("fop.project_cleaner.Submission")
+	@Label("Submission")
+	@Category("Project Cleaner")
+	static class SubmissionEvent extends Event {
+		@Label("Submission")
+		String submission;
+		@Label("Successful")
+		boolean successful;
+		@Label("Archive Size")
+		@DataAmount
+		long bytes;
+	}
+
+	private static final int SLOWEST_SUBMISSIONS = 10;
+
+	private final boolean jfrEnabled;
+	private final long startNanos = System.nanoTime();
+	private final Map<Step, Histogram> stepHistograms = new EnumMap<>(Step.class);
+	private final Histogram submissionHistogram = new Histogram();
+	private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+	private final List<Object[]> slowestSubmissions = new ArrayList<>();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final LongAdder filesWritten = new LongAdder();
+	private final LongAdder submissionsDone = new LongAdder();
+	private final LongAdder submissionsFailed = new LongAdder();
+	private String currentPhase;
+	private long currentPhaseStart;
+	private volatile long finishedNanos;
+
+	/**
+	 * Create a new {@link ExtractionMetrics}, JFR events are enabled by the
+	 * system property {@value #JFR_PROPERTY}
+	 */
+	public ExtractionMetrics() {
+		this(Boolean.getBoolean(JFR_PROPERTY));
+	}
+
+	/**
+	 * Create a new {@link ExtractionMetrics}
+	 *
+	 * @param jfrEnabled if steps and submissions should be committed as JFR events
+	 */
+	public ExtractionMetrics(boolean jfrEnabled) {
+		this.jfrEnabled = jfrEnabled;
+		for (Step step : Step.values()) {
+			stepHistograms.put(step, new Histogram());
+		}
+	}
+
+	/**
+	 * Starts timing a step
+	 *
+	 * @param step       the {@link Step}
+	 * @param submission the name of the student (can be null)
+	 * @return the {@link Timing}, to be closed when the step is done
+	 */
+	public Timing time(Step step, String submission) {
+		return new Timing(step, submission);
+	}
+
+	/**
+	 * A step timed by {@link ExtractionMetrics#timed(Step, String, TimedStep)}
+	 *
+	 * @param <T> the result of the step
+	 * @param <E> the exception the step may throw
+	 */
+	@FunctionalInterface
+	public interface TimedStep<T, E extends Exception> {
+		T run() throws E;
+	}
+
+	/**
+	 * A step without result timed by
+	 * {@link ExtractionMetrics#timed(Step, String, TimedTask)}
+	 *
+	 * @param <E> the exception the step may throw
+	 */
+	@FunctionalInterface
+	public interface TimedTask<E extends Exception> {
+		void run() throws E;
+	}
+
+	/**
+	 * Runs a step and times it, also if it fails
+	 *
+	 * @param step       the {@link Step}
+	 * @param submission the name of the student (can be null)
+	 * @param body       the step
+	 * @return the result of the step
+	 * @throws E if the step fails
+	 */
+	public <T, E extends Exception> T timed(Step step, String submission, TimedStep<T, E> body) throws E {
+		Timing timing = time(step, submission);
+		try {
+			return body.run();
+		} finally {
+			timing.close();
+		}
+	}
+
+	/**
+	 * Runs a step without result and times it, also if it fails
+	 *
+	 * @param step       the {@link Step}
+	 * @param submission the name of the student (can be null)
+	 * @param body       the step
+	 * @throws E if the step fails
+	 */
+	public <E extends Exception> void timed(Step step, String submission, TimedTask<E> body) throws E {
+		Timing timing = time(step, submission);
+		try {
+			body.run();
+		} finally {
+			timing.close();
+		}
+	}
+
+	/**
+	 * Ends the current phase and starts the next one
+	 *
+	 * @param phase the name of the new phase (null to only end the current one)
+	 */
+	public synchronized void phaseChanged(String phase) {
+		long now = System.nanoTime();
+		if (currentPhase != null) {
+			phaseNanos.merge(currentPhase, now - currentPhaseStart, Long::sum);
+		}
+		currentPhase = phase;
+		currentPhaseStart = now;
+	}
+
+	/**
+	 * Records a processed submission
+	 *
+	 * @param submission the name of the student
+	 * @param nanos      the time it took
+	 * @param successful false if the submission was moved to the faulty directory
+	 * @param bytes      the size of the submission archive
+	 */
+	public void submissionFinished(String submission, long nanos, boolean successful, long bytes) {
+		submissionHistogram.record(nanos);
+		submissionsDone.increment();
+		if (!successful) {
+			submissionsFailed.increment();
+		}
+		synchronized (slowestSubmissions) {
+			slowestSubmissions.add(new Object[] { submission, nanos });
+			slowestSubmissions.sort((a, b) -> Long.compare((Long) b[1], (Long) a[1]));
+			if (slowestSubmissions.size() > SLOWEST_SUBMISSIONS) {
+				slowestSubmissions.remove(SLOWEST_SUBMISSIONS);
+			}
+		}
+		if (jfrEnabled) {
+			var event = new SubmissionEvent();
+			event.submission = submission;
+			event.successful = successful;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	/**
+	 * @param bytes the number of bytes read from archives
+	 */
+	public void addBytesRead(long bytes) {
+		bytesRead.add(bytes);
+	}
+
+	/**
+	 * @param bytes the number of bytes written
+	 * @param files the number of Files written
+	 */
+	public void addWritten(long bytes, long files) {
+		bytesWritten.add(bytes);
+		filesWritten.add(files);
+	}
+
+	/**
+	 * Ends the last phase and stops the clock
+	 */
+	public void finish() {
+		phaseChanged(null);
+		finishedNanos = System.nanoTime();
+	}
+
+	/**
+	 * @return the time since the extraction started (or until it finished) in
+	 *         milliseconds
+	 */
+	public long getElapsedMillis() {
+		long end = finishedNanos == 0 ? System.nanoTime() : finishedNanos;
+		return (end - startNanos) / 1_000_000;
+	}
+
+	/**
+	 * @return the number of bytes read from archives
+	 */
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	/**
+	 * @return the number of bytes written
+	 */
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/**
+	 * @return the number of Files written
+	 */
+	public long getFilesWritten() {
+		return filesWritten.sum();
+	}
+
+	/**
+	 * @return the number of processed submissions
+	 */
+	public long getSubmissionsDone() {
+		return submissionsDone.sum();
+	}
+
+	/**
+	 * @param step the {@link Step}
+	 * @return the {@link Histogram} of the durations of that step
+	 */
+	public Histogram getStepHistogram(Step step) {
+		return stepHistograms.get(step);
+	}
+
+	/**
+	 * @return the {@link Histogram} of the submission durations
+	 */
+	public Histogram getSubmissionHistogram() {
+		return submissionHistogram;
+	}
+
+	/**
+	 * Formats the metrics as a table for the log
+	 *
+	 * @return the table
+	 */
+	public synchronized String formatSummary() {
+		StringBuilder table = new StringBuilder();
+		table.append(String.format("%-22s %10s%n", "Phase", "ms"));
+		phaseNanos.forEach((phase, nanos) -> table.append(String.format("%-22s %10d%n", phase, nanos / 1_000_000)));
+		table.append(String.format("%n%-22s %7s %10s %8s %8s %8s%n", "Step", "count", "total ms", "mean", "p90",
+				"max"));
+		appendRow(table, "Submission", submissionHistogram);
+		stepHistograms.forEach((step, histogram) -> appendRow(table, step.name(), histogram));
+		double seconds = Math.max(getElapsedMillis(), 1) / 1000.0;
+		table.append(String.format("%n%d submissions (%d faulty) in %.1f s, %.1f submissions/s%n", getSubmissionsDone(),
+				submissionsFailed.sum(), seconds, getSubmissionsDone() / seconds));
+		table.append(String.format("%.1f MB read, %.1f MB / %d files written%n", getBytesRead() / 1e6,
+				getBytesWritten() / 1e6, getFilesWritten()));
+		return table.toString();
+	}
+
+	private static void appendRow(StringBuilder table, String name, Histogram histogram) {
+		if (histogram.getCount() == 0) {
+			return;
+		}
+		table.append(String.format("%-22s %7d %10.0f %8.1f %8.0f %8.0f%n", name, histogram.getCount(),
+				histogram.getTotalMillis(), histogram.getTotalMillis() / histogram.getCount(),
+				histogram.getPercentileMillis(90), histogram.getMaxMillis()));
+	}
+
+	/**
+	 * Writes the metrics as JSON
+	 *
+	 * @param file the File to write to
+	 * @throws IOException if the File cannot be written
+	 */
+	public synchronized void writeJson(File file) throws IOException {
+		JsonObject json = new JsonObject();
+		json.addProperty("elapsedMillis", getElapsedMillis());
+		json.addProperty("submissions", getSubmissionsDone());
+		json.addProperty("faulty", submissionsFailed.sum());
+		json.addProperty("bytesRead", getBytesRead());
+		json.addProperty("bytesWritten", getBytesWritten());
+		json.addProperty("filesWritten", getFilesWritten());
+		JsonObject phases = new JsonObject();
+		phaseNanos.forEach((phase, nanos) -> phases.addProperty(phase, nanos / 1_000_000));
+		json.add("phaseMillis", phases);
+		json.add("submission", submissionHistogram.toJson());
+		JsonObject steps = new JsonObject();
+		stepHistograms.forEach((step, histogram) -> steps.add(step.name().toLowerCase(), histogram.toJson()));
+		json.add("steps", steps);
+		JsonArray slowest = new JsonArray();
+		synchronized (slowestSubmissions) {
+			for (Object[] submission : slowestSubmissions) {
+				JsonObject entry = new JsonObject();
+				entry.addProperty("submission", (String) submission[0]);
+				entry.addProperty("millis", (Long) submission[1] / 1_000_000);
+				slowest.add(entry);
+			}
+		}
+		json.add("slowestSubmissions", slowest);
+		Files.writeString(file.toPath(), new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(json));
+	}
+}
@@ -0,0 +1,82 @@
+package fop.project_cleaner;
+
+/**
+ * Stores the outcome of a {@link SubmissionsExtractor} run, such as how many
+ * submissions were processed and if the run had to be aborted
+ */
+public class ExtractionResult {
+	private int submissionCount;
+	private int successfulCount;
+	private boolean aborted;
+	private String abortReason;
+	private long durationMillis;
+
+	/**
+	 * Create an {@link ExtractionResult} for a run that processed all submissions
+	 *
+	 * @param submissionCount the number of submissions processed
+	 * @param successfulCount the number of submissions processed successfully
+	 * @param durationMillis  the duration of the run in milliseconds
+	 */
+	public ExtractionResult(int submissionCount, int successfulCount, long durationMillis) {
+		this.submissionCount = submissionCount;
+		this.successfulCount = successfulCount;
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * Create an {@link ExtractionResult} for a run that had to be aborted
+	 *
+	 * @param abortReason    why the run was aborted
+	 * @param durationMillis the duration of the run in milliseconds
+	 * @return the {@link ExtractionResult}
+	 */
+	public static ExtractionResult aborted(String abortReason, long durationMillis) {
+		ExtractionResult result = new ExtractionResult(0, 0, durationMillis);
+		result.aborted = true;
+		result.abortReason = abortReason;
+		return result;
+	}
+
+	/**
+	 * @return the number of submissions processed
+	 */
+	public int getSubmissionCount() {
+		return submissionCount;
+	}
+
+	/**
+	 * @return the number of submissions processed successfully
+	 */
+	public int getSuccessfulCount() {
+		return successfulCount;
+	}
+
+	/**
+	 * @return the number of submissions moved to the faulty directory
+	 */
+	public int getFaultyCount() {
+		return submissionCount - successfulCount;
+	}
+
+	/**
+	 * @return true if the run was aborted
+	 */
+	public boolean wasAborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return why the run was aborted (null if it was not)
+	 */
+	public String getAbortReason() {
+		return abortReason;
+	}
+
+	/**
+	 * @return the duration of the run in milliseconds
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+}
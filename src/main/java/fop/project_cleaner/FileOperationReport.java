@@ -0,0 +1,122 @@
+package fop.project_cleaner;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the outcome of a {@link FileOperations} call: how many Files and
+ * directories were handled and which of them failed. Single Files may fail
+ * without aborting the operation, so callers decide whether that is fatal.
+ */
+public class FileOperationReport {
+	/**
+	 * A File or directory that could not be moved, copied or deleted
+	 */
+	public static class Failure {
+		private final String operation;
+		private final Path path;
+		private final String message;
+
+		Failure(String operation, Path path, Exception cause) {
+			this.operation = operation;
+			this.path = path;
+			this.message = cause.getMessage() == null ? cause.getClass().getSimpleName()
+					: cause.getClass().getSimpleName() + ": " + cause.getMessage();
+		}
+
+		/**
+		 * @return the operation that failed (move, copy, delete, mkdir or walk)
+		 */
+		public String getOperation() {
+			return operation;
+		}
+
+		/**
+		 * @return the source File or directory
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the error message
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return operation + " failed for " + path + ": " + message;
+		}
+	}
+
+	private final AtomicLong files = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicInteger renamedDirectories = new AtomicInteger();
+	private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+	void fileDone(long size) {
+		files.incrementAndGet();
+		bytes.addAndGet(size);
+	}
+
+	void directoryRenamed() {
+		renamedDirectories.incrementAndGet();
+	}
+
+	void failed(String operation, Path path, Exception cause) {
+		failures.add(new Failure(operation, path, cause));
+	}
+
+	void addFailures(FileOperationReport other) {
+		failures.addAll(other.failures);
+	}
+
+	/**
+	 * @return the number of Files moved, copied or deleted one by one
+	 */
+	public long getFileCount() {
+		return files.get();
+	}
+
+	/**
+	 * @return the number of bytes of the Files moved, copied or deleted one by
+	 *         one
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return the number of directories moved as a whole with a single rename
+	 */
+	public int getRenamedDirectoryCount() {
+		return renamedDirectories.get();
+	}
+
+	/**
+	 * @return the {@link Failure}s in no particular order
+	 */
+	public List<Failure> getFailures() {
+		return new ArrayList<>(failures);
+	}
+
+	/**
+	 * @return true if nothing failed
+	 */
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d file(s), %d bytes, %d directory rename(s), %d failure(s)", getFileCount(),
+				getBytes(), getRenamedDirectoryCount(), failures.size());
+	}
+}
@@ -0,0 +1,380 @@
+package fop.project_cleaner;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves, copies and deletes directory trees. Each tree is walked once to plan
+ * the operation; directories are then created up front, the Files are handled
+ * in parallel on a small shared pool and emptied directories are deleted last.
+ * A directory that does not exist in the target yet is moved with a single
+ * rename when source and target are on the same file system. Errors do not
+ * abort the operation but are collected in the returned
+ * {@link FileOperationReport}. {@link #publish(Path, Path)} moves a finished
+ * project so that it appears in the target complete or not at all.
+ *
+ * The number of threads can be set with the system property
+ * {@value #THREADS_PROPERTY}, small trees are handled on the calling thread.
+ */
+public final class FileOperations {
+	/**
+	 * The system property for the number of threads
+	 */
+	public static final String THREADS_PROPERTY = "project_cleaner.io.threads";
+	private static final int THREADS = Math.max(1,
+			Integer.getInteger(THREADS_PROPERTY, Math.min(4, Runtime.getRuntime().availableProcessors())));
+	/**
+	 * Below this number of Files the pool costs more than it saves
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 32;
+	/**
+	 * The suffix of the hidden directory a project is copied to before it is
+	 * renamed to its final name
+	 */
+	public static final String STAGING_SUFFIX = ".staging";
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+	private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, runnable -> {
+		Thread thread = new Thread(runnable, "file-operations-" + THREAD_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private enum Kind {
+		MOVE, COPY, DELETE;
+
+		@Override
+		public String toString() {
+			return name().toLowerCase();
+		}
+	}
+
+	/**
+	 * The result of walking a tree once: directories to create first, Files to
+	 * handle in parallel and directories to delete last (deepest first)
+	 */
+	private static class Plan {
+		final Kind kind;
+		final FileOperationReport report = new FileOperationReport();
+		final List<Path> createDirectories = new ArrayList<>();
+		final List<Path> sources = new ArrayList<>();
+		final List<Path> targets = new ArrayList<>();
+		final List<Long> sizes = new ArrayList<>();
+		final List<Path> deleteDirectories = new ArrayList<>();
+
+		Plan(Kind kind) {
+			this.kind = kind;
+		}
+	}
+
+	private FileOperations() {
+	}
+
+	/**
+	 * Moves the content of a directory into another one, merging it with
+	 * existing content and replacing existing Files. The source directory itself
+	 * is kept.
+	 *
+	 * @param source the source directory
+	 * @param target the target directory
+	 * @return the {@link FileOperationReport}
+	 */
+	public static FileOperationReport move(Path source, Path target) {
+		return execute(planMove(source, target)).join();
+	}
+
+	/**
+	 * Copies the content of a directory into another one, replacing existing
+	 * Files
+	 *
+	 * @param source the source directory
+	 * @param target the target directory
+	 * @return the {@link FileOperationReport}
+	 */
+	public static FileOperationReport copy(Path source, Path target) {
+		return execute(planCopy(source, target)).join();
+	}
+
+	/**
+	 * Deletes a directory tree. Symbolic links are deleted, not followed.
+	 *
+	 * @param directory the directory
+	 * @param keepRoot  true to only delete the content of the directory
+	 * @return the {@link FileOperationReport}
+	 */
+	public static FileOperationReport delete(Path directory, boolean keepRoot) {
+		return execute(planDelete(directory, keepRoot)).join();
+	}
+
+	/**
+	 * Moves a File or directory to a target that does not exist yet, so that the
+	 * target appears complete or not at all. If both are on the same
+	 * {@link java.nio.file.FileStore} this is a single atomic rename. Otherwise
+	 * the source is copied in parallel to a hidden staging sibling of the target
+	 * (see {@link #isStaging(String)}), which is then renamed atomically, and the
+	 * source is deleted afterwards. If the copy fails, the staging copy is
+	 * removed and the source is kept.
+	 *
+	 * @param source the File or directory to move
+	 * @param target the target path
+	 * @return the {@link FileOperationReport} of the copy (empty after a rename)
+	 */
+	public static FileOperationReport publish(Path source, Path target) {
+		FileOperationReport report = new FileOperationReport();
+		if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+			report.failed("publish", source, new FileAlreadyExistsException(target.toString()));
+			return report;
+		}
+		try {
+			if (Files.getFileStore(source).equals(Files.getFileStore(target.getParent()))) {
+				Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+				if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+					report.directoryRenamed();
+				}
+				return report;
+			}
+		} catch (AtomicMoveNotSupportedException e) {
+			// Copy through the staging directory instead
+		} catch (IOException e) {
+			report.failed("publish", source, e);
+			return report;
+		}
+		Path staging = target.resolveSibling("." + target.getFileName() + STAGING_SUFFIX);
+		try {
+			if (Files.exists(staging, LinkOption.NOFOLLOW_LINKS)) {
+				report.addFailures(delete(staging, false));
+			}
+			if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+				Files.createDirectories(staging);
+				FileOperationReport copied = copy(source, staging);
+				copied.addFailures(report);
+				report = copied;
+			} else {
+				Files.copy(source, staging);
+				report.fileDone(Files.size(staging));
+			}
+			if (!report.isSuccessful()) {
+				delete(staging, false);
+				return report;
+			}
+			Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			report.failed("publish", source, e);
+			return report;
+		}
+		if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+			report.addFailures(delete(source, false));
+		} else {
+			try {
+				Files.delete(source);
+			} catch (IOException e) {
+				report.failed("delete", source, e);
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * @param fileName the name of a File or directory
+	 * @return true if it is the staging copy of a project whose publishing was
+	 *         interrupted
+	 */
+	public static boolean isStaging(String fileName) {
+		return fileName.startsWith(".") && fileName.endsWith(STAGING_SUFFIX);
+	}
+
+	// -- Planning --\\
+
+	private static Plan planMove(Path source, Path target) {
+		Plan plan = new Plan(Kind.MOVE);
+		try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+			for (Path child : children) {
+				Path destination = target.resolve(child.getFileName().toString());
+				if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+					if (Files.notExists(destination, LinkOption.NOFOLLOW_LINKS)) {
+						try {
+							Files.move(child, destination);
+							plan.report.directoryRenamed();
+							continue;
+						} catch (IOException e) {
+							// Another file system, the content has to be moved one by one
+						}
+					}
+					walk(plan, child, destination, true);
+				} else {
+					plan.sources.add(child);
+					plan.targets.add(destination);
+					plan.sizes.add(size(child));
+				}
+			}
+		} catch (IOException e) {
+			plan.report.failed("walk", source, e);
+		}
+		return plan;
+	}
+
+	private static Plan planCopy(Path source, Path target) {
+		Plan plan = new Plan(Kind.COPY);
+		walk(plan, source, target, false);
+		return plan;
+	}
+
+	private static Plan planDelete(Path directory, boolean keepRoot) {
+		Plan plan = new Plan(Kind.DELETE);
+		walk(plan, directory, null, true);
+		if (keepRoot && !plan.deleteDirectories.isEmpty()) {
+			// The root is visited last
+			plan.deleteDirectories.remove(plan.deleteDirectories.size() - 1);
+		}
+		return plan;
+	}
+
+	/**
+	 * Adds a tree to the plan
+	 *
+	 * @param plan              the {@link Plan}
+	 * @param root              the root of the source tree
+	 * @param targetRoot        the corresponding target directory (null if there
+	 *                          is no target)
+	 * @param deleteDirectories true to delete the source directories afterwards
+	 */
+	private static void walk(Plan plan, Path root, Path targetRoot, boolean deleteDirectories) {
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					if (targetRoot != null) {
+						plan.createDirectories.add(resolve(targetRoot, root, dir));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					plan.sources.add(file);
+					plan.targets.add(targetRoot == null ? null : resolve(targetRoot, root, file));
+					plan.sizes.add(attrs.size());
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					plan.report.failed("walk", file, exc);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+					if (exc != null) {
+						plan.report.failed("walk", dir, exc);
+					}
+					if (deleteDirectories) {
+						plan.deleteDirectories.add(dir);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			plan.report.failed("walk", root, e);
+		}
+	}
+
+	/**
+	 * Maps a path of the source tree into the target tree, the trees may belong
+	 * to different file systems
+	 */
+	private static Path resolve(Path targetRoot, Path root, Path path) {
+		Path result = targetRoot;
+		for (Path name : root.relativize(path)) {
+			if (!name.toString().isEmpty()) {
+				result = result.resolve(name.toString());
+			}
+		}
+		return result;
+	}
+
+	private static long size(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	// -- Execution --\\
+
+	private static CompletableFuture<FileOperationReport> execute(Plan plan) {
+		for (Path directory : plan.createDirectories) {
+			try {
+				Files.createDirectories(directory);
+			} catch (IOException e) {
+				plan.report.failed("mkdir", directory, e);
+			}
+		}
+		int count = plan.sources.size();
+		if (count < SEQUENTIAL_THRESHOLD || THREADS == 1) {
+			run(plan, 0, count);
+			deleteDirectories(plan);
+			return CompletableFuture.completedFuture(plan.report);
+		}
+		// Contiguous ranges keep the Files of one directory on one thread
+		int chunkSize = (count + THREADS - 1) / THREADS;
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		for (int from = 0; from < count; from += chunkSize) {
+			int start = from;
+			int end = Math.min(count, from + chunkSize);
+			chunks.add(CompletableFuture.runAsync(() -> run(plan, start, end), POOL));
+		}
+		return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(x -> {
+			deleteDirectories(plan);
+			return plan.report;
+		});
+	}
+
+	private static void run(Plan plan, int from, int to) {
+		for (int i = from; i < to; i++) {
+			Path source = plan.sources.get(i);
+			Path target = plan.targets.get(i);
+			try {
+				switch (plan.kind) {
+				case MOVE:
+					Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+					break;
+				case COPY:
+					Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+					break;
+				case DELETE:
+					Files.deleteIfExists(source);
+					break;
+				}
+				plan.report.fileDone(plan.sizes.get(i));
+			} catch (IOException e) {
+				plan.report.failed(plan.kind.toString(), source, e);
+			}
+		}
+	}
+
+	private static void deleteDirectories(Plan plan) {
+		for (Path directory : plan.deleteDirectories) {
+			try {
+				Files.deleteIfExists(directory);
+			} catch (IOException e) {
+				plan.report.failed("delete", directory, e);
+			}
+		}
+	}
+}
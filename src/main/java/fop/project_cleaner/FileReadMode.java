@@ -0,0 +1,32 @@
+package fop.project_cleaner;
+
+/**
+ * The Modes a File of the Solution can be listed under in a File List
+ *
+ * @see JavaActionSetModel
+ */
+public enum FileReadMode {
+	ASSERT_EXISTS, OVERWRITE_ALWAYS, COPY_IF_NOT_EXISTS, ASSERT_NOT_EXISTS, IGNORE;
+
+	/**
+	 * @return the key used for this mode in File Lists (e.g. {@code assert_exists})
+	 */
+	public String getKey() {
+		return name().toLowerCase();
+	}
+
+	/**
+	 * Finds the mode with the given File List key (case insensitive)
+	 *
+	 * @param key the key, e.g. {@code overwrite_always}
+	 * @return the matching mode or null if there is none
+	 */
+	public static FileReadMode fromKey(String key) {
+		for (FileReadMode mode : values()) {
+			if (mode.getKey().equalsIgnoreCase(key)) {
+				return mode;
+			}
+		}
+		return null;
+	}
+}
@@ -3,28 +3,21 @@
  */
 package fop.project_cleaner;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Scanner;
+import java.util.concurrent.CancellationException;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
-import javax.swing.JOptionPane;
-import javax.swing.JProgressBar;
-
 /**
  * A Helper Class for working with {@link File}s
  *
@@ -58,99 +51,129 @@ public final class FileUtils {
 	}
 
 	/**
-	 * Move the content of a folder to a target folder recursively
+	 * Move the content of a folder to a target folder recursively, see
+	 * {@link FileOperations#move(Path, Path)}
 	 *
 	 * @param parentDir the source folder
 	 * @param targetDir the destination folder
+	 * @return the {@link FileOperationReport}, failures are also printed
 	 */
-	public static void moveFolderContent(File parentDir, File targetDir) {
+	public static FileOperationReport moveFolderContent(File parentDir, File targetDir) {
 		if (!parentDir.isDirectory() || !targetDir.isDirectory()) {
 			throw new IllegalArgumentException("parentDir must be a directory");
 		}
-		for (File file : parentDir.listFiles()) {
-			if (file.isDirectory()) {
-				moveFolderContent(file, ensureDirectories(targetDir, file.getName()).get(0));
-				file.delete();
-			} else {
-				try {
-					Files.move(file.toPath(), Paths.get(targetDir.getAbsolutePath(), file.getName()),
-							StandardCopyOption.REPLACE_EXISTING);
-				} catch (IOException e) {
-					System.err.println(e.getMessage());
-				}
-			}
-		}
+		return printFailures(FileOperations.move(parentDir.toPath(), targetDir.toPath()));
 	}
 
 	/**
-	 * Copy the contents of a Folder to a target folder
+	 * Copy the contents of a Folder to a target folder, see
+	 * {@link FileOperations#copy(Path, Path)}
 	 *
 	 * @param parentDir the source folder
 	 * @param targetDir the destination folder
+	 * @return the {@link FileOperationReport}, failures are also printed
 	 */
-	public static void copyFolderContent(File parentDir, File targetDir) {
+	public static FileOperationReport copyFolderContent(File parentDir, File targetDir) {
 		if (!parentDir.isDirectory()) {
 			throw new IllegalArgumentException("parentDir must be a directory");
 		}
 		if(!targetDir.isDirectory()) {
 			throw new IllegalArgumentException("targetDir must be a directory");
 		}
-		for (File file : parentDir.listFiles()) {
-			if (file.isDirectory()) {
-				copyFolderContent(file, ensureDirectories(targetDir, file.getName()).get(0));
-			} else {
-				try {
-					Files.copy(file.toPath(), Paths.get(targetDir.getAbsolutePath(), file.getName()),
-							StandardCopyOption.REPLACE_EXISTING);
-				} catch (IOException e) {
-					System.err.println(e.getMessage());
-				}
-			}
+		return printFailures(FileOperations.copy(parentDir.toPath(), targetDir.toPath()));
+	}
+
+	private static FileOperationReport printFailures(FileOperationReport report) {
+		for (FileOperationReport.Failure failure : report.getFailures()) {
+			System.err.println(failure);
 		}
+		return report;
 	}
 
 	/**
-	 * Compares the content of two files
+	 * Compares the content of two files, byte by byte. Files of different size
+	 * are told apart without reading them.
 	 *
 	 * @param f1 the first file
 	 * @param f2 the second file
 	 * @return true if contents equal
-	 * @throws FileNotFoundException
+	 * @throws IOException if a file cannot be read
 	 */
-	public static boolean filesEqual(File f1, File f2) throws FileNotFoundException {
-		Scanner input1 = new Scanner(f1);// read first file
-		Scanner input2 = new Scanner(f2);// read second file
-
-		while (input1.hasNextLine() && input2.hasNextLine()) {
-			var first = input1.nextLine();
-			var second = input2.nextLine();
+	public static boolean filesEqual(File f1, File f2) throws IOException {
+		if (f1.length() != f2.length()) {
+			return false;
+		}
+		return Files.mismatch(f1.toPath(), f2.toPath()) == -1;
+	}
 
-			if (!first.equals(second)) {
-				System.out.println("Differences found: " + "\n" + first + '\n' + second);
-				input1.close();
-				input2.close();
-				return false;
-			}
+	/**
+	 * Compares a file with content in memory
+	 *
+	 * @param content the content
+	 * @param file    the file
+	 * @return true if the file has exactly this content
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean contentEquals(byte[] content, Path file) throws IOException {
+		if (Files.size(file) != content.length) {
+			return false;
 		}
-		input1.close();
-		input2.close();
-		return true;
+		return Arrays.equals(content, Files.readAllBytes(file));
 	}
 
 	/**
 	 * remove all the Contents of a given Folder
 	 *
 	 * @param folder the folder to clear
+	 * @return the {@link FileOperationReport}, failures are also printed
 	 */
-	public static void clearFolder(File folder) {
+	public static FileOperationReport clearFolder(File folder) {
 		if (!folder.isDirectory()) {
 			throw new IllegalArgumentException("parentDir must be a directory");
 		}
-		for (File file : folder.listFiles()) {
-			if (file.isDirectory())
-				clearFolder(file);
-			file.delete();
+		return printFailures(FileOperations.delete(folder.toPath(), true));
+	}
+
+	/**
+	 * Calculates the size of a File or of all Files in a Folder
+	 *
+	 * @param file the File or Folder
+	 * @return the size in bytes
+	 */
+	public static long sizeOf(File file) {
+		if (!file.isDirectory()) {
+			return file.length();
+		}
+		long size = 0;
+		for (File child : file.listFiles()) {
+			size += sizeOf(child);
+		}
+		return size;
+	}
+
+	/**
+	 * Sums up the uncompressed sizes recorded in the central directory of a
+	 * ZIP-Archive, without inflating anything
+	 *
+	 * @param zipFile the ZIP-Archive
+	 * @return the size in bytes, or -1 if it is unknown or the File is not a
+	 *         readable ZIP-Archive
+	 */
+	public static long uncompressedSize(File zipFile) {
+		long size = 0;
+		try (ZipFile zip = new ZipFile(zipFile)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				long entrySize = entries.nextElement().getSize();
+				if (entrySize < 0) {
+					return -1;
+				}
+				size += entrySize;
+			}
+		} catch (IOException e) {
+			return -1;
 		}
+		return size;
 	}
 
 	/**
@@ -160,29 +183,30 @@ public final class FileUtils {
 	 */
 	public static void removeFolders(File... folder) {
 		for (File f : folder) {
-			clearFolder(f);
-			// The directory is now empty so we delete it
-			f.delete();
+			if (!f.isDirectory()) {
+				throw new IllegalArgumentException("parentDir must be a directory");
+			}
+			printFailures(FileOperations.delete(f.toPath(), false));
 		}
 	}
 
 	/**
-	 * Ensures a Folder is empty, prompts a dialog asking to clear it if not empty
+	 * Ensures a Folder is empty
 	 *
-	 * @param directory the folder to ensure is empty
-	 * @param whitelist a List of files that are allowed in the folder
+	 * @param directory    the folder to ensure is empty
+	 * @param confirmClear asked if the folder may be cleared if it is not empty
+	 *                     (null to never clear it)
+	 * @param whitelist    a List of files that are allowed in the folder
 	 * @return true if the folder is empty now, false if not
 	 */
-	public static boolean EnsureEmpty(File directory, String... whitelist) {
+	public static boolean EnsureEmpty(File directory, Predicate<File> confirmClear, String... whitelist) {
 		if (!directory.isDirectory()) {
 			System.err.println("parentDir must be a directory");
 			return false;
 		}
 		for (final File f : directory.listFiles()) {
-			if (!Arrays.stream(whitelist).anyMatch(x -> x == f.getName())) {
-				if (JOptionPane.showConfirmDialog(null, "The directory " + directory.getAbsolutePath()
-						+ " contains Files but must be empty inorder to proceed.\n Do you want to clear the folder?",
-						"Warning", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+			if (!Arrays.stream(whitelist).anyMatch(x -> x.equals(f.getName()))) {
+				if (confirmClear != null && confirmClear.test(directory)) {
 					System.out.println("Clearing Folder " + directory.getAbsolutePath());
 					clearFolder(directory);
 					return true;
@@ -200,53 +224,7 @@ public final class FileUtils {
 	 * @param extractFolder the destination directory
 	 */
 	public static void extractFolder(String zipFile, String extractFolder) {
-		try {
-			int BUFFER = 2048;
-			File file = new File(zipFile);
-
-			ZipFile zip = new ZipFile(file);
-			String newPath = extractFolder;
-
-			new File(newPath).mkdir();
-			Enumeration<? extends ZipEntry> zipFileEntries = zip.entries();
-
-			// Process each entry
-			while (zipFileEntries.hasMoreElements()) {
-				// grab a zip file entry
-				ZipEntry entry = (ZipEntry) zipFileEntries.nextElement();
-				String currentEntry = entry.getName();
-
-				File destFile = new File(newPath, currentEntry);
-				// destFile = new File(newPath, destFile.getName());
-				File destinationParent = destFile.getParentFile();
-
-				// create the parent directory structure if needed
-				destinationParent.mkdirs();
-
-				if (!entry.isDirectory()) {
-					BufferedInputStream is = new BufferedInputStream(zip.getInputStream(entry));
-					int currentByte;
-					// establish buffer for writing file
-					byte data[] = new byte[BUFFER];
-
-					// write the current file to disk
-					FileOutputStream fos = new FileOutputStream(destFile);
-					BufferedOutputStream dest = new BufferedOutputStream(fos, BUFFER);
-
-					// read and write until last byte is encountered
-					while ((currentByte = is.read(data, 0, BUFFER)) != -1) {
-						dest.write(data, 0, currentByte);
-					}
-					dest.flush();
-					dest.close();
-					is.close();
-				}
-
-			}
-			zip.close();
-		} catch (Exception e) {
-			System.err.println("ERROR: " + e.getMessage());
-		}
+		extractFolder(zipFile, extractFolder, null);
 	}
 
 	/**
@@ -254,58 +232,52 @@ public final class FileUtils {
 	 *
 	 * @param zipFile       the ZIP-Archive
 	 * @param extractFolder the destination directory
-	 * @param bar           the Progress bar to track the progress with
+	 * @param metrics       the {@link ExtractionMetrics} to count the read and
+	 *                      written bytes in (can be null)
 	 */
-	public static void extractFolder(String zipFile, String extractFolder, JProgressBar bar) {
-		try {
-			int BUFFER = 2048;
-			File file = new File(zipFile);
-
-			ZipFile zip = new ZipFile(file);
-			String newPath = extractFolder;
-
-			new File(newPath).mkdir();
-			var zipFileEntries = Collections.list(zip.entries());
-			bar.setMinimum(0);
-			bar.setValue(0);
-			bar.setMaximum(zipFileEntries.size());
-			bar.setEnabled(true);
-			bar.setStringPainted(true);
-			bar.setString(String.format("%s/%s Dateien entpackt", bar.getValue(), bar.getMaximum()));
-			int done = 0;
-			// Process each entry
-			for (ZipEntry entry : zipFileEntries) {
-				String currentEntry = entry.getName();
-
-				File destFile = new File(newPath, currentEntry);
-				// destFile = new File(newPath, destFile.getName());
-				File destinationParent = destFile.getParentFile();
-
-				// create the parent directory structure if needed
-				destinationParent.mkdirs();
-
-				if (!entry.isDirectory()) {
-					BufferedInputStream is = new BufferedInputStream(zip.getInputStream(entry));
-					int currentByte;
-					// establish buffer for writing file
-					byte data[] = new byte[BUFFER];
+	public static void extractFolder(String zipFile, String extractFolder, ExtractionMetrics metrics) {
+		extractFolder(zipFile, extractFolder, metrics, null);
+	}
 
-					// write the current file to disk
-					FileOutputStream fos = new FileOutputStream(destFile);
-					BufferedOutputStream dest = new BufferedOutputStream(fos, BUFFER);
+	/**
+	 * Extracts all the contents of a ZIP-Archive
+	 *
+	 * @param zipFile       the ZIP-Archive
+	 * @param extractFolder the destination directory
+	 * @param metrics       the {@link ExtractionMetrics} to count the read and
+	 *                      written bytes in (can be null)
+	 * @param control       the {@link ExtractionControl} checked before each entry
+	 *                      (can be null)
+	 * @throws CancellationException if the extraction was cancelled
+	 */
+	public static void extractFolder(String zipFile, String extractFolder, ExtractionMetrics metrics,
+			ExtractionControl control) {
+		extractFolder(zipFile, extractFolder, metrics, control, null);
+	}
 
-					// read and write until last byte is encountered
-					while ((currentByte = is.read(data, 0, BUFFER)) != -1) {
-						dest.write(data, 0, currentByte);
-					}
-					dest.flush();
-					dest.close();
-					is.close();
-				}
-				bar.setValue(++done);
-				bar.setString(String.format("%s/%s Dateien entpackt", bar.getValue(), bar.getMaximum()));
-			}
-			zip.close();
+	/**
+	 * Extracts the contents of a ZIP-Archive
+	 *
+	 * @param zipFile       the ZIP-Archive
+	 * @param extractFolder the destination directory
+	 * @param metrics       the {@link ExtractionMetrics} to count the read and
+	 *                      written bytes in (can be null)
+	 * @param control       the {@link ExtractionControl} checked before each entry
+	 *                      (can be null)
+	 * @param entryFilter   decides by the entry name which entries are extracted
+	 *                      (null to extract all)
+	 * @throws CancellationException if the extraction was cancelled
+	 */
+	public static void extractFolder(String zipFile, String extractFolder, ExtractionMetrics metrics,
+			ExtractionControl control, Predicate<String> entryFilter) {
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setMetrics(metrics);
+		extractor.setControl(control);
+		extractor.setEntryFilter(entryFilter);
+		try {
+			extractor.extract(new File(zipFile), new File(extractFolder));
+		} catch (CancellationException e) {
+			throw e;
 		} catch (Exception e) {
 			System.err.println("ERROR: " + e.getMessage());
 		}
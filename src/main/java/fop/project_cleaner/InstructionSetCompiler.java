@@ -0,0 +1,467 @@
+package fop.project_cleaner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Compiles File Lists ({@code .json} or legacy {@code .txt}) into
+ * {@link CompiledInstructionSet}s. The JSON is validated against the schema of
+ * the {@link ActionSetModel}s, all Paths are normalized relative to the
+ * solution root and the result is cached as a binary File next to the source
+ * (see {@link #CACHE_SUFFIX}). The cache is invalidated as soon as the hash of
+ * the source changes.
+ */
+public class InstructionSetCompiler {
+	/**
+	 * The suffix appended to the File List name for the cached compiled model
+	 */
+	public static final String CACHE_SUFFIX = ".compiled";
+	/**
+	 * Bump whenever the layout of {@link CompiledInstructionSet} changes
+	 */
+	private static final int FORMAT_VERSION = 7;
+
+	private enum JsonType {
+		BOOLEAN, INTEGER, STRING, STRING_ARRAY, OBJECT_ARRAY;
+
+		boolean matches(JsonElement e) {
+			switch (this) {
+			case BOOLEAN:
+				return e.isJsonPrimitive() && e.getAsJsonPrimitive().isBoolean();
+			case INTEGER:
+				// getAsInt() would truncate 7.5 and wrap values too large for an int
+				if (!e.isJsonPrimitive() || !e.getAsJsonPrimitive().isNumber()) {
+					return false;
+				}
+				try {
+					e.getAsBigDecimal().intValueExact();
+					return true;
+				} catch (ArithmeticException | NumberFormatException x) {
+					return false;
+				}
+			case STRING:
+				return e.isJsonPrimitive() && e.getAsJsonPrimitive().isString();
+			case STRING_ARRAY:
+				if (!e.isJsonArray()) {
+					return false;
+				}
+				for (JsonElement item : e.getAsJsonArray()) {
+					if (!STRING.matches(item)) {
+						return false;
+					}
+				}
+				return true;
+			case OBJECT_ARRAY:
+				if (!e.isJsonArray()) {
+					return false;
+				}
+				for (JsonElement item : e.getAsJsonArray()) {
+					if (!item.isJsonObject()) {
+						return false;
+					}
+				}
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	private static final Map<String, JsonType> COMMON_SCHEMA = Map.of("sheet_number", JsonType.INTEGER,
+			"language_mode", JsonType.STRING, "check_naming_convention", JsonType.BOOLEAN, "fix_naming_convention",
+			JsonType.BOOLEAN);
+	private static final Map<String, JsonType> JAVA_SCHEMA = Map.ofEntries(
+			Map.entry("assert_exists", JsonType.STRING_ARRAY), Map.entry("assert_not_exists", JsonType.STRING_ARRAY),
+			Map.entry("overwrite_always", JsonType.STRING_ARRAY), Map.entry("ignore", JsonType.STRING_ARRAY),
+			Map.entry("copy_if_not_exists", JsonType.STRING_ARRAY), Map.entry("solutionFile", JsonType.STRING),
+			Map.entry("exclude_entries", JsonType.STRING_ARRAY), Map.entry("compile", JsonType.BOOLEAN),
+			Map.entry("write_class_files", JsonType.BOOLEAN), Map.entry("do_tests", JsonType.BOOLEAN),
+			Map.entry("test_timeout_seconds", JsonType.INTEGER), Map.entry("forbidden_code", JsonType.STRING_ARRAY),
+			Map.entry("shared_libraries", JsonType.BOOLEAN));
+	private static final Map<String, JsonType> RACKET_SCHEMA = Map.of("remove_student_tests", JsonType.BOOLEAN,
+			"do_tests", JsonType.BOOLEAN, "verify_that_code_runs", JsonType.BOOLEAN, "verify_strings_contained",
+			JsonType.STRING_ARRAY, "verify_strings_not_contained", JsonType.STRING_ARRAY, "tasks",
+			JsonType.OBJECT_ARRAY);
+	private static final Map<String, JsonType> RACKET_TASK_SCHEMA = Map.of("title", JsonType.STRING, "annotation",
+			JsonType.STRING, "tests", JsonType.OBJECT_ARRAY);
+	private static final Map<String, JsonType> RACKET_TEST_SCHEMA = Map.of("title", JsonType.STRING, "description",
+			JsonType.STRING, "repeat", JsonType.INTEGER, "code", JsonType.STRING, "maxEcecTimeInSeconds",
+			JsonType.INTEGER);
+
+	private PrintStream log = System.out;
+	private PrintStream err = System.err;
+	private boolean useCache = true;
+
+	public InstructionSetCompiler() {
+	}
+
+	public InstructionSetCompiler(PrintStream log, PrintStream err) {
+		this.log = log;
+		this.err = err;
+	}
+
+	/**
+	 * @param useCache if compiled models should be read from and written to the
+	 *                 cache File
+	 */
+	public void setUseCache(boolean useCache) {
+		this.useCache = useCache;
+	}
+
+	/**
+	 * Gets the cache File for a File List
+	 *
+	 * @param fileList the File List
+	 * @return the File the compiled model is cached in
+	 */
+	public static File getCacheFile(File fileList) {
+		return new File(fileList.getAbsoluteFile().getParentFile(), fileList.getName() + CACHE_SUFFIX);
+	}
+
+	/**
+	 * Compiles a File List, or loads it from the cache if the source did not
+	 * change
+	 *
+	 * @param fileList     the File List ({@code .json} or legacy {@code .txt})
+	 * @param languageMode the {@link LanguageMode} the File List is meant for
+	 * @return the {@link CompiledInstructionSet}
+	 * @throws IOException              if the File List cannot be read
+	 * @throws IllegalArgumentException if the File List is invalid
+	 */
+	public CompiledInstructionSet compile(File fileList, LanguageMode languageMode) throws IOException {
+		byte[] source = Files.readAllBytes(fileList.toPath());
+		String hash = hash(source, languageMode);
+		File cacheFile = getCacheFile(fileList);
+		if (useCache) {
+			CompiledInstructionSet cached = readCache(cacheFile, hash);
+			if (cached != null) {
+				log.println("✓ Compiled Instruction Set loaded from " + cacheFile.getName());
+				return cached;
+			}
+		}
+		String content = new String(source, StandardCharsets.UTF_8);
+		String name = fileList.getName().toLowerCase();
+		CompiledInstructionSet compiled;
+		if (name.endsWith(".json")) {
+			compiled = compileJson(content, languageMode, hash);
+		} else if (name.endsWith(".txt")) {
+			if (languageMode != LanguageMode.JAVA) {
+				throw new IllegalArgumentException(
+						"Only Java has legacy instruction Set support. Please use the new .json Format");
+			}
+			compiled = compileLegacy(content, hash);
+		} else {
+			throw new IllegalArgumentException("File List format invalid: " + fileList.getName());
+		}
+		if (useCache) {
+			writeCache(cacheFile, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * Compiles the JSON format
+	 */
+	private CompiledInstructionSet compileJson(String content, LanguageMode languageMode, String hash) {
+		JsonElement root;
+		try {
+			root = JsonParser.parseString(content);
+		} catch (JsonParseException e) {
+			throw new IllegalArgumentException("File List is not valid JSON: " + e.getMessage(), e);
+		}
+		if (!root.isJsonObject()) {
+			throw new IllegalArgumentException("File List must contain a JSON object");
+		}
+		JsonObject object = root.getAsJsonObject();
+		List<String> errors = new ArrayList<>();
+		Map<String, JsonType> schema = new LinkedHashMap<>(COMMON_SCHEMA);
+		schema.putAll(languageMode == LanguageMode.RACKET ? RACKET_SCHEMA : JAVA_SCHEMA);
+		validate(object, schema, "", errors);
+		if (object.has("language_mode") && JsonType.STRING.matches(object.get("language_mode"))
+				&& !object.get("language_mode").getAsString().equalsIgnoreCase(languageMode.name())) {
+			errors.add("language_mode: File List is meant for " + object.get("language_mode").getAsString()
+					+ " but was used in " + languageMode + " mode");
+		}
+		if (languageMode == LanguageMode.RACKET && object.has("tasks")
+				&& JsonType.OBJECT_ARRAY.matches(object.get("tasks"))) {
+			var tasks = object.getAsJsonArray("tasks");
+			for (int i = 0; i < tasks.size(); i++) {
+				JsonObject task = tasks.get(i).getAsJsonObject();
+				validate(task, RACKET_TASK_SCHEMA, "tasks[" + i + "].", errors);
+				if (task.has("tests") && JsonType.OBJECT_ARRAY.matches(task.get("tests"))) {
+					var tests = task.getAsJsonArray("tests");
+					for (int j = 0; j < tests.size(); j++) {
+						validate(tests.get(j).getAsJsonObject(), RACKET_TEST_SCHEMA,
+								"tasks[" + i + "].tests[" + j + "].", errors);
+					}
+				}
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException("Invalid File List:\n- " + String.join("\n- ", errors));
+		}
+		Gson gson = new Gson();
+		if (languageMode == LanguageMode.RACKET) {
+			RacketActionSetModel model = gson.fromJson(object, RacketActionSetModel.class);
+			if (model.getTasks() == null) {
+				model.setTasks(new ArrayList<>());
+			}
+			return new CompiledInstructionSet(hash, languageMode, model.getSheet_number(),
+					model.shouldCheck_naming_convention(), model.shouldFix_naming_convention(), Map.of(), List.of(), false,
+					false, false, 0, List.of(), false, gson.toJson(model));
+		}
+		Map<FileReadMode, List<String>> paths = new EnumMap<>(FileReadMode.class);
+		for (FileReadMode mode : FileReadMode.values()) {
+			Set<String> normalized = new LinkedHashSet<>();
+			if (object.has(mode.getKey())) {
+				for (JsonElement p : object.getAsJsonArray(mode.getKey())) {
+					addNormalized(normalized, p.getAsString(), mode.getKey(), errors);
+				}
+			}
+			paths.put(mode, new ArrayList<>(normalized));
+		}
+		List<String> excludeEntries = EntryFilter.DEFAULT_PATTERNS;
+		if (object.has("exclude_entries") && !object.get("exclude_entries").isJsonNull()) {
+			excludeEntries = new ArrayList<>();
+			for (JsonElement pattern : object.getAsJsonArray("exclude_entries")) {
+				excludeEntries.add(pattern.getAsString().trim());
+			}
+			try {
+				new EntryFilter(excludeEntries);
+			} catch (IllegalArgumentException e) {
+				errors.add("exclude_entries: " + e.getMessage());
+			}
+		}
+		int testTimeoutSeconds = CompiledInstructionSet.DEFAULT_TEST_TIMEOUT_SECONDS;
+		if (object.has("test_timeout_seconds") && JsonType.INTEGER.matches(object.get("test_timeout_seconds"))) {
+			testTimeoutSeconds = object.get("test_timeout_seconds").getAsInt();
+			if (testTimeoutSeconds <= 0) {
+				errors.add("test_timeout_seconds: must be positive");
+			}
+		}
+		List<String> forbiddenCode = new ArrayList<>();
+		if (object.has("forbidden_code") && JsonType.STRING_ARRAY.matches(object.get("forbidden_code"))) {
+			for (JsonElement rule : object.getAsJsonArray("forbidden_code")) {
+				forbiddenCode.add(rule.getAsString().trim());
+			}
+			try {
+				new JavaCodeScanner(forbiddenCode);
+			} catch (IllegalArgumentException e) {
+				errors.add("forbidden_code: " + e.getMessage());
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException("Invalid File List:\n- " + String.join("\n- ", errors));
+		}
+		warnExcluded(paths.get(FileReadMode.ASSERT_NOT_EXISTS), excludeEntries);
+		return new CompiledInstructionSet(hash, languageMode,
+				object.has("sheet_number") ? object.get("sheet_number").getAsInt() : 0,
+				!object.has("check_naming_convention") || object.get("check_naming_convention").getAsBoolean(),
+				!object.has("fix_naming_convention") || object.get("fix_naming_convention").getAsBoolean(), paths,
+				excludeEntries, isTrue(object, "compile") || isTrue(object, "do_tests"),
+				isTrue(object, "write_class_files"), isTrue(object, "do_tests"), testTimeoutSeconds, forbiddenCode,
+				isTrue(object, "shared_libraries"), null);
+	}
+
+	private static boolean isTrue(JsonObject object, String key) {
+		return object.has(key) && !object.get(key).isJsonNull() && object.get(key).getAsBoolean();
+	}
+
+	/**
+	 * Compiles the legacy .txt format (sections like {@code [overwrite_always]}
+	 * followed by one path per line, {@code #} starts a comment)
+	 */
+	private CompiledInstructionSet compileLegacy(String content, String hash) throws IOException {
+		Map<FileReadMode, Set<String>> paths = new EnumMap<>(FileReadMode.class);
+		for (FileReadMode mode : FileReadMode.values()) {
+			paths.put(mode, new LinkedHashSet<>());
+		}
+		List<String> errors = new ArrayList<>();
+		FileReadMode currentMode = FileReadMode.ASSERT_EXISTS;
+		try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+			String currentLine;
+			int lineNumber = 0;
+			while ((currentLine = reader.readLine()) != null) {
+				lineNumber++;
+				if (currentLine.startsWith("#") || currentLine.isBlank()) {
+					continue;
+				}
+				// Mode switcher
+				if (currentLine.startsWith("[")) {
+					if (!currentLine.endsWith("]")) {
+						err.println("Faulty FileList Line:" + lineNumber);
+					}
+					String key = currentLine.replace("[", "").replace("]", "").trim();
+					FileReadMode mode = FileReadMode.fromKey(key);
+					if (mode == null) {
+						err.println("Unknown File Read Mode: " + currentLine);
+					} else {
+						currentMode = mode;
+					}
+					continue;
+				}
+				addNormalized(paths.get(currentMode), currentLine, "line " + lineNumber, errors);
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException("Invalid File List:\n- " + String.join("\n- ", errors));
+		}
+		Map<FileReadMode, List<String>> pathLists = new EnumMap<>(FileReadMode.class);
+		paths.forEach((mode, set) -> pathLists.put(mode, new ArrayList<>(set)));
+		warnExcluded(pathLists.get(FileReadMode.ASSERT_NOT_EXISTS), EntryFilter.DEFAULT_PATTERNS);
+		return new CompiledInstructionSet(hash, LanguageMode.JAVA, 0, true, true, pathLists,
+				EntryFilter.DEFAULT_PATTERNS, false, false, false, CompiledInstructionSet.DEFAULT_TEST_TIMEOUT_SECONDS,
+				List.of(), false, null);
+	}
+
+	/**
+	 * Excluded entries are never extracted, so they cannot be found by
+	 * {@code assert_not_exists} either
+	 */
+	private void warnExcluded(List<String> assertNotExists, List<String> excludeEntries) {
+		EntryFilter filter = new EntryFilter(excludeEntries);
+		for (String p : assertNotExists) {
+			if (!filter.test(p) || !filter.test(p + "/")) {
+				err.println("Warning: assert_not_exists entry \"" + p
+						+ "\" is excluded while unpacking and will never be reported (see exclude_entries)");
+			}
+		}
+	}
+
+	/**
+	 * Validates the members of a JSON object against a schema. Unknown members
+	 * only produce a warning, so older tools can still read newer File Lists.
+	 */
+	private void validate(JsonObject object, Map<String, JsonType> schema, String prefix, List<String> errors) {
+		for (var member : object.entrySet()) {
+			JsonType expected = schema.get(member.getKey());
+			if (expected == null) {
+				err.println("Warning: unknown File List entry \"" + prefix + member.getKey() + "\" is ignored");
+			} else if (!member.getValue().isJsonNull() && !expected.matches(member.getValue())) {
+				errors.add(prefix + member.getKey() + ": expected " + expected.name().toLowerCase().replace('_', ' '));
+			}
+		}
+	}
+
+	private static void addNormalized(Set<String> target, String rawPath, String location, List<String> errors) {
+		try {
+			String normalized = normalizePath(rawPath);
+			if (!normalized.isEmpty()) {
+				target.add(normalized);
+			}
+		} catch (IllegalArgumentException e) {
+			errors.add(location + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Normalizes a Path from a File List so that it is relative to the solution
+	 * root and uses {@code /} as separator
+	 *
+	 * @param rawPath the Path as written in the File List
+	 * @return the normalized Path (empty for the solution root itself)
+	 * @throws IllegalArgumentException if the Path is absolute or leaves the
+	 *                                  solution root
+	 */
+	public static String normalizePath(String rawPath) {
+		String p = rawPath.trim().replace('\\', '/');
+		if (p.startsWith("/") || p.matches("^[A-Za-z]:.*")) {
+			throw new IllegalArgumentException("Path must be relative to the solution: " + rawPath);
+		}
+		Path normalized = Paths.get(p).normalize();
+		if (normalized.startsWith("..")) {
+			throw new IllegalArgumentException("Path leaves the solution directory: " + rawPath);
+		}
+		String result = normalized.toString().replace(File.separatorChar, '/');
+		while (result.endsWith("/")) {
+			result = result.substring(0, result.length() - 1);
+		}
+		return result;
+	}
+
+	private static String hash(byte[] source, LanguageMode languageMode) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(("v" + FORMAT_VERSION + ":" + languageMode + ":").getBytes(StandardCharsets.UTF_8));
+			digest.update(source);
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private CompiledInstructionSet readCache(File cacheFile, String hash) {
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+			in.setObjectInputFilter(
+					ObjectInputFilter.Config.createFilter("fop.project_cleaner.*;java.util.*;java.lang.*;!*"));
+			if (in.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+			Object cached = in.readObject();
+			if (cached instanceof CompiledInstructionSet
+					&& ((CompiledInstructionSet) cached).getSourceHash().equals(hash)) {
+				return (CompiledInstructionSet) cached;
+			}
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			err.println("Ignoring unreadable Instruction Set cache " + cacheFile.getName() + ": " + e.getMessage());
+		}
+		return null;
+	}
+
+	private void writeCache(File cacheFile, CompiledInstructionSet compiled) {
+		Path target = cacheFile.toPath();
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(target.toAbsolutePath().getParent(), cacheFile.getName(), ".tmp");
+			try (ObjectOutputStream out = new ObjectOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeObject(compiled);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// The cache is only an optimization, so a read only directory is fine
+			err.println("Could not cache compiled Instruction Set: " + e.getMessage());
+			if (temp != null) {
+				temp.toFile().delete();
+			}
+		}
+	}
+}
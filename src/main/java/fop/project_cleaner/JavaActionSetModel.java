@@ -21,6 +21,13 @@ public class JavaActionSetModel extends ActionSetModel {
 	private ArrayList<String> overwrite_always;
 	private ArrayList<String> ignore;
 	private ArrayList<String> copy_if_not_exists;
+	private ArrayList<String> exclude_entries;
+	private boolean compile;
+	private boolean write_class_files;
+	private boolean do_tests;
+	private int test_timeout_seconds = CompiledInstructionSet.DEFAULT_TEST_TIMEOUT_SECONDS;
+	private ArrayList<String> forbidden_code;
+	private boolean shared_libraries;
 	private String solutionFile;
 
 	public static ArrayList<String> pathListToStringList(ArrayList<Path> paths) {
@@ -101,6 +108,111 @@ public class JavaActionSetModel extends ActionSetModel {
 		this.ignore = pathListToStringList(ignore);
 	}
 
+	/**
+	 * @return the patterns of the archive entries not to extract (the
+	 *         {@link EntryFilter#DEFAULT_PATTERNS} if not set)
+	 */
+	public ArrayList<String> getExclude_entries() {
+		return exclude_entries == null ? new ArrayList<>(EntryFilter.DEFAULT_PATTERNS) : exclude_entries;
+	}
+
+	/**
+	 * @param exclude_entries the exclude_entries to set
+	 */
+	public void setExclude_entries(ArrayList<String> exclude_entries) {
+		this.exclude_entries = exclude_entries;
+	}
+
+	/**
+	 * @return if the projects should be compiled
+	 * @see ProjectCompiler
+	 */
+	public boolean shouldCompile() {
+		return compile;
+	}
+
+	/**
+	 * @param compile the compile to set
+	 */
+	public void setCompile(boolean compile) {
+		this.compile = compile;
+	}
+
+	/**
+	 * @return if the class Files should be written to the output folder of the
+	 *         projects when compiling
+	 */
+	public boolean shouldWrite_class_files() {
+		return write_class_files;
+	}
+
+	/**
+	 * @param write_class_files the write_class_files to set
+	 */
+	public void setWrite_class_files(boolean write_class_files) {
+		this.write_class_files = write_class_files;
+	}
+
+	/**
+	 * @return if the tests of the solution should be run against the projects
+	 * @see JavaTestRunner
+	 */
+	public boolean isDo_tests() {
+		return do_tests;
+	}
+
+	/**
+	 * @param do_tests the do_tests to set
+	 */
+	public void setDo_tests(boolean do_tests) {
+		this.do_tests = do_tests;
+	}
+
+	/**
+	 * @return the time a single test may take in seconds
+	 */
+	public int getTest_timeout_seconds() {
+		return test_timeout_seconds;
+	}
+
+	/**
+	 * @param test_timeout_seconds the test_timeout_seconds to set
+	 */
+	public void setTest_timeout_seconds(int test_timeout_seconds) {
+		this.test_timeout_seconds = test_timeout_seconds;
+	}
+
+	/**
+	 * @return the code that must not appear in the sources of the students
+	 *         (never null)
+	 * @see JavaCodeScanner
+	 */
+	public ArrayList<String> getForbidden_code() {
+		return forbidden_code == null ? new ArrayList<>() : forbidden_code;
+	}
+
+	/**
+	 * @param forbidden_code the forbidden_code to set
+	 */
+	public void setForbidden_code(ArrayList<String> forbidden_code) {
+		this.forbidden_code = forbidden_code;
+	}
+
+	/**
+	 * @return if the libraries of the solution should be shared by all projects
+	 * @see SharedLibraries
+	 */
+	public boolean isShared_libraries() {
+		return shared_libraries;
+	}
+
+	/**
+	 * @param shared_libraries the shared_libraries to set
+	 */
+	public void setShared_libraries(boolean shared_libraries) {
+		this.shared_libraries = shared_libraries;
+	}
+
 	public void convertToAbsolutePaths(File ParentFolder) {
 		for (ArrayList<String> list : List.of(assert_exists, assert_not_exists, overwrite_always, ignore,
 				copy_if_not_exists)) {
@@ -0,0 +1,273 @@
+package fop.project_cleaner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds forbidden code (like {@code System.exit} or {@code java.util.stream})
+ * in Java sources. Every File is split into tokens once, skipping comments and
+ * String, char and text block literals, and all rules are matched during the
+ * same pass: a rule is itself split into tokens and matches wherever its
+ * tokens follow each other, regardless of whitespace or comments in between.
+ * So {@code java.util.stream} also matches {@code java.util.stream.Collectors},
+ * but {@code System.exit} does not match {@code MySystem.exit}. Instances are
+ * immutable and can be shared between threads.
+ */
+public class JavaCodeScanner {
+	/**
+	 * A match of a rule
+	 */
+	public static final class Hit {
+		private final String rule;
+		private final String path;
+		private final int line;
+		private final int column;
+
+		Hit(String rule, String path, int line, int column) {
+			this.rule = rule;
+			this.path = path;
+			this.line = line;
+			this.column = column;
+		}
+
+		/**
+		 * @return the rule as written in the File List
+		 */
+		public String getRule() {
+			return rule;
+		}
+
+		/**
+		 * @return the File the rule matched in
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the line of the first token (starting at 1)
+		 */
+		public int getLine() {
+			return line;
+		}
+
+		/**
+		 * @return the column of the first token (starting at 1)
+		 */
+		public int getColumn() {
+			return column;
+		}
+
+		@Override
+		public String toString() {
+			return path + ":" + line + ":" + column + ": " + rule;
+		}
+	}
+
+	/**
+	 * A token of the source, with its position
+	 */
+	private static final class Token {
+		final String text;
+		final int line;
+		final int column;
+
+		Token(String text, int line, int column) {
+			this.text = text;
+			this.line = line;
+			this.column = column;
+		}
+	}
+
+	/**
+	 * A rule split into tokens
+	 */
+	private static final class Rule {
+		final String name;
+		final String[] tokens;
+
+		Rule(String name, String[] tokens) {
+			this.name = name;
+			this.tokens = tokens;
+		}
+	}
+
+	// Only the rules starting with the current token are checked
+	private final Map<String, List<Rule>> rulesByFirstToken = new HashMap<>();
+
+	/**
+	 * Create a new {@link JavaCodeScanner}
+	 *
+	 * @param rules the forbidden code, each rule a sequence of Java tokens
+	 * @throws IllegalArgumentException if a rule contains no token or a comment
+	 *                                  or literal
+	 */
+	public JavaCodeScanner(List<String> rules) {
+		for (String rule : rules) {
+			if (rule.contains("\"") || rule.contains("'") || rule.contains("//") || rule.contains("/*")) {
+				throw new IllegalArgumentException(
+						"Rule \"" + rule + "\" may only contain code, no literals or comments");
+			}
+			String[] tokens = tokenize(rule).stream().map(x -> x.text).toArray(String[]::new);
+			if (tokens.length == 0) {
+				throw new IllegalArgumentException("Rule \"" + rule + "\" contains no code");
+			}
+			rulesByFirstToken.computeIfAbsent(tokens[0], x -> new ArrayList<>())
+					.add(new Rule(rule.trim(), tokens));
+		}
+	}
+
+	/**
+	 * @return true if there are no rules, so nothing can be found
+	 */
+	public boolean isEmpty() {
+		return rulesByFirstToken.isEmpty();
+	}
+
+	/**
+	 * Scans a source File. Bytes that are not valid UTF-8 are replaced, so Files
+	 * saved with another encoding are scanned as well.
+	 *
+	 * @param file the File
+	 * @param path the path to report the hits with
+	 * @return the hits in order of their position
+	 * @throws IOException if the File cannot be read
+	 */
+	public List<Hit> scan(Path file, String path) throws IOException {
+		return scan(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), path);
+	}
+
+	/**
+	 * Scans source code
+	 *
+	 * @param source the source code
+	 * @param path   the path to report the hits with
+	 * @return the hits in order of their position
+	 */
+	public List<Hit> scan(String source, String path) {
+		if (isEmpty()) {
+			return List.of();
+		}
+		List<Token> tokens = tokenize(source);
+		List<Hit> hits = new ArrayList<>();
+		for (int i = 0; i < tokens.size(); i++) {
+			List<Rule> candidates = rulesByFirstToken.get(tokens.get(i).text);
+			if (candidates == null) {
+				continue;
+			}
+			for (Rule rule : candidates) {
+				if (matches(tokens, i, rule.tokens)) {
+					hits.add(new Hit(rule.name, path, tokens.get(i).line, tokens.get(i).column));
+				}
+			}
+		}
+		return Collections.unmodifiableList(hits);
+	}
+
+	private static boolean matches(List<Token> tokens, int start, String[] rule) {
+		if (start + rule.length > tokens.size()) {
+			return false;
+		}
+		for (int j = 1; j < rule.length; j++) {
+			if (!tokens.get(start + j).text.equals(rule[j])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits source code into identifiers, keywords, number literals and single
+	 * punctuation characters. Comments and String, char and text block literals
+	 * are skipped.
+	 */
+	private static List<Token> tokenize(String source) {
+		List<Token> tokens = new ArrayList<>();
+		int length = source.length();
+		int line = 1;
+		int lineStart = 0;
+		int i = 0;
+		while (i < length) {
+			char c = source.charAt(i);
+			if (c == '\n') {
+				line++;
+				lineStart = ++i;
+				continue;
+			}
+			if (Character.isWhitespace(c)) {
+				i++;
+				continue;
+			}
+			int start = i;
+			int column = start - lineStart + 1;
+			if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+				while (i < length && source.charAt(i) != '\n') {
+					i++;
+				}
+				continue;
+			}
+			if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+				i += 2;
+				while (i < length && !(source.charAt(i) == '*' && i + 1 < length && source.charAt(i + 1) == '/')) {
+					if (source.charAt(i) == '\n') {
+						line++;
+						lineStart = i + 1;
+					}
+					i++;
+				}
+				i = Math.min(length, i + 2);
+				continue;
+			}
+			if (source.startsWith("\"\"\"", i)) {
+				i += 3;
+				while (i < length && !source.startsWith("\"\"\"", i)) {
+					if (source.charAt(i) == '\\') {
+						// The escaped character may be the line end of a \<newline> continuation
+						i++;
+					}
+					if (i < length && source.charAt(i) == '\n') {
+						line++;
+						lineStart = i + 1;
+					}
+					i++;
+				}
+				i = Math.min(length, i + 3);
+				continue;
+			}
+			if (c == '"' || c == '\'') {
+				i++;
+				// A literal never spans lines, so an unterminated one ends at the line end
+				while (i < length && source.charAt(i) != c && source.charAt(i) != '\n') {
+					// An escape never consumes the line end either
+					boolean escape = source.charAt(i) == '\\' && i + 1 < length && source.charAt(i + 1) != '\n';
+					i += escape ? 2 : 1;
+				}
+				if (i < length && source.charAt(i) == c) {
+					i++;
+				}
+				continue;
+			}
+			if (Character.isJavaIdentifierStart(c)) {
+				while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+					i++;
+				}
+			} else if (Character.isDigit(c)) {
+				while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_'
+						|| source.charAt(i) == '.' && i + 1 < length && Character.isDigit(source.charAt(i + 1)))) {
+					i++;
+				}
+			} else {
+				i++;
+			}
+			tokens.add(new Token(source.substring(start, i), line, column));
+		}
+		return tokens;
+	}
+}
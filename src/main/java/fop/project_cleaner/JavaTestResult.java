@@ -0,0 +1,91 @@
+package fop.project_cleaner;
+
+/**
+ * The result of a single JUnit test run by the {@link JavaTestRunner}
+ */
+public class JavaTestResult {
+	/**
+	 * The outcome of a test
+	 */
+	public enum Status {
+		/**
+		 * The test passed
+		 */
+		PASSED,
+		/**
+		 * An assertion failed
+		 */
+		FAILED,
+		/**
+		 * The test threw an unexpected exception (or the setup did)
+		 */
+		ERROR,
+		/**
+		 * The test did not finish in time
+		 */
+		TIMEOUT,
+		/**
+		 * The test is disabled, an assumption failed or it uses features the runner
+		 * does not support
+		 */
+		SKIPPED
+	}
+
+	private final String testClass;
+	private final String test;
+	private final Status status;
+	private final String message;
+	private final long durationMillis;
+
+	public JavaTestResult(String testClass, String test, Status status, String message, long durationMillis) {
+		this.testClass = testClass;
+		this.test = test;
+		this.status = status;
+		this.message = message;
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * @return the binary name of the test class
+	 */
+	public String getTestClass() {
+		return testClass;
+	}
+
+	/**
+	 * @return the name of the test method
+	 */
+	public String getTest() {
+		return test;
+	}
+
+	/**
+	 * @return the {@link Status}
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the failure message (null if passed)
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return the duration of the test in milliseconds
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public boolean hasPassed() {
+		return status == Status.PASSED;
+	}
+
+	@Override
+	public String toString() {
+		return testClass + "." + test + ": " + status + (message == null ? "" : " (" + message + ")");
+	}
+}
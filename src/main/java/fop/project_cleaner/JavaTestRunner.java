@@ -0,0 +1,522 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import fop.project_cleaner.JavaTestResult.Status;
+
+/**
+ * Runs the JUnit tests of the solution against the classes of a compiled
+ * project inside this JVM, instead of forking a JVM per project. The libraries
+ * of the solution (JUnit and course libraries) are loaded once into a shared
+ * parent class loader; the classes of each project, including the tests of the
+ * solution compiled against them, get a class loader of their own, so the
+ * projects cannot see each other.
+ * <p>
+ * JUnit itself is not driven: tests are found by the names of the JUnit 4 and
+ * JUnit Jupiter annotations ({@code @Test}, {@code @Before(Each)},
+ * {@code @After(Each)}, {@code @BeforeClass}/{@code @BeforeAll},
+ * {@code @AfterClass}/{@code @AfterAll}, {@code @Ignore}/{@code @Disabled}),
+ * so any JUnit version on the classpath of the solution works. What needs the
+ * JUnit engine is reported as skipped instead: tests with parameters,
+ * {@code @ParameterizedTest}, {@code @RepeatedTest}, {@code @TestFactory} and
+ * {@code @TestTemplate} methods and tests using a runner or extension
+ * ({@code @RunWith}, {@code @ExtendWith}, {@code @RegisterExtension}). Nested
+ * test classes are not run.
+ * <p>
+ * Every test runs on a fresh thread that is interrupted and abandoned when it
+ * exceeds the timeout. It is not stopped: {@code Thread.stop} would throw into
+ * arbitrary code, possibly holding locks in the shared libraries or JUnit, and
+ * is gone in newer Java versions. After {@link #MAX_ABANDONED_THREADS} of them
+ * are still running, no more tests are run (see {@link #isExhausted()}). The
+ * tests run unprotected in this JVM, so classes that could end it must not be
+ * tested (see {@link #findJvmExits(Map)}).
+ */
+public class JavaTestRunner implements AutoCloseable {
+	/**
+	 * The number of timed out tests still running at which no more tests are run
+	 */
+	public static final int MAX_ABANDONED_THREADS = 4;
+
+	private static final Set<String> TEST = Set.of("org.junit.Test", "org.junit.jupiter.api.Test");
+	// Test methods only the JUnit engine can run
+	private static final Set<String> UNSUPPORTED_TEST = Set.of("org.junit.jupiter.params.ParameterizedTest",
+			"org.junit.jupiter.api.RepeatedTest", "org.junit.jupiter.api.TestFactory",
+			"org.junit.jupiter.api.TestTemplate");
+	private static final Set<String> EXTENSION = Set.of("org.junit.runner.RunWith",
+			"org.junit.jupiter.api.extension.ExtendWith", "org.junit.jupiter.api.extension.Extensions");
+	private static final Set<String> REGISTER_EXTENSION = Set.of("org.junit.jupiter.api.extension.RegisterExtension",
+			"org.junit.Rule", "org.junit.ClassRule");
+	// Runners that do what this runner does anyway
+	private static final Set<String> DEFAULT_RUNNERS = Set.of("org.junit.runners.JUnit4",
+			"org.junit.runners.BlockJUnit4ClassRunner");
+	private static final Set<String> BEFORE_EACH = Set.of("org.junit.Before", "org.junit.jupiter.api.BeforeEach");
+	private static final Set<String> AFTER_EACH = Set.of("org.junit.After", "org.junit.jupiter.api.AfterEach");
+	private static final Set<String> BEFORE_ALL = Set.of("org.junit.BeforeClass",
+			"org.junit.jupiter.api.BeforeAll");
+	private static final Set<String> AFTER_ALL = Set.of("org.junit.AfterClass", "org.junit.jupiter.api.AfterAll");
+	private static final Set<String> DISABLED = Set.of("org.junit.Ignore", "org.junit.jupiter.api.Disabled");
+	// Methods that end the JVM
+	private static final Set<String> JVM_EXIT_METHODS = Set.of("java/lang/System.exit", "java/lang/Runtime.exit",
+			"java/lang/Runtime.halt");
+	// Classes through which any method can be called, except for Array, which
+	// only creates arrays
+	private static final String REFLECTION_PACKAGE = "java/lang/reflect/";
+	private static final String REFLECTIVE_ARRAYS = "java/lang/reflect/Array";
+	private static final String METHOD_HANDLE_LOOKUP = "java/lang/invoke/MethodHandles$Lookup.";
+	private static final Set<String> ASSUMPTION_FAILURES = Set.of("org.junit.AssumptionViolatedException",
+			"org.junit.internal.AssumptionViolatedException", "org.opentest4j.TestAbortedException");
+
+	/**
+	 * The time a test gets to react to the interrupt after its timeout
+	 */
+	private static final long STOP_GRACE_MILLIS = 100;
+
+	private final URLClassLoader libraries;
+	private final long timeoutMillis;
+	private final AtomicInteger threadCount = new AtomicInteger();
+	private final Queue<Thread> abandonedThreads = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Create a new {@link JavaTestRunner}
+	 *
+	 * @param classpath     the libraries of the solution
+	 * @param timeoutMillis the time a single test may take
+	 */
+	public JavaTestRunner(List<File> classpath, long timeoutMillis) {
+		if (timeoutMillis <= 0) {
+			throw new IllegalArgumentException("The timeout must be positive");
+		}
+		URL[] urls = new URL[classpath.size()];
+		for (int i = 0; i < urls.length; i++) {
+			try {
+				urls[i] = classpath.get(i).toURI().toURL();
+			} catch (MalformedURLException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+		// The classes of this tool (and its libraries) stay invisible to the tests
+		this.libraries = new URLClassLoader("solution-libraries", urls, ClassLoader.getPlatformClassLoader());
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Runs the tests of the given test classes
+	 *
+	 * @param classFiles  the compiled classes of the project by binary name
+	 * @param testClasses the binary names of the test classes to run
+	 * @return the results, ordered by class and test name
+	 */
+	public List<JavaTestResult> run(Map<String, byte[]> classFiles, Collection<String> testClasses) {
+		if (isExhausted()) {
+			return List.of();
+		}
+		ProjectClassLoader loader = new ProjectClassLoader(classFiles, libraries);
+		List<String> sorted = new ArrayList<>(testClasses);
+		Collections.sort(sorted);
+		List<JavaTestResult> results = new ArrayList<>();
+		for (String testClass : sorted) {
+			results.addAll(runClass(loader, testClass));
+		}
+		return results;
+	}
+
+	private List<JavaTestResult> runClass(ClassLoader loader, String className) {
+		Class<?> testClass;
+		List<Method> tests;
+		try {
+			testClass = Class.forName(className, false, loader);
+			tests = methods(testClass, TEST);
+			for (Method method : methods(testClass, UNSUPPORTED_TEST)) {
+				if (!tests.contains(method)) {
+					tests.add(method);
+				}
+			}
+		} catch (ClassNotFoundException | LinkageError e) {
+			return List.of(new JavaTestResult(className, "<init>", Status.ERROR, e.toString(), 0));
+		}
+		if (tests.isEmpty()) {
+			return List.of();
+		}
+		tests.sort(Comparator.comparing(Method::getName));
+		List<JavaTestResult> results = new ArrayList<>();
+		if (isAnnotated(testClass, DISABLED)) {
+			for (Method test : tests) {
+				results.add(new JavaTestResult(className, test.getName(), Status.SKIPPED, "disabled", 0));
+			}
+			return results;
+		}
+		String extension = extension(testClass);
+		if (extension != null) {
+			for (Method test : tests) {
+				results.add(new JavaTestResult(className, test.getName(), Status.SKIPPED,
+						extension + " is not supported", 0));
+			}
+			return results;
+		}
+		List<Method> beforeEach = methods(testClass, BEFORE_EACH);
+		List<Method> afterEach = methods(testClass, AFTER_EACH);
+		Collections.reverse(afterEach);
+		JavaTestResult setup = execute(className, "<beforeAll>", timeoutMillis, loader, () -> {
+			for (Method method : methods(testClass, BEFORE_ALL)) {
+				invoke(method, null);
+			}
+			return null;
+		}, null);
+		if (setup.getStatus() != Status.PASSED) {
+			for (Method test : tests) {
+				results.add(new JavaTestResult(className, test.getName(), setup.getStatus(),
+						"setup failed: " + setup.getMessage(), 0));
+			}
+			return results;
+		}
+		for (Method test : tests) {
+			if (isAnnotated(test, DISABLED)) {
+				results.add(new JavaTestResult(className, test.getName(), Status.SKIPPED, "disabled", 0));
+				continue;
+			}
+			Annotation unsupported = annotation(test, UNSUPPORTED_TEST);
+			if (unsupported == null) {
+				unsupported = annotation(test, EXTENSION);
+			}
+			if (unsupported != null) {
+				results.add(new JavaTestResult(className, test.getName(), Status.SKIPPED,
+						"@" + unsupported.annotationType().getSimpleName() + " is not supported", 0));
+				continue;
+			}
+			if (test.getParameterCount() > 0) {
+				results.add(new JavaTestResult(className, test.getName(), Status.SKIPPED,
+						"tests with parameters are not supported", 0));
+				continue;
+			}
+			Annotation annotation = annotation(test, TEST);
+			long timeout = timeoutMillis;
+			Object junit4Timeout = attribute(annotation, "timeout");
+			if (junit4Timeout instanceof Long && (Long) junit4Timeout > 0) {
+				timeout = Math.min(timeout, (Long) junit4Timeout);
+			}
+			Object expected = attribute(annotation, "expected");
+			// JUnit 4 uses Test.None (a Throwable) if nothing is expected
+			Class<?> expectedException = expected instanceof Class
+					&& !((Class<?>) expected).getName().equals("org.junit.Test$None") ? (Class<?>) expected : null;
+			results.add(execute(className, test.getName(), timeout, loader, () -> {
+				Object instance = newInstance(testClass);
+				try {
+					for (Method method : beforeEach) {
+						invoke(method, instance);
+					}
+					invoke(test, instance);
+				} finally {
+					for (Method method : afterEach) {
+						invoke(method, instance);
+					}
+				}
+				return null;
+			}, expectedException));
+		}
+		JavaTestResult cleanup = execute(className, "<afterAll>", timeoutMillis, loader, () -> {
+			for (Method method : methods(testClass, AFTER_ALL)) {
+				invoke(method, null);
+			}
+			return null;
+		}, null);
+		if (cleanup.getStatus() != Status.PASSED) {
+			results.add(cleanup);
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a test on a fresh thread and maps the outcome
+	 */
+	private JavaTestResult execute(String className, String name, long timeout, ClassLoader loader,
+			Callable<Void> body, Class<?> expectedException) {
+		FutureTask<Void> task = new FutureTask<>(body);
+		Thread thread = new Thread(task, "project_cleaner-test-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		thread.setContextClassLoader(loader);
+		long start = System.nanoTime();
+		thread.start();
+		Throwable failure = null;
+		try {
+			task.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			task.cancel(true);
+			abandon(thread);
+			return new JavaTestResult(className, name, Status.TIMEOUT, "exceeded " + timeout + " ms", timeout);
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			Thread.currentThread().interrupt();
+			return new JavaTestResult(className, name, Status.ERROR, "interrupted", 0);
+		} catch (ExecutionException e) {
+			failure = e.getCause();
+		}
+		long durationMillis = (System.nanoTime() - start) / 1_000_000;
+		if (expectedException != null) {
+			if (failure != null && expectedException.isInstance(failure)) {
+				return new JavaTestResult(className, name, Status.PASSED, null, durationMillis);
+			}
+			if (failure == null) {
+				return new JavaTestResult(className, name, Status.FAILED,
+						"expected " + expectedException.getName() + " to be thrown", durationMillis);
+			}
+		}
+		if (failure == null) {
+			return new JavaTestResult(className, name, Status.PASSED, null, durationMillis);
+		}
+		if (isAssumptionFailure(failure)) {
+			return new JavaTestResult(className, name, Status.SKIPPED, failure.getMessage(), durationMillis);
+		}
+		return new JavaTestResult(className, name, failure instanceof AssertionError ? Status.FAILED : Status.ERROR,
+				failure instanceof AssertionError ? String.valueOf(failure.getMessage()) : failure.toString(),
+				durationMillis);
+	}
+
+	/**
+	 * Gives an interrupted test a moment to end. If it ignores the interrupt
+	 * (e.g. an endless loop), it is left behind as a daemon and counted.
+	 */
+	private void abandon(Thread thread) {
+		try {
+			thread.join(STOP_GRACE_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (thread.isAlive()) {
+			abandonedThreads.add(thread);
+		}
+	}
+
+	/**
+	 * @return the number of timed out tests that are still running
+	 */
+	public int getAbandonedThreadCount() {
+		abandonedThreads.removeIf(x -> !x.isAlive());
+		return abandonedThreads.size();
+	}
+
+	/**
+	 * @return true if {@link #MAX_ABANDONED_THREADS} timed out tests are still
+	 *         running, no more tests are run then
+	 */
+	public boolean isExhausted() {
+		return getAbandonedThreadCount() >= MAX_ABANDONED_THREADS;
+	}
+
+	/**
+	 * Finds classes that could end this JVM: those that call
+	 * {@code System.exit}, {@code Runtime.exit} or {@code Runtime.halt}, or that
+	 * use reflection or method handle lookups, through which these can be called
+	 * as well. The references are read from the compiled classes, so it does not
+	 * matter how the source spelled them.
+	 *
+	 * @param classFiles the compiled classes by binary name
+	 * @return {@code class: reference} for every such reference, by class name
+	 */
+	public static List<String> findJvmExits(Map<String, byte[]> classFiles) {
+		List<String> exits = new ArrayList<>();
+		for (String className : new TreeSet<>(classFiles.keySet())) {
+			ClassFileReferences references;
+			try {
+				references = ClassFileReferences.read(classFiles.get(className));
+			} catch (IOException e) {
+				exits.add(className + ": unreadable class file (" + e.getMessage() + ")");
+				continue;
+			}
+			for (String method : references.getMethods()) {
+				if (JVM_EXIT_METHODS.contains(method) || method.startsWith(METHOD_HANDLE_LOOKUP)) {
+					exits.add(className + ": " + method.replace('/', '.'));
+				}
+			}
+			for (String type : references.getClasses()) {
+				// Also array types like [Ljava/lang/reflect/Method;
+				String elementType = type.replaceFirst("^\\[+L", "").replaceFirst(";$", "");
+				if (elementType.startsWith(REFLECTION_PACKAGE) && !elementType.equals(REFLECTIVE_ARRAYS)) {
+					exits.add(className + ": " + elementType.replace('/', '.'));
+				}
+			}
+		}
+		return exits;
+	}
+
+	/**
+	 * @return the runner or extension of a test class as {@code @Annotation}
+	 *         (null if it needs none)
+	 */
+	private static String extension(Class<?> testClass) {
+		Annotation annotation = annotation(testClass, EXTENSION);
+		if (annotation != null) {
+			Object runner = attribute(annotation, "value");
+			if (!(runner instanceof Class && DEFAULT_RUNNERS.contains(((Class<?>) runner).getName()))) {
+				return "@" + annotation.annotationType().getSimpleName();
+			}
+		}
+		for (Class<?> type = testClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				Annotation registration = annotation(field, REGISTER_EXTENSION);
+				if (registration != null) {
+					return "@" + registration.annotationType().getSimpleName();
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Object newInstance(Class<?> testClass) throws Exception {
+		Constructor<?> constructor = testClass.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		try {
+			return constructor.newInstance();
+		} catch (InvocationTargetException e) {
+			throw rethrow(e);
+		}
+	}
+
+	private static void invoke(Method method, Object instance) throws Exception {
+		try {
+			method.invoke(Modifier.isStatic(method.getModifiers()) ? null : instance);
+		} catch (InvocationTargetException e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * Rethrows what the test threw, so it can be told apart from a failure of
+	 * the runner
+	 */
+	private static Exception rethrow(InvocationTargetException e) throws Exception {
+		if (e.getCause() instanceof Error) {
+			throw (Error) e.getCause();
+		}
+		return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+	}
+
+	private static boolean isAssumptionFailure(Throwable failure) {
+		for (Class<?> type = failure.getClass(); type != null; type = type.getSuperclass()) {
+			if (ASSUMPTION_FAILURES.contains(type.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the methods with one of the given annotations, those of
+	 * superclasses first. Like in JUnit, a method a subclass overrides only
+	 * counts as declared in the subclass, with the annotations it has there.
+	 */
+	private static List<Method> methods(Class<?> type, Set<String> annotations) {
+		List<Method> methods = new ArrayList<>();
+		if (type.getSuperclass() != null && type.getSuperclass() != Object.class) {
+			methods.addAll(methods(type.getSuperclass(), annotations));
+		}
+		for (Method method : type.getDeclaredMethods()) {
+			methods.removeIf(x -> overrides(method, x));
+		}
+		for (Method method : type.getDeclaredMethods()) {
+			if (isAnnotated(method, annotations)) {
+				method.setAccessible(true);
+				methods.add(method);
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * @return true if the method of a subclass overrides (or, if both are
+	 *         static, hides) the method of a superclass
+	 */
+	private static boolean overrides(Method method, Method inherited) {
+		int modifiers = inherited.getModifiers();
+		if (Modifier.isPrivate(modifiers) || !method.getName().equals(inherited.getName())
+				|| !Arrays.equals(method.getParameterTypes(), inherited.getParameterTypes())) {
+			return false;
+		}
+		// A package-private method is only overridden from the same package
+		return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)
+				|| method.getDeclaringClass().getPackageName().equals(inherited.getDeclaringClass().getPackageName());
+	}
+
+	private static boolean isAnnotated(AnnotatedElement element, Set<String> annotations) {
+		return annotation(element, annotations) != null;
+	}
+
+	private static Annotation annotation(AnnotatedElement element, Set<String> annotations) {
+		Predicate<Annotation> matches = x -> annotations.contains(x.annotationType().getName());
+		for (Annotation annotation : element.getAnnotations()) {
+			if (matches.test(annotation)) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	private static Object attribute(Annotation annotation, String name) {
+		try {
+			return annotation.annotationType().getMethod(name).invoke(annotation);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Closes the class loader of the libraries
+	 */
+	@Override
+	public void close() {
+		try {
+			libraries.close();
+		} catch (IOException e) {
+			// Only the jars are closed, nothing is lost
+		}
+	}
+
+	/**
+	 * Defines the classes of a single project from memory
+	 */
+	private static final class ProjectClassLoader extends ClassLoader {
+		private final Map<String, byte[]> classFiles;
+
+		ProjectClassLoader(Map<String, byte[]> classFiles, ClassLoader parent) {
+			super("project", parent);
+			this.classFiles = classFiles;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = classFiles.get(name);
+			if (bytes == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package fop.project_cleaner;
+
+/**
+ * Counts what merging the solution into a submission did with the Files the
+ * solution provides: Files to overwrite that were already identical (and left
+ * untouched), Files that differed and were overwritten and Files that were
+ * missing and copied.
+ */
+public class MergeReport {
+	private int identical;
+	private int differing;
+	private int missing;
+
+	void identical() {
+		identical++;
+	}
+
+	void differing() {
+		differing++;
+	}
+
+	void missing() {
+		missing++;
+	}
+
+	void add(MergeReport other) {
+		identical += other.identical;
+		differing += other.differing;
+		missing += other.missing;
+	}
+
+	/**
+	 * @return the number of Files to overwrite that were already identical
+	 */
+	public int getIdenticalCount() {
+		return identical;
+	}
+
+	/**
+	 * @return the number of Files that differed from the solution and were
+	 *         overwritten
+	 */
+	public int getDifferingCount() {
+		return differing;
+	}
+
+	/**
+	 * @return the number of Files that were missing and copied from the solution
+	 */
+	public int getMissingCount() {
+		return missing;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d identical, %d overwritten, %d copied", identical, differing, missing);
+	}
+}
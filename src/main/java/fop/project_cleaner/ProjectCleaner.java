@@ -5,6 +5,8 @@ import java.util.function.Function;
 import java.util.Map;
 import java.util.HashMap;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import java.util.zip.ZipEntry;
@@ -63,7 +65,15 @@ public class ProjectCleaner {
 	}
 
 	public static void main(String[] args) {
-
+		if (args.length > 0 && args[0].equals("--generate")) {
+			System.exit(runGenerator(args));
+		}
+		if (args.length > 0 && args[0].equals("--update-solution")) {
+			System.exit(runSolutionUpdate(args));
+		}
+		if (args.length > 0 && args[0].startsWith("--")) {
+			System.exit(runBatch(args));
+		}
 		switch (args.length) {
 		case 0:
 			try {
@@ -97,10 +107,184 @@ public class ProjectCleaner {
 			});
 			break;
 		case 4:
+		case 5:
 			var extractor = new SubmissionsExtractor(new File(args[0]), new File(args[1]), new File(args[2]),
 					new File(args[3]), System.out, System.err);
-			extractor.extract();
+			extractor.setEventLogFile(new File(args[1], EventLogWriter.DEFAULT_FILE_NAME));
+			extractor.setMetricsFile(new File(args[1], ExtractionMetrics.DEFAULT_FILE_NAME));
+			if (args.length == 5) {
+				extractor.setLanguageMode(LanguageMode.valueOf(args[4].toUpperCase()));
+			}
+			var finished = cancelOnShutdown(extractor);
+			var result = extractor.extract();
+			finished.countDown();
+			if (result.wasAborted()) {
+				System.exit(BatchRunner.EXIT_JOB_FAILED);
+			}
+			System.exit(result.getFaultyCount() > 0 ? BatchRunner.EXIT_FAULTY_SUBMISSIONS : BatchRunner.EXIT_OK);
+			break;
 		default:
+			printUsage();
+			System.exit(BatchRunner.EXIT_USAGE);
+		}
+	}
+
+	/**
+	 * Cancels the extraction when the JVM is shut down (e.g. by Ctrl+C) and waits
+	 * for it to remove its temporary directories, so the run can be resumed
+	 *
+	 * @param extractor the {@link SubmissionsExtractor}
+	 * @return the latch to count down once the extraction has finished
+	 */
+	private static CountDownLatch cancelOnShutdown(SubmissionsExtractor extractor) {
+		var finished = new CountDownLatch(1);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			if (finished.getCount() == 0) {
+				return;
+			}
+			extractor.getControl().cancel();
+			try {
+				finished.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		return finished;
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage:");
+		System.err.println("  ProjectCleaner                                   (GUI)");
+		System.err.println("  ProjectCleaner <submissions> <output> <solution> <fileList> [java|racket]");
+		System.err.println("  ProjectCleaner --batch <jobFile> [--threads <n>] [--summary <file>]");
+		System.err.println("  ProjectCleaner --update-solution <output> <solution> [fileList]");
+		System.err.println("  ProjectCleaner --generate <directory> [--submissions <n>] [--seed <n>] [--language java|racket]");
+	}
+
+	/**
+	 * Applies a fixed solution to the projects of a finished extraction
+	 *
+	 * @param args the command line arguments
+	 * @return the exit code
+	 */
+	private static int runSolutionUpdate(String[] args) {
+		if (args.length != 3 && args.length != 4) {
+			printUsage();
+			return BatchRunner.EXIT_USAGE;
+		}
+		var updater = new SolutionUpdater(new File(args[1]), new File(args[2]),
+				args.length == 4 ? new File(args[3]) : null, System.out, System.err);
+		try {
+			var result = updater.call();
+			return result.getFailedProjectCount() > 0 ? BatchRunner.EXIT_FAULTY_SUBMISSIONS : BatchRunner.EXIT_OK;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("✗ Could not update the solution: " + e.getMessage());
+			return BatchRunner.EXIT_JOB_FAILED;
+		}
+	}
+
+	/**
+	 * Runs the headless batch mode
+	 *
+	 * @param args the command line arguments
+	 * @return the exit code
+	 */
+	private static int runBatch(String[] args) {
+		File jobFile = null;
+		Integer threads = null;
+		File summaryFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--batch":
+					jobFile = new File(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--summary":
+					summaryFile = new File(args[++i]);
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					printUsage();
+					return BatchRunner.EXIT_USAGE;
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			printUsage();
+			return BatchRunner.EXIT_USAGE;
+		}
+		if (jobFile == null) {
+			printUsage();
+			return BatchRunner.EXIT_USAGE;
+		}
+		try {
+			var runner = BatchRunner.fromJobFile(jobFile);
+			if (threads != null) {
+				runner.setThreads(threads);
+			}
+			if (summaryFile != null) {
+				runner.setSummaryFile(summaryFile);
+			}
+			return runner.run();
+		} catch (IOException | RuntimeException e) {
+			System.err.println("✗ Could not read job file " + jobFile + ": " + e.getMessage());
+			return BatchRunner.EXIT_USAGE;
+		}
+	}
+
+	/**
+	 * Generates a synthetic submission corpus for load tests
+	 *
+	 * @param args the command line arguments
+	 * @return the exit code
+	 */
+	private static int runGenerator(String[] args) {
+		File outputDir;
+		long seed = 1;
+		Integer submissions = null;
+		LanguageMode languageMode = LanguageMode.JAVA;
+		try {
+			outputDir = new File(args[1]);
+			for (int i = 2; i < args.length; i++) {
+				switch (args[i]) {
+				case "--submissions":
+					submissions = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--language":
+					languageMode = LanguageMode.valueOf(args[++i].toUpperCase());
+					break;
+				default:
+					System.err.println("Unknown option: " + args[i]);
+					printUsage();
+					return BatchRunner.EXIT_USAGE;
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			printUsage();
+			return BatchRunner.EXIT_USAGE;
+		}
+		var generator = new SyntheticCorpusGenerator(seed);
+		generator.setLanguageMode(languageMode);
+		if (submissions != null) {
+			generator.setSubmissionCount(submissions);
+		}
+		try {
+			long start = System.currentTimeMillis();
+			var corpus = generator.generate(outputDir);
+			System.out.println("✓ Generated " + corpus.getSubmissionCount() + " submissions in "
+					+ (System.currentTimeMillis() - start) + " ms " + corpus.getVariantCounts());
+			System.out.println("  " + corpus.getSubmissions().getAbsolutePath());
+			System.out.println("  " + corpus.getSolution().getAbsolutePath());
+			System.out.println("  " + corpus.getFileList().getAbsolutePath());
+			return BatchRunner.EXIT_OK;
+		} catch (IOException e) {
+			System.err.println("✗ Could not generate corpus: " + e.getMessage());
+			return BatchRunner.EXIT_JOB_FAILED;
 		}
 	}
 
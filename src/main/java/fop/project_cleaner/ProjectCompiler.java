@@ -0,0 +1,380 @@
+package fop.project_cleaner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the Java projects in-process with the compiler of the running JDK,
+ * so faulty submissions are known before they are imported into Eclipse. The
+ * source folders and the output folder are taken from the {@code .classpath}
+ * of each project, the libraries from the {@code .classpath} of the solution.
+ * The {@link StandardJavaFileManager}s holding that classpath are kept in a
+ * pool and reused, so the library jars are opened once per thread instead of
+ * once per project. Several projects can be compiled in parallel. The class
+ * Files are kept in memory for the {@link JavaTestRunner}.
+ */
+public class ProjectCompiler implements AutoCloseable {
+	/**
+	 * A problem reported by the compiler
+	 */
+	public static final class Problem {
+		private final String kind;
+		private final String path;
+		private final long line;
+		private final long column;
+		private final String message;
+
+		Problem(String kind, String path, long line, long column, String message) {
+			this.kind = kind;
+			this.path = path;
+			this.line = line;
+			this.column = column;
+			this.message = message;
+		}
+
+		/**
+		 * @return the kind ({@code error}, {@code warning}, ...)
+		 */
+		public String getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the File relative to the project (null if not File related)
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the line (starting at 1, -1 if unknown)
+		 */
+		public long getLine() {
+			return line;
+		}
+
+		/**
+		 * @return the column (starting at 1, -1 if unknown)
+		 */
+		public long getColumn() {
+			return column;
+		}
+
+		/**
+		 * @return the message of the compiler
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return (path == null ? "" : path + ":" + line + ":" + column + ": ") + kind + ": " + message;
+		}
+	}
+
+	/**
+	 * The outcome of compiling a project
+	 */
+	public static final class Result {
+		private final int fileCount;
+		private final boolean successful;
+		private final List<Problem> problems;
+
+		private final Map<String, byte[]> classFiles;
+		private final Map<String, String> sourcePaths;
+
+		Result(int fileCount, boolean successful, List<Problem> problems, Map<String, byte[]> classFiles,
+				Map<String, String> sourcePaths) {
+			this.fileCount = fileCount;
+			this.successful = successful;
+			this.problems = Collections.unmodifiableList(problems);
+			this.classFiles = Collections.unmodifiableMap(classFiles);
+			this.sourcePaths = Collections.unmodifiableMap(sourcePaths);
+		}
+
+		/**
+		 * @return the number of compiled source Files
+		 */
+		public int getFileCount() {
+			return fileCount;
+		}
+
+		/**
+		 * @return true if the project compiles without errors
+		 */
+		public boolean isSuccessful() {
+			return successful;
+		}
+
+		/**
+		 * @return the errors and warnings, in the order they were reported
+		 */
+		public List<Problem> getProblems() {
+			return problems;
+		}
+
+		/**
+		 * @return the number of errors
+		 */
+		public long getErrorCount() {
+			return problems.stream().filter(x -> x.kind.equals("error")).count();
+		}
+
+		/**
+		 * @return the compiled classes by binary name
+		 */
+		public Map<String, byte[]> getClassFiles() {
+			return classFiles;
+		}
+
+		/**
+		 * @param className the binary name of a compiled class
+		 * @return the source File of the class relative to the project (null if
+		 *         unknown)
+		 */
+		public String getSourcePath(String className) {
+			return sourcePaths.get(className);
+		}
+	}
+
+	private final JavaCompiler compiler;
+	private final List<File> classpath;
+	private final List<String> unusableLibraries;
+	private final boolean writeClassFiles;
+	private final Queue<StandardJavaFileManager> idleFileManagers = new ConcurrentLinkedQueue<>();
+	private final Queue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Create a new {@link ProjectCompiler}
+	 *
+	 * @param solutionFolder  the solution project, whose libraries are put on the
+	 *                        classpath
+	 * @param writeClassFiles true to write the class Files into the output folder
+	 *                        of each project, so Eclipse does not have to build
+	 *                        it after the import
+	 * @throws IOException           if the {@code .classpath} of the solution
+	 *                               cannot be read
+	 * @throws IllegalStateException if no compiler is available (running on a JRE)
+	 */
+	public ProjectCompiler(File solutionFolder, boolean writeClassFiles) throws IOException {
+		compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("No Java compiler available, a JDK is needed to compile the projects");
+		}
+		Path solution = solutionFolder.toPath().toAbsolutePath();
+		List<File> libraries = new ArrayList<>();
+		List<String> unusable = new ArrayList<>();
+		for (String library : EclipseClasspath.of(solution).getLibraries()) {
+			Path resolved = solution.resolve(library);
+			if (!Files.exists(resolved)) {
+				unusable.add(library + " (missing)");
+				continue;
+			}
+			// A broken jar would otherwise fail every single project
+			if (Files.isRegularFile(resolved)) {
+				try (ZipFile jar = new ZipFile(resolved.toFile())) {
+					// The central directory is read when opening, so it is readable
+					jar.size();
+				} catch (IOException e) {
+					unusable.add(library + " (" + e.getMessage() + ")");
+					continue;
+				}
+			}
+			libraries.add(resolved.toFile());
+		}
+		this.classpath = List.copyOf(libraries);
+		this.unusableLibraries = List.copyOf(unusable);
+		this.writeClassFiles = writeClassFiles;
+	}
+
+	/**
+	 * @return the libraries on the classpath
+	 */
+	public List<File> getClasspath() {
+		return classpath;
+	}
+
+	/**
+	 * @return the libraries of the solution left off the classpath because they
+	 *         are missing or not readable, with the reason
+	 */
+	public List<String> getUnusableLibraries() {
+		return unusableLibraries;
+	}
+
+	/**
+	 * Compiles a project
+	 *
+	 * @param projectDir the project directory
+	 * @return the {@link Result}
+	 * @throws IOException if the project cannot be read or the class Files
+	 *                     cannot be written
+	 */
+	public Result compile(File projectDir) throws IOException {
+		Path project = projectDir.toPath().toAbsolutePath();
+		EclipseClasspath projectClasspath = EclipseClasspath.of(project);
+		List<File> sourceFolders = new ArrayList<>();
+		List<File> sources = new ArrayList<>();
+		for (String folder : projectClasspath.getSourceFolders()) {
+			Path sourceFolder = project.resolve(folder);
+			if (!Files.isDirectory(sourceFolder)) {
+				continue;
+			}
+			sourceFolders.add(sourceFolder.toFile());
+			try (Stream<Path> files = Files.walk(sourceFolder)) {
+				// Eclipse projects of the course are not modular, a stray module-info
+				// would turn the whole compilation into module mode
+				sources.addAll(files.filter(x -> x.getFileName().toString().endsWith(".java")
+						&& !x.getFileName().toString().equals("module-info.java") && Files.isRegularFile(x))
+						.map(Path::toFile).collect(Collectors.toList()));
+			}
+		}
+		if (sources.isEmpty()) {
+			return new Result(0, true, List.of(), Map.of(), Map.of());
+		}
+		StandardJavaFileManager fileManager = borrowFileManager();
+		boolean reusable = false;
+		try {
+			fileManager.setLocation(StandardLocation.SOURCE_PATH, sourceFolders);
+			if (writeClassFiles) {
+				Path output = project.resolve(projectClasspath.getOutputFolder());
+				Files.createDirectories(output);
+				fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(output.toFile()));
+			}
+			CapturingFileManager taskFileManager = new CapturingFileManager(fileManager, project);
+			DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+			boolean successful = compiler.getTask(null, taskFileManager, diagnostics,
+					List.of("-proc:none", "-encoding", StandardCharsets.UTF_8.name(), "-Xlint:none"), null,
+					fileManager.getJavaFileObjectsFromFiles(sources)).call();
+			List<Problem> problems = new ArrayList<>();
+			for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+				problems.add(toProblem(diagnostic, project));
+			}
+			reusable = true;
+			return new Result(sources.size(), successful, problems, taskFileManager.classFiles,
+					taskFileManager.sourcePaths);
+		} finally {
+			if (reusable) {
+				idleFileManagers.add(fileManager);
+			} else {
+				fileManagers.remove(fileManager);
+				fileManager.close();
+			}
+		}
+	}
+
+	private StandardJavaFileManager borrowFileManager() throws IOException {
+		StandardJavaFileManager fileManager = idleFileManagers.poll();
+		if (fileManager != null) {
+			return fileManager;
+		}
+		fileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+		fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+		fileManagers.add(fileManager);
+		return fileManager;
+	}
+
+	private static Problem toProblem(Diagnostic<? extends JavaFileObject> diagnostic, Path project) {
+		String path = null;
+		if (diagnostic.getSource() != null) {
+			path = relativize(Path.of(diagnostic.getSource().toUri()), project);
+		}
+		return new Problem(diagnostic.getKind().name().toLowerCase().replace("mandatory_", ""), path,
+				diagnostic.getLineNumber() == Diagnostic.NOPOS ? -1 : diagnostic.getLineNumber(),
+				diagnostic.getColumnNumber() == Diagnostic.NOPOS ? -1 : diagnostic.getColumnNumber(),
+				diagnostic.getMessage(Locale.ROOT));
+	}
+
+	private static String relativize(Path source, Path project) {
+		return (source.startsWith(project) ? project.relativize(source) : source).toString()
+				.replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Closes all pooled {@link StandardJavaFileManager}s
+	 */
+	@Override
+	public void close() {
+		for (StandardJavaFileManager fileManager : fileManagers) {
+			try {
+				fileManager.close();
+			} catch (IOException e) {
+				// Nothing was written through it, so nothing is lost
+			}
+		}
+		fileManagers.clear();
+		idleFileManagers.clear();
+	}
+
+	/**
+	 * Keeps the class Files in memory and, if requested, writes them to the
+	 * output folder as well
+	 */
+	private final class CapturingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+		private final Path project;
+		private final Map<String, byte[]> classFiles = new HashMap<>();
+		private final Map<String, String> sourcePaths = new HashMap<>();
+
+		CapturingFileManager(StandardJavaFileManager fileManager, Path project) {
+			super(fileManager);
+			this.project = project;
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+				FileObject sibling) throws IOException {
+			JavaFileObject file = writeClassFiles ? super.getJavaFileForOutput(location, className, kind, sibling)
+					: null;
+			if (sibling != null) {
+				sourcePaths.put(className, relativize(Path.of(sibling.toUri()), project));
+			}
+			return new SimpleJavaFileObject(URI.create("memory:///" + className.replace('.', '/') + kind.extension),
+					kind) {
+				@Override
+				public OutputStream openOutputStream() {
+					return new ByteArrayOutputStream() {
+						@Override
+						public void close() throws IOException {
+							byte[] bytes = toByteArray();
+							classFiles.put(className, bytes);
+							if (file != null) {
+								try (OutputStream out = file.openOutputStream()) {
+									out.write(bytes);
+								}
+							}
+						}
+					};
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package fop.project_cleaner;
+
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The layout of a submission archive, read from its central directory without
+ * inflating any entry. Eclipse exports the project as a single folder; some
+ * students zip the content of the project instead, which is detected by a
+ * {@code .project} or {@code pom.xml} next to other top level entries.
+ */
+public class ProjectLayout {
+	private final Set<String> topLevelNames;
+
+	private ProjectLayout(Set<String> topLevelNames) {
+		this.topLevelNames = topLevelNames;
+	}
+
+	/**
+	 * Reads the layout of an archive
+	 *
+	 * @param zip         the archive
+	 * @param entryFilter the entries that will be extracted (null for all)
+	 * @return the {@link ProjectLayout}
+	 */
+	public static ProjectLayout of(ZipFile zip, Predicate<String> entryFilter) {
+		Set<String> topLevelNames = new TreeSet<>();
+		Enumeration<? extends ZipEntry> entries = zip.entries();
+		while (entries.hasMoreElements()) {
+			ZipEntry entry = entries.nextElement();
+			if (entryFilter != null && !entryFilter.test(entry.getName())) {
+				continue;
+			}
+			String[] segments = entry.getName().replace('\\', '/').replaceFirst("^/+", "").split("/");
+			// A directory entry only creates its parents when extracted, see ArchiveExtractor
+			if (segments[0].isEmpty() || entry.isDirectory() && segments.length < 2) {
+				continue;
+			}
+			topLevelNames.add(segments[0]);
+		}
+		return new ProjectLayout(topLevelNames);
+	}
+
+	/**
+	 * @return the names of the Files and directories that will be extracted to
+	 *         the top level, in alphabetical order
+	 */
+	public Set<String> getTopLevelNames() {
+		return topLevelNames;
+	}
+
+	/**
+	 * @return true if nothing will be extracted
+	 */
+	public boolean isEmpty() {
+		return topLevelNames.isEmpty();
+	}
+
+	/**
+	 * @return true if the project content was zipped without its folder, so it
+	 *         needs to be extracted into a new one
+	 */
+	public boolean isMissingProjectFolder() {
+		return topLevelNames.size() > 1
+				&& (topLevelNames.contains(".project") || topLevelNames.contains("pom.xml"));
+	}
+}
@@ -0,0 +1,65 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the names taken in the output directory, so a project can be
+ * given a unique name ({@code Name}, {@code Name(1)}, {@code Name(2)}, ...)
+ * without listing the directory again for every submission. The registry is
+ * seeded once from the output directory; after that every name has to be
+ * claimed here before a project is published under it. Claims are atomic, so
+ * parallel workers never end up with the same name.
+ */
+public class ProjectNameRegistry {
+	private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Create a new {@link ProjectNameRegistry}
+	 *
+	 * @param outputDir the output directory whose entries are taken already
+	 */
+	public ProjectNameRegistry(File outputDir) {
+		String[] existing = outputDir.list();
+		if (existing != null) {
+			Collections.addAll(names, existing);
+		}
+	}
+
+	/**
+	 * Claims the given name, or the first free one with a counter appended
+	 *
+	 * @param name the preferred name
+	 * @return the claimed name
+	 */
+	public String claim(String name) {
+		if (names.add(name)) {
+			return name;
+		}
+		for (int counter = 1;; counter++) {
+			String candidate = name + "(" + counter + ")";
+			if (names.add(candidate)) {
+				return candidate;
+			}
+		}
+	}
+
+	/**
+	 * Gives back a claimed name that ended up unused
+	 *
+	 * @param name the name
+	 */
+	public void release(String name) {
+		names.remove(name);
+	}
+
+	/**
+	 * @param name a name
+	 * @return true if the name is taken
+	 */
+	public boolean isTaken(String name) {
+		return names.contains(name);
+	}
+}
@@ -27,6 +27,7 @@ public class RacoAdapter {
 	private File raco;
 	private Path executionDirectory;
 	private String defaultTempFilename = "temp.rkt";
+	private ExtractionControl control;
 
 	/**
 	 * Create a new {@link RacoAdapter}
@@ -85,6 +86,22 @@ public class RacoAdapter {
 		this.executionDirectory = executionDirectory;
 	}
 
+	/**
+	 * @return the {@link ExtractionControl} raco processes are registered with
+	 *         (can be null)
+	 */
+	public ExtractionControl getControl() {
+		return control;
+	}
+
+	/**
+	 * @param control the {@link ExtractionControl} to register raco processes
+	 *                with, so they are destroyed when the extraction is cancelled
+	 */
+	public void setControl(ExtractionControl control) {
+		this.control = control;
+	}
+
 	/**
 	 * Verifies the loaded raco to be compatible with this {@link RacoAdapter}
 	 *
@@ -156,13 +173,30 @@ public class RacoAdapter {
 	 * @return a {@link CommandResult} that stores information about the execution
 	 */
 	public static CommandResult executeShellComand(int timeoutInSeconds, String... command) {
+		return executeShellComand(timeoutInSeconds, null, command);
+	}
+
+	/**
+	 * Executes a Shell command and handels occuring errors
+	 *
+	 * @param timeoutInSeconds The Timeout in Seconds
+	 * @param control          the {@link ExtractionControl} to register the
+	 *                         process with while it runs (can be null)
+	 * @param command          The command to be executed
+	 * @return a {@link CommandResult} that stores information about the execution
+	 */
+	public static CommandResult executeShellComand(int timeoutInSeconds, ExtractionControl control,
+			String... command) {
 		String s;
 		String t;
 		StringBuilder output = new StringBuilder();
 		StringBuilder error = new StringBuilder();
-		Process p;
+		Process p = null;
 		try {
 			p = Runtime.getRuntime().exec(command);
+			if (control != null) {
+				control.register(p);
+			}
 			if (timeoutInSeconds > 0) {
 				if (!p.waitFor(timeoutInSeconds, TimeUnit.SECONDS)) {
 					p.destroyForcibly();
@@ -200,6 +234,10 @@ public class RacoAdapter {
 			return new CommandResult(output.toString(), p.exitValue(), true, new Error(error.toString()));
 		} catch (Exception e) {
 			return new CommandResult(output.toString(), -1, false, e);
+		} finally {
+			if (control != null && p != null) {
+				control.unregister(p);
+			}
 		}
 	}
 
@@ -221,7 +259,7 @@ public class RacoAdapter {
 	 * @return the {@link RacketTestResult}
 	 */
 	public RacketTestResult racoTest(File rktFile, int timeout) {
-		CommandResult result = executeShellComand(timeout, raco.getAbsolutePath(), "test", "--quiet",
+		CommandResult result = executeShellComand(timeout, control, raco.getAbsolutePath(), "test", "--quiet",
 				rktFile.getAbsolutePath());
 		if (result.ok()) {
 			String testResult = result.getResultString();
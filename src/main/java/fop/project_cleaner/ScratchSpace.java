@@ -0,0 +1,196 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Hands out a fresh directory per submission to unpack, rearrange and merge
+ * it in. If a memory-backed file system (tmpfs, by default {@code /dev/shm})
+ * is available, submissions up to a size threshold are worked on there, so
+ * only the finished project is written to the output directory on the disk.
+ * Larger submissions, or all of them if there is no tmpfs or it is short on
+ * space, spill to a directory on the disk.
+ *
+ * The tmpfs directory can be set with the system property
+ * {@value #DIRECTORY_PROPERTY} ({@code none} disables it), the threshold in
+ * bytes with {@value #THRESHOLD_PROPERTY}.
+ */
+public class ScratchSpace implements AutoCloseable {
+	/**
+	 * The system property for the memory-backed directory
+	 */
+	public static final String DIRECTORY_PROPERTY = "project_cleaner.scratch";
+	/**
+	 * The system property for the largest submission worked on in memory
+	 */
+	public static final String THRESHOLD_PROPERTY = "project_cleaner.scratch.maxBytes";
+	private static final long DEFAULT_THRESHOLD = 128L * 1024 * 1024;
+	private static final String PREFIX = "project_cleaner-";
+
+	private final Path memoryRoot;
+	private final Path diskRoot;
+	private final long threshold;
+	private final String memoryProblem;
+
+	/**
+	 * Create a new {@link ScratchSpace} configured by the system properties
+	 *
+	 * @param diskRoot the directory on the disk to spill to
+	 */
+	public ScratchSpace(File diskRoot) {
+		this(diskRoot, findMemoryDirectory(), Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD));
+	}
+
+	/**
+	 * Create a new {@link ScratchSpace}
+	 *
+	 * @param diskRoot        the directory on the disk to spill to
+	 * @param memoryDirectory the memory-backed directory (null to always use the
+	 *                        disk)
+	 * @param threshold       the largest submission in bytes that is worked on in
+	 *                        memory
+	 */
+	public ScratchSpace(File diskRoot, Path memoryDirectory, long threshold) {
+		this.diskRoot = diskRoot.toPath().toAbsolutePath();
+		this.threshold = threshold;
+		Path root = null;
+		String problem = null;
+		if (memoryDirectory != null) {
+			try {
+				root = createMemoryRoot(memoryDirectory);
+			} catch (IOException e) {
+				problem = "Scratch space in " + memoryDirectory + " unavailable, using the disk: " + e.getMessage();
+			}
+		}
+		this.memoryRoot = root;
+		this.memoryProblem = problem;
+	}
+
+	/**
+	 * @return the tmpfs directory to use, or null if there is none
+	 */
+	private static Path findMemoryDirectory() {
+		String configured = System.getProperty(DIRECTORY_PROPERTY);
+		if ("none".equals(configured)) {
+			return null;
+		}
+		if (configured != null) {
+			return Paths.get(configured);
+		}
+		Path shm = Paths.get("/dev/shm");
+		try {
+			if (Files.isDirectory(shm) && Files.isWritable(shm) && Files.getFileStore(shm).type().equals("tmpfs")) {
+				return shm;
+			}
+		} catch (IOException e) {
+			// Not available
+		}
+		return null;
+	}
+
+	/**
+	 * Creates this process' directory inside the memory-backed directory and
+	 * removes those of processes that have died without cleaning up
+	 */
+	private static Path createMemoryRoot(Path memoryDirectory) throws IOException {
+		try (DirectoryStream<Path> stale = Files.newDirectoryStream(memoryDirectory, PREFIX + "*")) {
+			for (Path directory : stale) {
+				String pid = directory.getFileName().toString().substring(PREFIX.length()).split("-")[0];
+				try {
+					if (ProcessHandle.of(Long.parseLong(pid)).isEmpty()) {
+						FileOperations.delete(directory, false);
+					}
+				} catch (NumberFormatException e) {
+					continue;
+				}
+			}
+			return Files.createTempDirectory(memoryDirectory, PREFIX + ProcessHandle.current().pid() + "-");
+		}
+	}
+
+	/**
+	 * @return the directory submissions are worked on in memory (null if there is
+	 *         none)
+	 */
+	public Path getMemoryRoot() {
+		return memoryRoot;
+	}
+
+	/**
+	 * @return why the memory-backed directory cannot be used (null if it is used
+	 *         or there is none), for the log of the caller
+	 */
+	public String getMemoryProblem() {
+		return memoryProblem;
+	}
+
+	/**
+	 * @return the directory on the disk submissions spill to
+	 */
+	public Path getDiskRoot() {
+		return diskRoot;
+	}
+
+	/**
+	 * Creates an empty directory to work on a submission in
+	 *
+	 * @param name          a name unique among the allocated directories
+	 * @param expectedBytes the expected size of the submission once unpacked
+	 *                      (negative if unknown, the disk is used then)
+	 * @return the directory
+	 * @throws IOException if the directory cannot be created
+	 */
+	public File allocate(String name, long expectedBytes) throws IOException {
+		Path root = fitsInMemory(expectedBytes) ? memoryRoot : diskRoot;
+		Path directory = root.resolve(name);
+		if (Files.exists(directory)) {
+			FileOperations.delete(directory, false);
+		}
+		return Files.createDirectories(directory).toFile();
+	}
+
+	private boolean fitsInMemory(long expectedBytes) {
+		if (memoryRoot == null || expectedBytes < 0 || expectedBytes > threshold) {
+			return false;
+		}
+		try {
+			// Leave room for the merged solution files and other workers
+			return Files.getFileStore(memoryRoot).getUsableSpace() > 4 * expectedBytes;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param directory an allocated directory
+	 * @return true if the directory is memory-backed
+	 */
+	public boolean isInMemory(File directory) {
+		return memoryRoot != null && directory.toPath().toAbsolutePath().startsWith(memoryRoot);
+	}
+
+	/**
+	 * Deletes an allocated directory and everything left in it
+	 *
+	 * @param directory the directory
+	 */
+	public void release(File directory) {
+		if (directory.exists()) {
+			FileOperations.delete(directory.toPath(), false);
+		}
+	}
+
+	/**
+	 * Deletes the memory-backed directory of this process
+	 */
+	@Override
+	public void close() {
+		if (memoryRoot != null && Files.exists(memoryRoot)) {
+			FileOperations.delete(memoryRoot, false);
+		}
+	}
+}
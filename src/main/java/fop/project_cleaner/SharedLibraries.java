@@ -0,0 +1,151 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the libraries of the solution (the {@code lib} entries of its
+ * {@code .classpath}) once in an extra Eclipse project next to the projects,
+ * instead of in every single project. The copies in the projects that are
+ * identical to the solution are deleted and the {@code .classpath} of each
+ * project is rewritten to reference the shared project with a workspace path
+ * ({@code /H07_LIBRARIES/lib/junit.jar}), so Eclipse resolves it as soon as the
+ * shared project is imported along with the others.
+ */
+public class SharedLibraries {
+	/**
+	 * The end of the name of the shared project
+	 */
+	public static final String SUFFIX = "_LIBRARIES";
+
+	private final String projectName;
+	// The path in the .classpath -> the library in the solution
+	private final Map<String, SolutionSnapshot.Node> libraries;
+
+	private SharedLibraries(String projectName, Map<String, SolutionSnapshot.Node> libraries) {
+		this.projectName = projectName;
+		this.libraries = Collections.unmodifiableMap(libraries);
+	}
+
+	/**
+	 * Creates (or refreshes) the shared project in the output directory
+	 *
+	 * @param solution  the solution
+	 * @param outputDir the output directory
+	 * @return the {@link SharedLibraries}
+	 * @throws IOException if the {@code .classpath} of the solution cannot be
+	 *                     read or the libraries cannot be copied
+	 */
+	public static SharedLibraries create(SolutionSnapshot solution, File outputDir) throws IOException {
+		Path solutionRoot = solution.getRoot().getPath();
+		String projectName = projectNameOf(solutionRoot.toFile());
+		Path project = outputDir.toPath().resolve(projectName);
+		Map<String, SolutionSnapshot.Node> libraries = new LinkedHashMap<>();
+		for (String library : EclipseClasspath.of(solutionRoot).getLibraries()) {
+			// Absolute paths and references to other projects are not part of the
+			// solution
+			if (library.startsWith("/") || Path.of(library).isAbsolute()) {
+				continue;
+			}
+			Path relativePath = Path.of(library).normalize();
+			SolutionSnapshot.Node node = solution.find(relativePath);
+			if (node == null || node.isDirectory() || relativePath.startsWith("..")) {
+				continue;
+			}
+			Path target = project.resolve(relativePath);
+			Files.createDirectories(target.getParent());
+			Files.copy(node.getPath(), target, StandardCopyOption.REPLACE_EXISTING);
+			libraries.put(toKey(relativePath), node);
+		}
+		Files.createDirectories(project);
+		Files.writeString(project.resolve(".project"), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<projectDescription>\n\t<name>" + projectName + "</name>\n\t<comment></comment>\n\t<projects>\n"
+				+ "\t</projects>\n\t<buildSpec>\n\t</buildSpec>\n\t<natures>\n\t</natures>\n</projectDescription>\n",
+				StandardCharsets.UTF_8);
+		return new SharedLibraries(projectName, libraries);
+	}
+
+	/**
+	 * @param solution the solution directory
+	 * @return the name of the shared project of the solution
+	 */
+	public static String projectNameOf(File solution) {
+		return solution.getName().split("_")[0] + SUFFIX;
+	}
+
+	private static String toKey(Path relativePath) {
+		return relativePath.toString().replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * @return the name of the shared project
+	 */
+	public String getProjectName() {
+		return projectName;
+	}
+
+	/**
+	 * @return the shared libraries, relative to the project
+	 */
+	public List<String> getLibraries() {
+		return List.copyOf(libraries.keySet());
+	}
+
+	/**
+	 * Removes the copies of the shared libraries from a project and lets its
+	 * {@code .classpath} reference the shared project instead. Libraries the
+	 * student changed are kept in the project.
+	 *
+	 * @param projectDir the project directory
+	 * @return the number of rewritten {@code .classpath} entries
+	 * @throws IOException if a library cannot be deleted or the
+	 *                     {@code .classpath} cannot be rewritten
+	 */
+	public int apply(File projectDir) throws IOException {
+		Path project = projectDir.toPath();
+		for (Map.Entry<String, SolutionSnapshot.Node> library : libraries.entrySet()) {
+			Path copy = project.resolve(library.getKey());
+			if (Files.isRegularFile(copy) && library.getValue().contentEquals(copy)) {
+				Files.delete(copy);
+				deleteEmptyParents(copy.getParent(), project);
+			}
+		}
+		return EclipseClasspath.rewrite(project, entry -> {
+			if (!entry.getKind().equals("lib") || entry.getPath().startsWith("/")) {
+				return null;
+			}
+			Path relativePath;
+			try {
+				relativePath = Path.of(entry.getPath()).normalize();
+			} catch (InvalidPathException e) {
+				return null;
+			}
+			String key = toKey(relativePath);
+			if (!libraries.containsKey(key) || Files.exists(project.resolve(relativePath))) {
+				return null;
+			}
+			return "/" + projectName + "/" + key;
+		});
+	}
+
+	private static void deleteEmptyParents(Path directory, Path project) throws IOException {
+		while (directory != null && !directory.equals(project)) {
+			try (var children = Files.list(directory)) {
+				if (children.findAny().isPresent()) {
+					return;
+				}
+			}
+			Files.delete(directory);
+			directory = directory.getParent();
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable in-memory copy of the solution project, loaded once per run and
+ * merged into every submission. It holds the tree of Files and directories
+ * with their sizes and, up to a size limit, the content of the Files, so
+ * merging neither lists the solution directories nor reads the solution Files
+ * again for every submission. Larger Files are copied from the disk.
+ */
+public final class SolutionSnapshot {
+	/**
+	 * The largest File whose content is kept in memory
+	 */
+	public static final long DEFAULT_MAX_FILE_BYTES = 256 * 1024;
+	/**
+	 * The most bytes of File content kept in memory in total
+	 */
+	public static final long DEFAULT_MAX_TOTAL_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 * A File or directory of the solution
+	 */
+	public static final class Node {
+		private final String name;
+		private final Path path;
+		private final boolean directory;
+		private final long size;
+		private final byte[] content;
+		private final List<Node> children;
+
+		private Node(String name, Path path, boolean directory, long size, byte[] content, List<Node> children) {
+			this.name = name;
+			this.path = path;
+			this.directory = directory;
+			this.size = size;
+			this.content = content;
+			this.children = children;
+		}
+
+		/**
+		 * @return the File name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the absolute Path in the solution directory
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * @return true if this is a directory
+		 */
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * @return the size of the File in bytes (0 for directories)
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return true if the content of the File is kept in memory
+		 */
+		public boolean isCached() {
+			return content != null;
+		}
+
+		/**
+		 * @return the Files and directories inside this directory, in the order
+		 *         they were listed in
+		 */
+		public List<Node> getChildren() {
+			return children;
+		}
+
+		/**
+		 * Writes this File to the given target, from memory if possible
+		 *
+		 * @param target  the target File
+		 * @param replace true to replace an existing File, otherwise an existing
+		 *                File is an error
+		 * @throws IOException if the File cannot be written
+		 */
+		public void writeTo(Path target, boolean replace) throws IOException {
+			if (directory) {
+				throw new IllegalStateException(name + " is a directory");
+			}
+			if (content != null) {
+				if (replace) {
+					Files.write(target, content);
+				} else {
+					Files.write(target, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+				}
+			} else if (replace) {
+				Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+			} else {
+				Files.copy(path, target);
+			}
+		}
+
+		/**
+		 * Compares this File with a File of the submission, without reading either
+		 * if their sizes differ
+		 *
+		 * @param target the File of the submission
+		 * @return true if both have the same content
+		 * @throws IOException if the File cannot be read
+		 */
+		public boolean contentEquals(Path target) throws IOException {
+			if (directory) {
+				throw new IllegalStateException(name + " is a directory");
+			}
+			if (Files.size(target) != size) {
+				return false;
+			}
+			if (content != null) {
+				return FileUtils.contentEquals(content, target);
+			}
+			return Files.mismatch(path, target) == -1;
+		}
+
+		/**
+		 * Writes the content of this directory into a target directory, replacing
+		 * existing Files unless they are identical already
+		 *
+		 * @param target the target directory (created if missing)
+		 * @param merge  the {@link MergeReport} to count the Files in
+		 * @return the {@link FileOperationReport} of the Files written
+		 */
+		public FileOperationReport writeTreeTo(Path target, MergeReport merge) {
+			FileOperationReport report = new FileOperationReport();
+			writeTree(this, target, report, merge);
+			return report;
+		}
+
+		private static void writeTree(Node directory, Path target, FileOperationReport report, MergeReport merge) {
+			try {
+				Files.createDirectories(target);
+			} catch (IOException e) {
+				report.failed("mkdir", target, e);
+				return;
+			}
+			for (Node child : directory.children) {
+				Path childTarget = target.resolve(child.name);
+				if (child.directory) {
+					writeTree(child, childTarget, report, merge);
+					continue;
+				}
+				try {
+					if (!Files.exists(childTarget)) {
+						merge.missing();
+					} else if (child.contentEquals(childTarget)) {
+						merge.identical();
+						continue;
+					} else {
+						merge.differing();
+					}
+					child.writeTo(childTarget, true);
+					report.fileDone(child.size);
+				} catch (IOException e) {
+					report.failed("copy", child.path, e);
+				}
+			}
+		}
+	}
+
+	private final Node root;
+	private final long cachedBytes;
+
+	private SolutionSnapshot(Node root, long cachedBytes) {
+		this.root = root;
+		this.cachedBytes = cachedBytes;
+	}
+
+	/**
+	 * Loads a solution directory with the default limits
+	 *
+	 * @param solutionDir the solution directory
+	 * @return the {@link SolutionSnapshot}
+	 * @throws IOException if the solution cannot be read
+	 */
+	public static SolutionSnapshot load(File solutionDir) throws IOException {
+		return load(solutionDir, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_TOTAL_BYTES);
+	}
+
+	/**
+	 * Loads a solution directory
+	 *
+	 * @param solutionDir   the solution directory
+	 * @param maxFileBytes  the largest File whose content is kept in memory
+	 * @param maxTotalBytes the most bytes of File content kept in memory in total
+	 * @return the {@link SolutionSnapshot}
+	 * @throws IOException if the solution cannot be read
+	 */
+	public static SolutionSnapshot load(File solutionDir, long maxFileBytes, long maxTotalBytes)
+			throws IOException {
+		if (!solutionDir.isDirectory()) {
+			throw new IllegalArgumentException("solutionDir must be a directory");
+		}
+		long[] budget = { maxTotalBytes };
+		Node root = loadDirectory(solutionDir, maxFileBytes, budget);
+		return new SolutionSnapshot(root, maxTotalBytes - budget[0]);
+	}
+
+	private static Node loadDirectory(File directory, long maxFileBytes, long[] budget) throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			throw new IOException("Cannot list " + directory);
+		}
+		List<Node> children = new ArrayList<>(files.length);
+		for (File file : files) {
+			if (file.isDirectory()) {
+				children.add(loadDirectory(file, maxFileBytes, budget));
+				continue;
+			}
+			long size = file.length();
+			byte[] content = null;
+			if (size <= maxFileBytes && size <= budget[0]) {
+				content = Files.readAllBytes(file.toPath());
+				budget[0] -= content.length;
+			}
+			children.add(new Node(file.getName(), file.toPath().toAbsolutePath(), false, size, content, List.of()));
+		}
+		return new Node(directory.getName(), directory.toPath().toAbsolutePath(), true, 0, null,
+				Collections.unmodifiableList(children));
+	}
+
+	/**
+	 * @return the solution directory
+	 */
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * Looks up a File or directory of the solution
+	 *
+	 * @param relativePath the path relative to the solution directory
+	 * @return the {@link Node} or null if the solution does not contain it
+	 */
+	public Node find(Path relativePath) {
+		Node node = root;
+		for (Path name : relativePath) {
+			Node child = null;
+			for (Node candidate : node.children) {
+				if (candidate.name.equals(name.toString())) {
+					child = candidate;
+					break;
+				}
+			}
+			if (child == null) {
+				return null;
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * @return the number of bytes of File content kept in memory
+	 */
+	public long getCachedBytes() {
+		return cachedBytes;
+	}
+}
@@ -0,0 +1,405 @@
+package fop.project_cleaner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Brings the projects of a finished Java extraction up to date with a fixed
+ * solution without extracting the submissions again. The new solution archive
+ * is compared with the solution extracted into the output directory earlier,
+ * and only the Files that were added or changed are applied to every project,
+ * following the File List like the original merge: {@code overwrite_always}
+ * Files are overwritten, {@code copy_if_not_exists} Files (and Files not in
+ * the File List) are only copied if the project lacks them. Files of the
+ * students are never changed otherwise, and Files removed from the solution
+ * are left alone. If the extraction used {@code shared_libraries}, the
+ * libraries of the new solution are written to the shared project instead of
+ * the projects, whose {@code .classpath} is linked to it again. Finally the new
+ * solution replaces the old one in the output directory.
+ */
+public class SolutionUpdater implements Callable<SolutionUpdater.Result> {
+	/**
+	 * The outcome of an update
+	 */
+	public static class Result {
+		private final int changedFiles;
+		private final int projects;
+		private final int failedProjects;
+		private final MergeReport merge;
+
+		Result(int changedFiles, int projects, int failedProjects, MergeReport merge) {
+			this.changedFiles = changedFiles;
+			this.projects = projects;
+			this.failedProjects = failedProjects;
+			this.merge = merge;
+		}
+
+		/**
+		 * @return the number of solution Files that were added or changed
+		 */
+		public int getChangedFileCount() {
+			return changedFiles;
+		}
+
+		/**
+		 * @return the number of projects updated
+		 */
+		public int getProjectCount() {
+			return projects;
+		}
+
+		/**
+		 * @return the number of projects in which a File could not be written
+		 */
+		public int getFailedProjectCount() {
+			return failedProjects;
+		}
+
+		/**
+		 * @return what happened to the changed Files, summed up over all projects
+		 */
+		public MergeReport getMergeReport() {
+			return merge;
+		}
+	}
+
+	/**
+	 * What to do with a changed solution File
+	 */
+	private enum Action {
+		IGNORE, OVERWRITE, COPY_IF_MISSING,
+		/**
+		 * A library written to the shared project only
+		 */
+		SHARED
+	}
+
+	/**
+	 * A changed solution File and the directories a project needs to receive it
+	 */
+	private static class Change {
+		final Path relativePath;
+		final SolutionSnapshot.Node file;
+		final Action action;
+		final List<Path> requiredDirectories;
+
+		Change(Path relativePath, SolutionSnapshot.Node file, Action action, List<Path> requiredDirectories) {
+			this.relativePath = relativePath;
+			this.file = file;
+			this.action = action;
+			this.requiredDirectories = requiredDirectories;
+		}
+	}
+
+	private final File outputDir;
+	private final File solutionArchive;
+	private final File fileList;
+	private PrintStream log = System.out;
+	private PrintStream err = System.err;
+	private Set<Path> ignore = Set.of();
+	private Set<Path> overwrite = Set.of();
+	private Set<Path> assertExist = Set.of();
+	private Set<Path> copyIfNotExists = Set.of();
+	private SharedLibraries sharedLibraries;
+	private int threads = Integer.getInteger(SubmissionsExtractor.WORKERS_PROPERTY,
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Create a new {@link SolutionUpdater}
+	 *
+	 * @param outputDir       the output directory of a finished Java extraction
+	 * @param solutionArchive the fixed solution archive
+	 * @param fileList        the File List (null to only copy missing Files)
+	 * @param log             the stream for progress messages
+	 * @param err             the stream for errors
+	 */
+	public SolutionUpdater(File outputDir, File solutionArchive, File fileList, PrintStream log, PrintStream err) {
+		this.outputDir = outputDir;
+		this.solutionArchive = solutionArchive;
+		this.fileList = fileList;
+		this.log = log;
+		this.err = err;
+	}
+
+	/**
+	 * @param threads the number of projects updated in parallel
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Updates all projects in the output directory
+	 *
+	 * @return the {@link Result}
+	 * @throws IOException              if the solution cannot be read or
+	 *                                  replaced
+	 * @throws IllegalArgumentException if the output directory does not contain
+	 *                                  a finished Java extraction or the File List
+	 *                                  is invalid
+	 */
+	@Override
+	public Result call() throws IOException {
+		if (ExtractionJournal.fileIn(outputDir).exists()) {
+			throw new IllegalArgumentException(
+					"The extraction in " + outputDir + " is unfinished, resume it before updating the solution");
+		}
+		File oldSolution = findSolution(outputDir);
+		if (oldSolution == null) {
+			throw new IllegalArgumentException("No extracted solution (*SOLUTION) found in " + outputDir);
+		}
+		if (fileList != null) {
+			CompiledInstructionSet instructionSet = new InstructionSetCompiler(log, err).compile(fileList,
+					LanguageMode.JAVA);
+			ignore = new HashSet<>(instructionSet.getPaths(FileReadMode.IGNORE));
+			overwrite = new HashSet<>(instructionSet.getPaths(FileReadMode.OVERWRITE_ALWAYS));
+			assertExist = new HashSet<>(instructionSet.getPaths(FileReadMode.ASSERT_EXISTS));
+			copyIfNotExists = new HashSet<>(instructionSet.getPaths(FileReadMode.COPY_IF_NOT_EXISTS));
+		}
+		Path tempDir = Files.createTempDirectory(outputDir.toPath(), ".solution_update");
+		try {
+			new ArchiveExtractor().extract(solutionArchive, tempDir.toFile());
+			File newSolution = findSolution(tempDir.toFile());
+			if (newSolution == null) {
+				throw new IllegalArgumentException("No *SOLUTION folder in " + solutionArchive);
+			}
+			SolutionSnapshot snapshot = SolutionSnapshot.load(newSolution);
+			List<Change> changes = new ArrayList<>();
+			diff(snapshot.getRoot(), Paths.get(""), oldSolution.toPath(), changes);
+			if (new File(outputDir, SharedLibraries.projectNameOf(newSolution)).isDirectory()) {
+				// Refreshes the shared project, the projects must not get their own copies
+				sharedLibraries = SharedLibraries.create(snapshot, outputDir);
+				Set<String> libraries = new HashSet<>(sharedLibraries.getLibraries());
+				for (int i = 0; i < changes.size(); i++) {
+					Change change = changes.get(i);
+					if (libraries.contains(change.relativePath.toString().replace(File.separatorChar, '/'))) {
+						changes.set(i, new Change(change.relativePath, change.file, Action.SHARED, List.of()));
+					}
+				}
+			}
+			reportRemoved(oldSolution.toPath(), snapshot);
+			log.println(changes.size() + " solution File(s) added or changed");
+			for (Change change : changes) {
+				log.println("  " + change.relativePath + " (" + change.action.name().toLowerCase() + ")");
+			}
+			List<File> projects = findProjects(oldSolution);
+			MergeReport total = new MergeReport();
+			int failed = 0;
+			if (changes.stream().anyMatch(x -> x.action != Action.IGNORE)) {
+				failed = updateProjects(projects, changes, total);
+			}
+			// The new solution is the base of the next update. The old one is only
+			// moved aside (into the temporary directory, deleted at the end), so it can
+			// be restored if the new one cannot be published
+			Path previous = Files.move(oldSolution.toPath(), tempDir.resolve("previous_" + oldSolution.getName()));
+			FileOperationReport moved = FileOperations.publish(newSolution.toPath(),
+					outputDir.toPath().resolve(newSolution.getName()));
+			for (FileOperationReport.Failure failure : moved.getFailures()) {
+				err.println("✗ " + failure);
+			}
+			if (!moved.isSuccessful()) {
+				Files.move(previous, oldSolution.toPath());
+				throw new IOException("The new solution could not be published, " + oldSolution.getName()
+						+ " was restored (the projects are updated already)");
+			}
+			log.println(String.format("✓ Updated %s project(s): %s, %s failed", projects.size(), total, failed));
+			return new Result(changes.size(), projects.size(), failed, total);
+		} finally {
+			FileOperations.delete(tempDir, false);
+		}
+	}
+
+	private static File findSolution(File directory) {
+		File[] solutions = directory.listFiles(x -> x.isDirectory() && x.getName().endsWith("SOLUTION"));
+		return solutions == null || solutions.length == 0 ? null : solutions[0];
+	}
+
+	/**
+	 * @return the Eclipse projects in the output directory, except for the
+	 *         solution
+	 */
+	private List<File> findProjects(File solution) {
+		Set<String> reserved = Set.of("faulty", "tempCurrentSub", "tempAllSubs", solution.getName());
+		File[] projects = outputDir.listFiles(x -> x.isDirectory() && !x.getName().startsWith(".")
+				&& !reserved.contains(x.getName()) && !x.getName().endsWith(SharedLibraries.SUFFIX)
+				&& new File(x, ".project").isFile());
+		return projects == null ? List.of() : List.of(projects);
+	}
+
+	/**
+	 * Collects the added and changed Files of the new solution
+	 */
+	private void diff(SolutionSnapshot.Node directory, Path relativeDir, Path oldSolution, List<Change> changes)
+			throws IOException {
+		for (SolutionSnapshot.Node node : directory.getChildren()) {
+			Path relativePath = relativeDir.resolve(node.getName());
+			if (node.isDirectory()) {
+				diff(node, relativePath, oldSolution, changes);
+				continue;
+			}
+			Path oldFile = oldSolution.resolve(relativePath);
+			if (Files.isRegularFile(oldFile) && node.contentEquals(oldFile)) {
+				continue;
+			}
+			changes.add(classify(relativePath, node));
+		}
+	}
+
+	/**
+	 * Decides what to do with a changed File the same way
+	 * {@link SubmissionsExtractor#mergeProjectContent(SolutionSnapshot, File, ArrayList, ArrayList, ArrayList, ArrayList, ArrayList)}
+	 * does: the File Lists are checked from the top directory down to the File
+	 */
+	private Change classify(Path relativePath, SolutionSnapshot.Node file) {
+		List<Path> requiredDirectories = new ArrayList<>();
+		for (int i = 1; i <= relativePath.getNameCount(); i++) {
+			Path level = relativePath.subpath(0, i);
+			boolean isFile = i == relativePath.getNameCount();
+			boolean asserted = assertExist.contains(level) && !copyIfNotExists.contains(level);
+			if (ignore.contains(level)) {
+				return new Change(relativePath, file, Action.IGNORE, List.of());
+			}
+			if (overwrite.contains(level) && !isFile) {
+				// Everything inside an overwritten directory is written
+				return new Change(relativePath, file, Action.OVERWRITE, requiredDirectories);
+			}
+			if (isFile) {
+				if (overwrite.contains(level)) {
+					return new Change(relativePath, file, Action.OVERWRITE,
+							asserted ? withSelf(requiredDirectories, level) : requiredDirectories);
+				}
+				// A missing File the students had to submit is not filled in
+				return new Change(relativePath, file, asserted ? Action.IGNORE : Action.COPY_IF_MISSING,
+						requiredDirectories);
+			}
+			if (asserted) {
+				// The merge skips a missing asserted directory entirely
+				requiredDirectories.add(level);
+			}
+		}
+		throw new IllegalStateException("Empty path");
+	}
+
+	private static List<Path> withSelf(List<Path> requiredDirectories, Path self) {
+		List<Path> required = new ArrayList<>(requiredDirectories);
+		required.add(self);
+		return required;
+	}
+
+	private void reportRemoved(Path oldSolution, SolutionSnapshot snapshot) throws IOException {
+		Path newRoot = snapshot.getRoot().getPath();
+		try (Stream<Path> files = Files.walk(oldSolution)) {
+			List<Path> removed = files.filter(Files::isRegularFile).map(oldSolution::relativize)
+					.filter(x -> !Files.exists(newRoot.resolve(x))).collect(Collectors.toList());
+			for (Path path : removed) {
+				log.println("  " + path + " was removed from the solution, the projects keep it");
+			}
+		}
+	}
+
+	/**
+	 * Applies the changes to all projects in parallel
+	 *
+	 * @return the number of projects in which a File could not be written
+	 */
+	private int updateProjects(List<File> projects, List<Change> changes, MergeReport total) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, projects.size())),
+				runnable -> {
+					Thread thread = new Thread(runnable, "project_cleaner-solution-update");
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			List<Future<MergeReport>> futures = new ArrayList<>();
+			for (File project : projects) {
+				futures.add(executor.submit(() -> updateProject(project.toPath(), changes)));
+			}
+			int failed = 0;
+			for (Future<MergeReport> future : futures) {
+				MergeReport report = future.get();
+				if (report == null) {
+					failed++;
+				} else {
+					total.add(report);
+				}
+			}
+			return failed;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while updating the projects", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Updating the projects failed: " + e.getCause(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the {@link MergeReport} of the project, or null if a File could not
+	 *         be written
+	 */
+	private MergeReport updateProject(Path project, List<Change> changes) {
+		MergeReport report = new MergeReport();
+		boolean successful = true;
+		for (Change change : changes) {
+			if (change.action == Action.IGNORE || change.action == Action.SHARED
+					|| !change.requiredDirectories.stream().allMatch(x -> Files.exists(project.resolve(x)))) {
+				continue;
+			}
+			Path target = project.resolve(change.relativePath);
+			try {
+				boolean exists = Files.exists(target);
+				if (exists && change.action == Action.COPY_IF_MISSING) {
+					// The File of the student
+					continue;
+				}
+				if (exists && change.file.contentEquals(target)) {
+					report.identical();
+					continue;
+				}
+				Files.createDirectories(target.getParent());
+				change.file.writeTo(target, true);
+				if (exists) {
+					report.differing();
+				} else {
+					report.missing();
+				}
+			} catch (IOException e) {
+				err.println("✗ " + project.getFileName() + ": " + change.relativePath + " could not be written: "
+						+ e.getMessage());
+				successful = false;
+			}
+		}
+		if (sharedLibraries != null) {
+			// A changed .classpath references the libraries in the project again
+			try {
+				sharedLibraries.apply(project.toFile());
+			} catch (IOException | RuntimeException e) {
+				err.println("✗ " + project.getFileName() + ": could not link the shared libraries: " + e.getMessage());
+				successful = false;
+			}
+		}
+		if (report.getDifferingCount() + report.getMissingCount() > 0) {
+			log.println(project.getFileName() + ": " + report);
+		}
+		return successful ? report : null;
+	}
+}
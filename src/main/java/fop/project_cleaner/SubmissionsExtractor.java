@@ -1,20 +1,35 @@
 package fop.project_cleaner;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
-import javax.swing.JProgressBar;
-import javax.swing.SwingWorker;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.Transformer;
@@ -24,7 +39,9 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.w3c.dom.Document;
 
-import com.google.gson.Gson;
+import fop.project_cleaner.ExtractionEvent.Type;
+import fop.project_cleaner.ExtractionJournal.State;
+import fop.project_cleaner.ExtractionMetrics.Step;
 
 import static fop.project_cleaner.FileUtils.EnsureEmpty;
 import static fop.project_cleaner.FileUtils.clearFolder;
@@ -33,8 +50,31 @@ import static fop.project_cleaner.FileUtils.ensureDirectories;
 import static fop.project_cleaner.FileUtils.extractFolder;
 import static fop.project_cleaner.FileUtils.moveFolderContent;
 import static fop.project_cleaner.FileUtils.removeFolders;
+import static fop.project_cleaner.FileUtils.sizeOf;
 
-public class SubmissionsExtractor extends SwingWorker<String, Object> {
+/**
+ * Extracts the submissions of a Moodle archive into Projects ready to import.
+ * This class does not depend on any UI, progress and log messages are
+ * published to {@link ExtractionListener}s instead.
+ */
+public class SubmissionsExtractor implements Callable<ExtractionResult> {
+	/**
+	 * The system property for the number of Java submissions processed in
+	 * parallel
+	 */
+	public static final String WORKERS_PROPERTY = "project_cleaner.workers";
+	/**
+	 * The system property to also publish every log message as a
+	 * {@link Type#MESSAGE} event (off by default, it costs an event per line)
+	 */
+	public static final String MESSAGE_EVENTS_PROPERTY = "project_cleaner.messageEvents";
+	/**
+	 * The most compiler errors logged per project, all of them are in the events
+	 */
+	private static final int MAX_LOGGED_PROBLEMS = 10;
+	/**
+	 * Finds code that would end the JVM if a project was tested
+	 */
 
 	// -- Attributes --\\
 
@@ -44,14 +84,36 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 	private PrintStream err = System.err;
 	private File solutionArchive;
 	private File fileList;
-	private JProgressBar pb;
 	private LanguageMode languageMode = LanguageMode.JAVA;
 	private ActionSetModel instructionSet;
 	private RacoAdapter raco;
-
-	private enum FileReadMode {
-		ASSERT_EXISTS, OVERWRITE_ALWAYS, COPY_IF_NOT_EXISTS, ASSERT_NOT_EXISTS, IGNORE
-	}
+	private Predicate<File> clearOutputConfirmation;
+	private final List<ExtractionListener> listeners = new CopyOnWriteArrayList<>();
+	private File eventLogFile;
+	private File metricsFile;
+	private volatile ExtractionMetrics metrics = new ExtractionMetrics();
+	private EventLogWriter eventLog;
+	private Path solutionRoot;
+	private final ExtractionControl control = new ExtractionControl();
+	private volatile ExtractionJournal journal;
+	private ScratchSpace scratchSpace;
+	private ExtractionLimits limits = new ExtractionLimits();
+	private EntryFilter entryFilter = EntryFilter.defaults();
+	private ProjectNameRegistry projectNames;
+	private SolutionSnapshot solutionSnapshot;
+	private ProjectCompiler projectCompiler;
+	private JavaTestRunner testRunner;
+	private JavaCodeScanner codeScanner;
+	private SharedLibraries sharedLibraries;
+	private final AtomicInteger forbiddenCodeCount = new AtomicInteger();
+	private final AtomicInteger uncompilableCount = new AtomicInteger();
+	private int workers = Integer.getInteger(WORKERS_PROPERTY, 1);
+	private final boolean messageEvents = Boolean.getBoolean(MESSAGE_EVENTS_PROPERTY);
+	private long startTime;
+	/**
+	 * The name of the student whose submission is processed by the current thread
+	 */
+	private final ThreadLocal<String> currentSubmission = new ThreadLocal<>();
 
 	// -- Constructors --\\
 
@@ -80,14 +142,19 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 
 	// -- Getters+Setters --\\
 
-	@SuppressWarnings("exports")
-	public void setProgressBar(JProgressBar pb) {
-		this.pb = pb;
+	/**
+	 * @param listener the {@link ExtractionListener} to notify about progress and
+	 *                 log messages
+	 */
+	public void addListener(ExtractionListener listener) {
+		listeners.add(listener);
 	}
 
-	@SuppressWarnings("exports")
-	public JProgressBar getProgressBar() {
-		return pb;
+	/**
+	 * @param listener the {@link ExtractionListener} to remove
+	 */
+	public void removeListener(ExtractionListener listener) {
+		listeners.remove(listener);
 	}
 
 	public void setLanguageMode(LanguageMode languageMode) {
@@ -98,148 +165,240 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		return languageMode;
 	}
 
+	/**
+	 * @param clearOutputConfirmation asked if a non-empty output directory may be
+	 *                                cleared, null to always abort in that case
+	 *                                (the default, suitable for headless runs)
+	 */
+	public void setClearOutputConfirmation(Predicate<File> clearOutputConfirmation) {
+		this.clearOutputConfirmation = clearOutputConfirmation;
+	}
+
+	/**
+	 * @param eventLogFile the File to write the {@link ExtractionEvent}s of the
+	 *                     next extraction to as JSON lines (null to disable). The
+	 *                     File is opened after the output directory was cleared,
+	 *                     so it may be inside of it.
+	 */
+	public void setEventLogFile(File eventLogFile) {
+		this.eventLogFile = eventLogFile;
+	}
+
+	/**
+	 * @return the File the {@link ExtractionEvent}s are written to (can be null)
+	 */
+	public File getEventLogFile() {
+		return eventLogFile;
+	}
+
+	/**
+	 * @param metricsFile the File to write the {@link ExtractionMetrics} of the
+	 *                    next extraction to as JSON (null to disable)
+	 */
+	public void setMetricsFile(File metricsFile) {
+		this.metricsFile = metricsFile;
+	}
+
+	/**
+	 * @return the File the {@link ExtractionMetrics} are written to (can be null)
+	 */
+	public File getMetricsFile() {
+		return metricsFile;
+	}
+
+	/**
+	 * @param limits the {@link ExtractionLimits} for unpacking a single submission
+	 *               (null for none)
+	 */
+	public void setLimits(ExtractionLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * @return the {@link ExtractionLimits} for unpacking a single submission (can
+	 *         be null)
+	 */
+	public ExtractionLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * @param workers the number of Java submissions processed in parallel (Racket
+	 *                submissions are always processed one after another)
+	 */
+	public void setWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * @return the number of Java submissions processed in parallel
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * @return the {@link ExtractionMetrics} of the running (or last) extraction
+	 */
+	public ExtractionMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the {@link ExtractionControl} to cancel or pause the extraction
+	 *         with. A cancelled extractor cannot be started again.
+	 */
+	public ExtractionControl getControl() {
+		return control;
+	}
+
 	// -- Main Methods --\\
 
-	public void extract() {
-		log.println("Vorbereitung...");
-		Thread.yield();
-		if (!EnsureEmpty(outputDir)) {
-			err.println("Target directory not empty, aborting");
-			return;
+	/**
+	 * Extracts and cleans all submissions. If the output directory holds the
+	 * {@link ExtractionJournal} of a cancelled run on the same archive, that run
+	 * is resumed and the submissions it finished are skipped.
+	 *
+	 * @return the {@link ExtractionResult}
+	 */
+	public ExtractionResult extract() {
+		try {
+			return extractSubmissions();
+		} catch (CancellationException e) {
+			return cancelled();
+		} finally {
+			if (journal != null) {
+				journal.close();
+				journal = null;
+			}
+			if (scratchSpace != null) {
+				scratchSpace.close();
+				scratchSpace = null;
+			}
+			solutionSnapshot = null;
+			if (projectCompiler != null) {
+				projectCompiler.close();
+				projectCompiler = null;
+			}
+			if (testRunner != null) {
+				testRunner.close();
+				testRunner = null;
+			}
+			closeEventLog();
+		}
+	}
+
+	private ExtractionResult extractSubmissions() {
+		startTime = System.currentTimeMillis();
+		metrics = new ExtractionMetrics();
+		phase("Vorbereitung");
+		try {
+			journal = ExtractionJournal.resume(outputDir, submissionFile);
+		} catch (IOException e) {
+			error("Journal could not be read, starting over: " + e.getMessage());
+		}
+		boolean resumed = journal != null;
+		if (!resumed) {
+			if (!EnsureEmpty(outputDir, clearOutputConfirmation,
+					eventLogFile == null ? "" : eventLogFile.getName())) {
+				error("Target directory not empty, aborting");
+				return abort("Target directory not empty", startTime);
+			}
+			try {
+				journal = ExtractionJournal.create(outputDir, submissionFile);
+			} catch (IOException e) {
+				error("Journal could not be written, the run cannot be resumed: " + e.getMessage());
+			}
+		}
+		openEventLog();
+		if (resumed) {
+			recoverJournal();
+		}
+		emit(Type.RUN_STARTED, "submissions", submissionFile.getAbsolutePath(), "output",
+				outputDir.getAbsolutePath(), "language", languageMode.name());
+		// Compile the instruction set before doing any heavy lifting
+		CompiledInstructionSet compiledInstructionSet = null;
+		if (fileList != null) {
+			try {
+				compiledInstructionSet = new InstructionSetCompiler(log, err).compile(fileList, languageMode);
+				info(compiledInstructionSet.describe());
+			} catch (Exception e) {
+				error("✗ Exception during Instruction Set reading: " + e.getMessage());
+				fileList = null;
+			}
 		}
 		// Give us space to work with
 		var tempDirs = ensureDirectories(outputDir, "tempCurrentSub", "tempAllSubs", "faulty");
 		File tempCurrentSubFolder = tempDirs.get(0);
 		File tempAllSubsFolder = tempDirs.get(1);
 		File faultyDir = tempDirs.get(2);
-		// Extract the main Zip File
-		extractFolder(submissionFile.getAbsolutePath(), tempAllSubsFolder.getAbsolutePath());
+		scratchSpace = new ScratchSpace(tempCurrentSubFolder);
+		if (scratchSpace.getMemoryRoot() != null) {
+			info("Arbeitsverzeichnis im Arbeitsspeicher: " + scratchSpace.getMemoryRoot());
+		} else if (scratchSpace.getMemoryProblem() != null) {
+			error(scratchSpace.getMemoryProblem());
+		}
+		// Extract the main Zip File, except for the submissions finished in an
+		// earlier attempt
+		ExtractionJournal resumedJournal = journal;
+		metrics.timed(Step.UNZIP, null,
+				() -> extractFolder(submissionFile.getAbsolutePath(), tempAllSubsFolder.getAbsolutePath(), metrics,
+						control,
+						resumedJournal == null ? null : entry -> !resumedJournal.isFinished(entry.split("/")[0])));
 		File solutionFolder = null;
 		switch (languageMode) {
 		case JAVA:
 			// Extract the Solution Project
-			extractFolder(solutionArchive.getAbsolutePath(), outputDir.getAbsolutePath());
+			metrics.timed(Step.UNZIP, null, () -> extractFolder(solutionArchive.getAbsolutePath(),
+					outputDir.getAbsolutePath(), metrics, control));
 			if (!Stream.of(outputDir.listFiles()).anyMatch(x -> x.getName().endsWith("SOLUTION"))) {
-				System.err.println("Faulty solution");
-				return;
+				error("Faulty solution");
+				return abort("Faulty solution", startTime);
 			}
 			solutionFolder = Stream.of(outputDir.listFiles()).filter(x -> x.getName().endsWith("SOLUTION")).findFirst()
 					.get();
-			if (solutionArchive != null) {
-				if (fileList != null) {
-					// Read instruction Set
-					try {
-						if (fileList.getName().endsWith(".json")) {
-							// New Fancy format
-							Gson gson = new Gson();
-							instructionSet = gson.fromJson(Files.readString(fileList.toPath()),
-									JavaActionSetModel.class);
-							JavaActionSetModel javaInstructionSet = (JavaActionSetModel) instructionSet;
-							javaInstructionSet.convertToAbsolutePaths(solutionFolder);
-							System.out.println(
-									"Files to Assert exist: " + javaInstructionSet.getAssert_exists().toString());
-							System.out.println("Files to Assert not exist: "
-									+ javaInstructionSet.getAssert_not_exists().toString());
-							System.out.println(
-									"Files to overwrite: " + javaInstructionSet.getOverwrite_always().toString());
-							System.out.println("Files to ignore: " + javaInstructionSet.getIgnore().toString());
-						} else if (fileList.getName().endsWith(".txt")) {
-							// Legacy Java Support
-							if (languageMode != LanguageMode.JAVA) {
-								throw new Error(
-										"Only Java has legacy instruction Set support. Please use the new .json Format");
-							}
-							String solPath = solutionFolder.getAbsolutePath();
-							ArrayList<Path> filesToAssertExist = new ArrayList<>();
-							ArrayList<Path> filesToOverwrite = new ArrayList<>();
-							ArrayList<Path> filesToCopyIfNotExist = new ArrayList<>();
-							ArrayList<Path> filesToAssertNotExist = new ArrayList<>();
-							ArrayList<Path> filesToIgnore = new ArrayList<>();
-							BufferedReader fileListReader = new BufferedReader(new FileReader(fileList));
-							String currentLine;
-							int lineNumber = 0;
-							FileReadMode currentMode = FileReadMode.ASSERT_EXISTS;
-							// Read File Line By Line
-							while ((currentLine = fileListReader.readLine()) != null) {
-								lineNumber++;
-								// Comments
-								if (currentLine.startsWith("#"))
-									continue;
-								// Mode switcher
-								if (currentLine.startsWith("[")) {
-									if (!currentLine.endsWith("]")) {
-										System.err.println("Faulty FileList Line:" + lineNumber);
-									}
-									switch (currentLine.toLowerCase()) { // Case insensitive matching
-									case "[assert_exists]":
-										currentMode = FileReadMode.ASSERT_EXISTS;
-										continue;
-									case "[overwrite_always]":
-										currentMode = FileReadMode.OVERWRITE_ALWAYS;
-										continue;
-									case "[copy_if_not_exists]":
-										currentMode = FileReadMode.COPY_IF_NOT_EXISTS;
-										continue;
-									case "[assert_not_exists]":
-										currentMode = FileReadMode.ASSERT_NOT_EXISTS;
-										continue;
-									case "[ignore]":
-										currentMode = FileReadMode.IGNORE;
-										continue;
-									default:
-										System.err.println("Unknown File Read Mode: " + currentLine);
-										continue;
-									}
-								}
-								// Reading
-								switch (currentMode) {
-								case ASSERT_EXISTS:
-									filesToAssertExist.add(Paths.get(solPath, currentLine));
-									break;
-								case ASSERT_NOT_EXISTS:
-									filesToAssertNotExist.add(Paths.get(solPath, currentLine));
-									break;
-								case OVERWRITE_ALWAYS:
-									filesToOverwrite.add(Paths.get(solPath, currentLine));
-									break;
-								case COPY_IF_NOT_EXISTS:
-									filesToCopyIfNotExist.add(Paths.get(solPath, currentLine));
-									break;
-								case IGNORE:
-									filesToIgnore.add(Paths.get(solPath, currentLine));
-									break;
-								default:
-									break;
-								}
-							}
-							instructionSet = new JavaActionSetModel();
-							JavaActionSetModel javaInstructionSet = (JavaActionSetModel) instructionSet;
-							javaInstructionSet.setAssert_exists(filesToAssertExist);
-							javaInstructionSet.setAssert_not_exists(filesToAssertNotExist);
-							javaInstructionSet.setOverwrite_always(filesToOverwrite);
-							javaInstructionSet.setIgnore(filesToIgnore);
-							System.out.println("Files to Assert exist: " + filesToAssertExist.toString());
-							System.out.println("Files to Assert not exist: " + filesToAssertNotExist.toString());
-							System.out.println("Files to overwrite: " + filesToOverwrite.toString());
-							System.out.println("Files to ignore: " + filesToIgnore.toString());
-
-							// Close the input stream
-							fileListReader.close();
-							// filesToEvaluate = (ArrayList<Path>) Files.lines(fileList.toPath()).filter(x
-							// -> !x.startsWith("#"))
-							// .map(x -> Paths.get(solPath,
-							// x).toAbsolutePath()).collect(Collectors.toList());
-
-						} else {
-							throw new Error("File List format invalid");
-						}
-
-					} catch (Exception e) {
-						err.print("Exception durung Java JSON Reading.");
-						e.printStackTrace();
-						// e.printStackTrace();
-						fileList = null;
+			solutionRoot = solutionFolder.toPath().toAbsolutePath();
+			if (compiledInstructionSet != null) {
+				instructionSet = compiledInstructionSet.toActionSetModel(solutionFolder);
+				entryFilter = new EntryFilter(((JavaActionSetModel) instructionSet).getExclude_entries());
+			}
+			try {
+				solutionSnapshot = SolutionSnapshot.load(solutionFolder);
+			} catch (IOException e) {
+				error("✗ Solution could not be read: " + e.getMessage());
+				return abort("Solution could not be read", startTime);
+			}
+			sharedLibraries = null;
+			if (instructionSet != null && ((JavaActionSetModel) instructionSet).isShared_libraries()) {
+				try {
+					sharedLibraries = SharedLibraries.create(solutionSnapshot, outputDir);
+					info("Bibliotheken der Lösung liegen einmal in " + sharedLibraries.getProjectName() + ": "
+							+ sharedLibraries.getLibraries());
+				} catch (IOException e) {
+					error("✗ Shared libraries could not be created, every project keeps its own: " + e.getMessage());
+				}
+			}
+			uncompilableCount.set(0);
+			forbiddenCodeCount.set(0);
+			codeScanner = instructionSet == null ? null
+					: new JavaCodeScanner(((JavaActionSetModel) instructionSet).getForbidden_code());
+			if (instructionSet != null && ((JavaActionSetModel) instructionSet).shouldCompile()) {
+				try {
+					projectCompiler = new ProjectCompiler(solutionFolder,
+							((JavaActionSetModel) instructionSet).shouldWrite_class_files());
+					info("Projekte werden kompiliert, Classpath: " + projectCompiler.getClasspath());
+					for (String library : projectCompiler.getUnusableLibraries()) {
+						error("Warning: library of the solution is left off the classpath: " + library);
 					}
+					if (((JavaActionSetModel) instructionSet).isDo_tests()) {
+						testRunner = new JavaTestRunner(projectCompiler.getClasspath(),
+								((JavaActionSetModel) instructionSet).getTest_timeout_seconds() * 1000L);
+					}
+				} catch (IOException | IllegalStateException e) {
+					error("✗ Projects cannot be compiled: " + e.getMessage());
 				}
 			}
 			break;
@@ -248,87 +407,199 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 			try {
 				solutionFolder = Files
 						.copy(solutionArchive.toPath().toAbsolutePath(),
-								Paths.get(outputDir.toPath().toAbsolutePath().toString(), solutionArchive.getName()))
+								Paths.get(outputDir.toPath().toAbsolutePath().toString(), solutionArchive.getName()),
+								StandardCopyOption.REPLACE_EXISTING)
 						.toFile();
-				if (fileList != null) {
-					// Read instruction Set
-					try {
-						if (fileList.getName().endsWith(".json")) {
-							// New Fancy format
-							Gson gson = new Gson();
-							instructionSet = gson.fromJson(Files.readString(fileList.toPath()),
-									RacketActionSetModel.class);
-							RacketActionSetModel racketInstructionSet = (RacketActionSetModel) instructionSet;
-							System.out.println("Extraction Settings:");
-							System.out.println(
-									"- Should remove student tests:" + racketInstructionSet.isRemove_student_tests());
-							System.out.println("- Should fix naming convention:"
-									+ racketInstructionSet.shouldFix_naming_convention());
-							System.out.println("- Should do tests:" + racketInstructionSet.isDo_tests());
-						} else {
-							throw new Error("✗ File List format invalid");
-						}
-
-					} catch (Exception e) {
-						err.print("Exception durung Racket JSON Reading:" + e.getMessage());
-						// e.printStackTrace();
-						fileList = null;
-					}
+				if (compiledInstructionSet != null) {
+					RacketActionSetModel racketInstructionSet = (RacketActionSetModel) compiledInstructionSet
+							.toActionSetModel(solutionFolder);
+					instructionSet = racketInstructionSet;
+					info("Extraction Settings:");
+					info(
+							"- Should remove student tests:" + racketInstructionSet.isRemove_student_tests());
+					info(
+							"- Should fix naming convention:" + racketInstructionSet.shouldFix_naming_convention());
+					info("- Should do tests:" + racketInstructionSet.isDo_tests());
 				}
 			} catch (IOException e1) {
-				System.err.println("✗ Unable to copy soluition to target: " + e1.getMessage());
+				error("✗ Unable to copy soluition to target: " + e1.getMessage());
 				// e1.printStackTrace();
-				return;
+				return abort("Unable to copy solution to target", startTime);
 			}
 			raco = new RacoAdapter(outputDir);
+			raco.setControl(control);
 			raco.verify();
 		}
 
 		// Extract The individual submissions
-		int fileCount = 0;
-		int successfullCount = 0;
-		var submissions = tempAllSubsFolder.listFiles();
+		int fileCount = journal == null ? 0 : journal.getFinishedCount();
+		int successfullCount = journal == null ? 0 : journal.getPublishedCount();
+		// Names the file system cannot represent are only skipped here, after they
+		// were extracted again
+		var submissions = Stream.of(tempAllSubsFolder.listFiles())
+				.filter(x -> journal == null || !journal.isFinished(x.getName())).toArray(File[]::new);
+		int submissionCount = fileCount + submissions.length;
 		if (!verifyDownloadArchiveStructure(submissions)) {
-			err.println("✗ Die Option \"Als Verzeichnis Herunterladen\" wurde nicht verwendet. Breche ab");
-			return;
+			error("✗ Die Option \"Als Verzeichnis Herunterladen\" wurde nicht verwendet. Breche ab");
+			return abort("Submissions were not downloaded as directories", startTime);
 		} else {
-			System.out.println("✓ Ordnerstruktur verifiziert");
+			info("✓ Ordnerstruktur verifiziert");
 		}
-		if (pb != null) {
-			pb.setMinimum(0);
-			pb.setMaximum(submissions.length);
-			pb.setValue(0);
-			pb.setString(String.format("%s/%s Abgaben fertig", pb.getValue(), pb.getMaximum()));
-			pb.setEnabled(true);
+		for (ExtractionListener listener : listeners) {
+			listener.extractionStarted(submissionCount);
+			listener.progressChanged(fileCount, submissionCount);
 		}
-		log.println("Extracting Projects...");
+		phase("Extracting Projects");
 
 		// -- Individual submissions --\\
-		for (File submission : submissions) {
-			fileCount++;
+		projectNames = new ProjectNameRegistry(outputDir);
+		AtomicInteger doneCount = new AtomicInteger(fileCount);
+		AtomicInteger successfulCount = new AtomicInteger(successfullCount);
+		int parallelism = languageMode == LanguageMode.JAVA ? Math.min(workers, Math.max(submissions.length, 1)) : 1;
+		if (parallelism == 1) {
+			for (File submission : submissions) {
+				processSubmission(submission, faultyDir, tempCurrentSubFolder, solutionFolder, doneCount,
+						successfulCount, submissionCount);
+			}
+		} else {
+			info(parallelism + " Abgaben werden parallel bearbeitet");
+			File solution = solutionFolder;
+			processInParallel(submissions, parallelism, submission -> processSubmission(submission, faultyDir,
+					tempCurrentSubFolder, solution, doneCount, successfulCount, submissionCount));
+		}
+		fileCount = doneCount.get();
+		successfullCount = successfulCount.get();
+		phase("Cleanup");
+		removeFolders(tempCurrentSubFolder, tempAllSubsFolder);
+		if (journal != null) {
+			journal.delete();
+			journal = null;
+		}
+		info("Done :)");
+		info(String.format("Converted %s file(s):\n%s sucessfull and %s faulty", fileCount, successfullCount,
+				fileCount - successfullCount));
+		if (codeScanner != null && !codeScanner.isEmpty()) {
+			info(forbiddenCodeCount.get() + " Projekt(e) mit verbotenem Code");
+		}
+		if (projectCompiler != null) {
+			info(uncompilableCount.get() + " Projekt(e) kompilieren nicht");
+		}
+		return finish(new ExtractionResult(fileCount, successfullCount, System.currentTimeMillis() - startTime));
+	}
+
+	/**
+	 * Processes a single submission from start to end and journals the outcome
+	 *
+	 * @param submission           the Submission Directory
+	 * @param faultyDir            the directory to move faulty submissions to
+	 * @param tempCurrentSubFolder the shared temporary folder
+	 * @param solutionFolder       the solution folder or file
+	 * @param doneCount            the number of finished submissions
+	 * @param successfulCount      the number of successful submissions
+	 * @param submissionCount      the number of all submissions
+	 * @throws CancellationException if the extraction was cancelled
+	 */
+	private void processSubmission(File submission, File faultyDir, File tempCurrentSubFolder, File solutionFolder,
+			AtomicInteger doneCount, AtomicInteger successfulCount, int submissionCount) {
+		control.checkpoint();
+		String submittorName = submission.getName().split("_")[0];
+		long submissionStart = System.nanoTime();
+		long submissionBytes = sizeOf(submission);
+		currentSubmission.set(submittorName);
+		for (ExtractionListener listener : listeners) {
+			listener.submissionStarted(submittorName);
+		}
+		File scratchDir = allocateScratch(submission, submissionBytes, tempCurrentSubFolder);
+		emit(Type.SUBMISSION_STARTED, "directory", submission.getName(), "bytes", submissionBytes, "inMemory",
+				scratchDir != null && scratchSpace.isInMemory(scratchDir));
+		record(submission.getName(), State.STARTED, null);
+		boolean successful = false;
+		if (scratchDir == null) {
+			moveFolderContent(submission, faultyDir);
+		} else {
 			switch (languageMode) {
 			case JAVA:
-				if (processJavaSubmission(submission, faultyDir, tempCurrentSubFolder, solutionFolder)) {
-					successfullCount++;
-				}
+				successful = processJavaSubmission(submission, faultyDir, scratchDir, solutionFolder);
 				break;
 			case RACKET:
-
-				if (processRacketSubmission(submission, faultyDir, tempCurrentSubFolder, solutionFolder)) {
-					successfullCount++;
-				}
+				successful = processRacketSubmission(submission, faultyDir, scratchDir, solutionFolder);
 				break;
 			}
-			if (pb != null) {
-				pb.setValue(fileCount);
-				pb.setString(String.format("%s/%s Abgaben fertig", pb.getValue(), pb.getMaximum()));
+			scratchSpace.release(scratchDir);
+		}
+		// A failure during cancellation may have been caused by it (e.g. a
+		// destroyed raco process), so the submission is redone on resume
+		if (!successful && control.isCancelled()) {
+			throw new CancellationException();
+		}
+		ExtractionJournal currentJournal = journal;
+		if (successful) {
+			successfulCount.incrementAndGet();
+			record(submission.getName(), State.PUBLISHED,
+					currentJournal == null ? null : currentJournal.getProject(submission.getName()));
+		} else {
+			record(submission.getName(), State.FAULTY, null);
+		}
+		long submissionNanos = System.nanoTime() - submissionStart;
+		metrics.submissionFinished(submittorName, submissionNanos, successful, submissionBytes);
+		emit(Type.SUBMISSION_FINISHED, "successful", successful, "durationMillis", submissionNanos / 1_000_000);
+		currentSubmission.remove();
+		int done = doneCount.incrementAndGet();
+		for (ExtractionListener listener : listeners) {
+			listener.submissionFinished(submittorName, successful);
+			listener.progressChanged(done, submissionCount);
+		}
+	}
+
+	/**
+	 * Processes submissions on several threads. If one of them fails, the
+	 * submissions not started yet are dropped and the failure is rethrown once
+	 * the running ones are done.
+	 *
+	 * @param submissions the Submission Directories
+	 * @param parallelism the number of threads
+	 * @param task        processes a single submission
+	 * @throws CancellationException if the extraction was cancelled
+	 */
+	private void processInParallel(File[] submissions, int parallelism, Consumer<File> task) {
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "project_cleaner-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (File submission : submissions) {
+				futures.add(executor.submit(() -> task.accept(submission)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			control.cancel();
+			throw new CancellationException("Interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
 			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
-		log.println("Cleanup...");
-		removeFolders(tempCurrentSubFolder, tempAllSubsFolder);
-		log.println("Done :)");
-		log.println(String.format("Converted %s file(s):\n%s sucessfull and %s faulty", fileCount, successfullCount,
-				fileCount - successfullCount));
 	}
 
 	/**
@@ -360,17 +631,17 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 	private boolean processJavaSubmission(File submission, File faultyDir, File tempCurrentSubFolder,
 			File solutionFolder) {
 		if (!submission.isDirectory() || submission.listFiles().length != 1) {
-			err.println("Cannot Extract submission " + submission.getName()
+			error("Cannot Extract submission " + submission.getName()
 					+ " (maybe you didn't choose the correct Language mode?)");
 			moveFolderContent(submission, faultyDir);
 			return false;
 		}
 		String submittorName = submission.getName().split("_")[0];
-		log.println("Extracting Submission from " + submittorName);
+		info("Extracting Submission from " + submittorName);
 		// Extract current Submission to tempCurrentSubFolder
 		File submissionZip = submission.listFiles()[0];
 		if (!submissionZip.getName().endsWith(".zip")) {
-			err.println("Cannot Extract submission " + submission.getName()
+			error("Cannot Extract submission " + submission.getName()
 					+ " (Not a Zip, maybe you didn't download compressed submissions?)");
 			moveFolderContent(submission, faultyDir);
 			return false;
@@ -384,56 +655,56 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		 * submission.getName()); moveFolderContent(submission, faultyDir); continue; }
 		 */
 		clearFolder(tempCurrentSubFolder);
-		extractFolder(submissionZip.getAbsolutePath(), tempCurrentSubFolder.getAbsolutePath());
+		ArchiveExtractor archiveExtractor = new ArchiveExtractor();
+		archiveExtractor.setMetrics(metrics);
+		archiveExtractor.setControl(control);
+		archiveExtractor.setLimits(limits);
+		archiveExtractor.setEntryFilter(entryFilter);
+		try {
+			metrics.timed(Step.UNZIP, submittorName, () -> {
+				try (ZipFile zip = new ZipFile(submissionZip)) {
+					// The layout is read from the central directory, so the project ends up in
+					// its folder right away
+					ProjectLayout layout = ProjectLayout.of(zip, entryFilter);
+					if (layout.isMissingProjectFolder()) {
+						error("Warning: Submission of " + submittorName + " is not in a Subfolder. Creating one");
+						String hausuebungsprefix = instructionSet == null ? "HXX_"
+								: String.format("H%02d_", instructionSet.getSheet_number());
+						archiveExtractor.setPrefixRemap("", hausuebungsprefix + toProjectName(submittorName) + "/");
+						// The project starts at the top level, not one folder below
+						archiveExtractor.setEntryFilter(entryFilter.withoutProjectFolder());
+					}
+					archiveExtractor.extract(zip, tempCurrentSubFolder);
+				}
+			});
+		} catch (ExtractionLimitException e) {
+			error("✗ Abgabe von " + submittorName + " abgelehnt: " + e.getMessage());
+			emit(Type.LIMIT_EXCEEDED, "archive", submissionZip.getName(), "reason", e.getMessage());
+			moveFolderContent(submission, faultyDir);
+			FileUtils.createTextFile(faultyDir.toPath().resolve(submissionZip.getName() + ".reason.txt"),
+					e.getMessage() + System.lineSeparator());
+			return false;
+		} catch (CancellationException e) {
+			throw e;
+		} catch (IOException | RuntimeException e) {
+			// As before, whatever could be extracted is checked below
+			error("ERROR: " + e.getMessage());
+		}
+		if (archiveExtractor.getSkippedEntries() > 0) {
+			info("Skipped " + archiveExtractor.getSkippedEntries() + " excluded entries (build output, IDE and OS files)");
+		}
 		// Naming convention check 2
 		if (tempCurrentSubFolder.listFiles().length == 0) {
-			err.println("Abgabeverzeichnis von " + submittorName + " leer: " + submission.getName());
+			error("Abgabeverzeichnis von " + submittorName + " leer: " + submission.getName());
 			moveFolderContent(submission, faultyDir);
 			return false;
 		}
-		if (Stream.of(tempCurrentSubFolder.listFiles())
-				.anyMatch(x -> x.isDirectory() && x.getName().equals("__MACOSX"))) {
-			System.out.println("removing __MACOSX folder");
-			File macosxFolder = Stream.of(tempCurrentSubFolder.listFiles())
-					.filter(x -> x.isDirectory() && x.getName().equals("__MACOSX")).findFirst().get();
-			clearFolder(macosxFolder);
-			if (macosxFolder.delete()) {
-				// System.out.println("Removed" + " __MACOSX-Folder");
-			} else {
-				System.out.println("Cannot remove" + " __MACOSX-Folder");
-			}
-		}
-		if (tempCurrentSubFolder.listFiles().length != 1) {
-			if (Stream.of(tempCurrentSubFolder.listFiles())
-					.anyMatch(x -> x.getName().equals(".project") || x.getName().equals("pom.xml"))) {
-				System.err.println("Warning: Submission of " + submittorName + " is not in a Subfolder. Creating one");
-				JavaActionSetModel javaInstructionSet = (JavaActionSetModel) instructionSet;
-				// Get correct project name
-				String newProjectName = submittorName.replace(" ", "_").replace("ä", "ae").replace("ö", "oe")
-						.replace("ü", "ue").replace("ß", "ss");
-				String hausuebungsprefix = String.format("H%02d_", javaInstructionSet.getSheet_number());
-				String folder_Name = hausuebungsprefix + newProjectName;
-				File newdir = FileUtils.ensureDirectories(tempCurrentSubFolder, folder_Name).get(0);
-				// Move everything except for new dir
-				for (File file : tempCurrentSubFolder.listFiles()) {
-					if (file.equals(newdir)) {
-						continue;
-					}
-					if (file.isDirectory()) {
-						moveFolderContent(file, ensureDirectories(newdir, file.getName()).get(0));
-						file.delete();
-					} else {
-						try {
-							Files.move(file.toPath(), Paths.get(newdir.getAbsolutePath(), file.getName()),
-									StandardCopyOption.REPLACE_EXISTING);
-						} catch (IOException e) {
-							System.err.println(e.getMessage());
-						}
-					}
-				}
-			}
+		File submissionProjectFolder = selectProjectFolder(tempCurrentSubFolder, submittorName);
+		if (submissionProjectFolder == null) {
+			error("Kein Projektordner in der Abgabe von " + submittorName + ": " + submission.getName());
+			moveFolderContent(submission, faultyDir);
+			return false;
 		}
-		File submissionProjectFolder = tempCurrentSubFolder.listFiles()[0];
 		/*
 		 * Unnecessary if (!submissionProjectFolder.getName().matches(
 		 * "H[0-9]+_(?!(?i)NACHNAME_VORNAME(?-i))[a-zA-Z\\-]+(_[a-zA-Z\\-]+)+")) {
@@ -447,32 +718,203 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 			return false;
 		}
 		// Project is ready to import, make sure foldername doesn't exist already
-		if (Stream.of(outputDir.listFiles())
-				.anyMatch(x -> x.isDirectory() && x.getName().equals(submissionProjectFolder.getName()))) {
-			int existCounter = 1;
-			err.println("Folder named " + submissionProjectFolder.getName() + " already exists. renaming to: "
-					+ submissionProjectFolder.getName() + "(" + existCounter + ")");
-			while (true) {
-				int curExistsC = existCounter;
-				if (!Stream.of(outputDir.listFiles()).anyMatch(x -> x.isDirectory()
-						&& x.getName().equals(submissionProjectFolder.getName() + "(" + curExistsC + ")"))) {
-					break;
-				}
-				existCounter++;
-				err.println("Folder named " + submissionProjectFolder.getName() + "(" + (curExistsC - 1) + ")"
-						+ " already exists. renaming to: " + submissionProjectFolder.getName() + "(" + (existCounter)
-						+ ")");
-			}
-			File newProjectFolder = Paths.get(tempCurrentSubFolder.getAbsolutePath(),
-					submissionProjectFolder.getName() + "(" + existCounter + ")").toFile();
-			if (!submissionProjectFolder.renameTo(newProjectFolder)) {
-				err.println("Could not rename, moving to faulty");
+		String projectName = projectNames.claim(submissionProjectFolder.getName());
+		if (!projectName.equals(submissionProjectFolder.getName())) {
+			error("Folder named " + submissionProjectFolder.getName() + " already exists. renaming to: "
+					+ projectName);
+			if (!submissionProjectFolder.renameTo(new File(tempCurrentSubFolder, projectName))) {
+				projectNames.release(projectName);
+				error("Could not rename, moving to faulty");
 				moveFolderContent(tempCurrentSubFolder, faultyDir);
 				return false;
 			}
 		}
-		moveFolderContent(tempCurrentSubFolder, outputDir);
-		return true;
+		if (codeScanner != null && !codeScanner.isEmpty()) {
+			scanProject(new File(tempCurrentSubFolder, projectName), submittorName);
+		}
+		if (projectCompiler != null) {
+			ProjectCompiler.Result compiled = compileProject(new File(tempCurrentSubFolder, projectName),
+					submittorName);
+			if (testRunner != null && compiled != null && compiled.isSuccessful()) {
+				runSolutionTests(new File(tempCurrentSubFolder, projectName), compiled, submittorName);
+			}
+		}
+		if (sharedLibraries != null) {
+			// After compiling, which takes the libraries from the solution anyway
+			try {
+				File projectFolder = new File(tempCurrentSubFolder, projectName);
+				metrics.timed(Step.PROJECT_FILE, submittorName, () -> sharedLibraries.apply(projectFolder));
+			} catch (IOException | RuntimeException e) {
+				error("✗ Could not link the shared libraries in " + projectName + ": " + e.getMessage());
+			}
+		}
+		boolean published = metrics.timed(Step.MOVE, submittorName,
+				() -> publish(submission, new File(tempCurrentSubFolder, projectName)));
+		if (!published) {
+			error("Could not publish the project, moving to faulty");
+			moveFolderContent(tempCurrentSubFolder, faultyDir);
+		}
+		return published;
+	}
+
+	/**
+	 * Scans the Java sources of a project for forbidden code. Sources that are
+	 * identical to the solution are skipped, so only code of the student is
+	 * reported.
+	 *
+	 * @param projectFolder the project folder
+	 * @param submittorName the name of the submittor
+	 */
+	private void scanProject(File projectFolder, String submittorName) {
+		List<JavaCodeScanner.Hit> hits;
+		try {
+			hits = metrics.timed(Step.SCAN, submittorName, () -> scanSources(projectFolder, codeScanner));
+		} catch (IOException | UncheckedIOException e) {
+			error("✗ Could not scan " + projectFolder.getName() + ": " + e.getMessage());
+			return;
+		}
+		if (hits.isEmpty()) {
+			return;
+		}
+		forbiddenCodeCount.incrementAndGet();
+		// One message, so parallel workers cannot tear it apart
+		error("✗ Verbotener Code bei " + submittorName + ":" + hits.stream().map(x -> "\n  " + x)
+				.collect(Collectors.joining()));
+		for (JavaCodeScanner.Hit hit : hits) {
+			emit(Type.FORBIDDEN_CODE, "rule", hit.getRule(), "path", hit.getPath(), "line", hit.getLine(), "column",
+					hit.getColumn());
+		}
+	}
+
+	/**
+	 * @param relativePath the path of a File relative to the project
+	 * @param file         the File in the project
+	 * @return true if the File is identical to the one in the solution (false if
+	 *         it cannot be read)
+	 */
+	private boolean isSolutionFile(Path relativePath, Path file) {
+		SolutionSnapshot.Node solutionFile = solutionSnapshot == null ? null : solutionSnapshot.find(relativePath);
+		try {
+			return solutionFile != null && !solutionFile.isDirectory() && solutionFile.contentEquals(file);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Scans the Java sources of a project that differ from the solution
+	 *
+	 * @param projectFolder the project folder
+	 * @param scanner       the {@link JavaCodeScanner}
+	 * @return the hits
+	 * @throws IOException if the project cannot be read
+	 */
+	private List<JavaCodeScanner.Hit> scanSources(File projectFolder, JavaCodeScanner scanner) throws IOException {
+		Path project = projectFolder.toPath();
+		List<JavaCodeScanner.Hit> hits = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(project)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				if (!file.getFileName().toString().endsWith(".java") || !Files.isRegularFile(file)) {
+					continue;
+				}
+				Path relativePath = project.relativize(file);
+				if (isSolutionFile(relativePath, file)) {
+					continue;
+				}
+				hits.addAll(scanner.scan(file, relativePath.toString().replace(File.separatorChar, '/')));
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Compiles a project before it is published. A project that does not compile
+	 * is published anyway, the problems are only reported.
+	 *
+	 * @param projectFolder the project folder
+	 * @param submittorName the name of the submittor
+	 * @return the {@link ProjectCompiler.Result} or null if the compiler failed
+	 */
+	private ProjectCompiler.Result compileProject(File projectFolder, String submittorName) {
+		ProjectCompiler.Result result;
+		try {
+			result = metrics.timed(Step.COMPILE, submittorName, () -> projectCompiler.compile(projectFolder));
+		} catch (IOException | RuntimeException e) {
+			error("✗ Could not compile " + projectFolder.getName() + ": " + e.getMessage());
+			uncompilableCount.incrementAndGet();
+			return null;
+		}
+		emit(Type.COMPILE_RESULT, "successful", result.isSuccessful(), "files", result.getFileCount(), "errors",
+				result.getErrorCount(), "problems", result.getProblems());
+		if (result.isSuccessful()) {
+			info("✓ " + result.getFileCount() + " Datei(en) kompiliert");
+			return result;
+		}
+		uncompilableCount.incrementAndGet();
+		error("✗ Projekt von " + submittorName + " kompiliert nicht (" + result.getErrorCount() + " Fehler):");
+		result.getProblems().stream().filter(x -> x.getKind().equals("error")).limit(MAX_LOGGED_PROBLEMS)
+				.forEach(x -> error("  " + x));
+		return result;
+	}
+
+	/**
+	 * Runs the tests of the solution against a compiled project. Only test
+	 * classes whose source comes from the solution are run, not those of the
+	 * student. Projects with code that could end the JVM are not tested, and no
+	 * project is once too many timed out tests could not be stopped.
+	 *
+	 * @param projectFolder the project folder
+	 * @param compiled      the compiled project
+	 * @param submittorName the name of the submittor
+	 */
+	private void runSolutionTests(File projectFolder, ProjectCompiler.Result compiled, String submittorName) {
+		if (testRunner.isExhausted()) {
+			error("✗ Tests von " + submittorName + " nicht ausgeführt: " + testRunner.getAbandonedThreadCount()
+					+ " Tests laufen nach ihrem Timeout weiter");
+			return;
+		}
+		// Only the classes of the student are checked, the solution is trusted (its
+		// tests usually need reflection)
+		Map<String, byte[]> studentClasses = new HashMap<>();
+		Map<String, Boolean> solutionSources = new HashMap<>();
+		for (Map.Entry<String, byte[]> classFile : compiled.getClassFiles().entrySet()) {
+			String source = compiled.getSourcePath(classFile.getKey());
+			if (source == null || !solutionSources.computeIfAbsent(source,
+					x -> isSolutionFile(Paths.get(x), projectFolder.toPath().resolve(x)))) {
+				studentClasses.put(classFile.getKey(), classFile.getValue());
+			}
+		}
+		List<String> exits = JavaTestRunner.findJvmExits(studentClasses);
+		if (!exits.isEmpty()) {
+			error("✗ Tests von " + submittorName + " nicht ausgeführt, der Code kann die JVM beenden:"
+					+ exits.stream().map(x -> "\n  " + x).collect(Collectors.joining()));
+			return;
+		}
+		List<String> testClasses = new ArrayList<>();
+		for (String className : compiled.getClassFiles().keySet()) {
+			String source = compiled.getSourcePath(className);
+			if (!className.contains("$") && source != null && Files.isRegularFile(solutionRoot.resolve(source))) {
+				testClasses.add(className);
+			}
+		}
+		List<JavaTestResult> results = metrics.timed(Step.TEST, submittorName,
+				() -> testRunner.run(compiled.getClassFiles(), testClasses));
+		if (results.isEmpty()) {
+			return;
+		}
+		info("❯  running Tests...");
+		int passed = 0;
+		for (JavaTestResult result : results) {
+			emit(Type.TEST_RESULT, "class", result.getTestClass(), "test", result.getTest(), "passed",
+					result.hasPassed(), "status", result.getStatus().name(), "message", result.getMessage(),
+					"durationMillis", result.getDurationMillis());
+			if (result.hasPassed()) {
+				passed++;
+			} else {
+				error("✗ " + result);
+			}
+		}
+		info(String.format("Passed %s of %s tests", passed, results.size()));
 	}
 
 	/**
@@ -488,7 +930,7 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 	private boolean processRacketSubmission(File submission, File faultyDir, File tempCurrentSubFolder,
 			File solutionFile) {
 		if (!submission.isDirectory()) {
-			err.println("✗ Cannot Extract submission " + submission.getName()
+			error("✗ Cannot Extract submission " + submission.getName()
 					+ " (maybe you didn't choose the correct Language mode?)");
 			moveFolderContent(submission, faultyDir);
 			return false;
@@ -496,20 +938,20 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		String submittorName = submission.getName().split("_")[0];
 		RacketActionSetModel racketInstructionSet = (RacketActionSetModel) instructionSet;
 		if (racketInstructionSet.isDo_tests()) {
-			log.println("------------------------------------------------------------------------------");
-			log.println("Submission from: " + submittorName);
-			log.println("------------------------------------------------------------------------------");
+			info("------------------------------------------------------------------------------");
+			info("Submission from: " + submittorName);
+			info("------------------------------------------------------------------------------");
 
 		} else {
-			log.println("Extracting Submission from: " + submittorName);
+			info("Extracting Submission from: " + submittorName);
 		}
 		// Move current Submission to tempCurrentSubFolder
 		clearFolder(tempCurrentSubFolder);
 		copyFolderContent(submission, tempCurrentSubFolder);
 		// Naming convention check 2
 		if (tempCurrentSubFolder.listFiles().length == 0) {
-			err.println("✗ Abgabeverzeichnis von " + submittorName + " leer: " + submission.getName());
-			System.err.println("Moving to faultyDir...");
+			error("✗ Abgabeverzeichnis von " + submittorName + " leer: " + submission.getName());
+			error("Moving to faultyDir...");
 			moveFolderContent(tempCurrentSubFolder, faultyDir);
 			return false;
 		}
@@ -523,15 +965,16 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		// Convert WXME-Submissions
 		if (submissionContent.startsWith("#reader(lib\"read.ss\"\"wxme\")WXME0108 ## ")
 				|| submissionContent.startsWith("#reader(lib\"read.ss\"\"wxme\")WXME0109 ## ")) {
-			System.out.print("Converting WXME-Submission...");
-			submissionProjectFile = raco.convertWxmeSubmission(submissionProjectFile.toFile()).toPath();
+			info("Converting WXME-Submission...");
+			File wxmeFile = submissionProjectFile.toFile();
+			submissionProjectFile = metrics.timed(Step.RACO, submittorName,
+					() -> raco.convertWxmeSubmission(wxmeFile).toPath());
 			try {
 				submissionContent = Files.readString(submissionProjectFile);
 			} catch (IOException e) {
-				System.out.println();
-				e.printStackTrace();
+				error("✗ Could not read converted WXME-Submission: " + e.getMessage());
 			}
-			System.out.println("Done");
+			info("Done");
 		}
 		// Testing Phase
 		String projectName = submissionProjectFile.toFile().getName();
@@ -539,7 +982,7 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		if (racketInstructionSet.shouldCheck_naming_convention()
 				&& !checkRacketNamingConvention(submissionProjectFile.toFile().getName(),
 						submissionContentWithoutComments, submittorName)) {
-			System.err.println("Moving to faultyDir...");
+			error("Moving to faultyDir...");
 			moveFolderContent(submission, faultyDir);
 			return false;
 		}
@@ -549,8 +992,10 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 				moveFolderContent(submission, faultyDir);
 				return false;
 			}
-			if (!raco.racoTest(codeWithoutTestsAndComments).ok()) {
-				System.err.println(
+			boolean runsWithoutTests = metrics.timed(Step.RACO, submittorName,
+					() -> raco.racoTest(codeWithoutTestsAndComments).ok());
+			if (!runsWithoutTests) {
+				error(
 						"✗ The code of the student does not run successfully without tests, so it cannot be tested automatically.");
 				moveFolderContent(submission, faultyDir);
 				return false;
@@ -562,15 +1007,15 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 			for (var task : tasks) {
 				tests.addAll(task.getTests());
 			}
-			System.out.print("❯  running Tests...");
-			var results = raco.racoTest(codeWithoutTestsAndComments, tests);
-			System.out.println("Done");
+			info("❯  running Tests...");
+			ArrayList<RacketTestResult> results = metrics.timed(Step.RACO, submittorName,
+					() -> raco.racoTest(codeWithoutTestsAndComments, tests));
 			for (RacketTask task : tasks) {
-				System.out.println();
-				System.out.println(task.getTitle());
-				System.out.println("-----------------------------------------------------");
+				info("");
+				info(task.getTitle());
+				info("-----------------------------------------------------");
 				if (task.getAnnotation() != null) {
-					System.out.println(task.getAnnotation());
+					info(task.getAnnotation());
 				}
 				for (RacketTest test : task.getTests()) {
 					testCount++;
@@ -583,43 +1028,51 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 					RacketTestResult result = results.stream().filter(x -> x.getTest().equals(test)).findFirst()
 							.orElse(null);
 					if (result == null) {
-						System.err.println("Something went wrong with the quick testing method.");
+						error("Something went wrong with the quick testing method.");
 						continue;
 					}
+					emit(Type.TEST_RESULT, "task", task.getTitle(), "test", test.getTitle(), "passed",
+							result.hasPassed());
 					if (result.hasPassed()) {
 						passed++;
-						System.out.println("✓ " + test.getTitle() + " has passed");
+						info("✓ " + test.getTitle() + " has passed");
 					} else {
-						System.err.println("✗ Test \"" + test.getTitle() + "\" did not pass:");
-						System.err.println(result.getResultString());
+						error("✗ Test \"" + test.getTitle() + "\" did not pass:");
+						error(result.getResultString());
 					}
 				}
 			}
 
-			System.out.format("Passed %s of %s tests \n", passed, testCount);
+			info(String.format("Passed %s of %s tests", passed, testCount));
 //			System.err.println("✗ Automated testing is planned but not yet implemented.");
 		}
 		// Project is ready to import, make sure fileName doesn't exist already
 //		Path finalProjectPath = submissionProjectFile.toAbsolutePath();
-		if (Stream.of(outputDir.listFiles()).anyMatch(x -> !x.isDirectory() && x.getName().equals(projectName))) {
-			err.println("Project File  named " + submissionProjectFile.toFile().getName()
-					+ " already exists. renaming to: " + projectName + "(1)");
-			File newProjectFile = Paths.get(tempCurrentSubFolder.getAbsolutePath(), projectName + "(1)").toFile();
+		String uniqueName = projectNames.claim(projectName);
+		if (!uniqueName.equals(projectName)) {
+			error("Project File  named " + submissionProjectFile.toFile().getName()
+					+ " already exists. renaming to: " + uniqueName);
+			File newProjectFile = Paths.get(tempCurrentSubFolder.getAbsolutePath(), uniqueName).toFile();
 			if (!submissionProjectFile.toFile().renameTo(newProjectFile)) {
-				err.println("Could not rename, moving to faulty");
-				System.err.println("Moving to faultyDir...");
+				projectNames.release(uniqueName);
+				error("Could not rename, moving to faulty");
+				error("Moving to faultyDir...");
 				moveFolderContent(submission, faultyDir);
 				return false;
 			}
-//			finalProjectPath = newProjectFile.toPath().toAbsolutePath();
 		}
 		// Move Project to main Target dir
 		try {
 //			Files.copy(finalProjectPath, outputDir.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			moveFolderContent(tempCurrentSubFolder, outputDir);
-			return true;
+			File project = new File(tempCurrentSubFolder, uniqueName);
+			boolean published = metrics.timed(Step.MOVE, submittorName, () -> publish(submission, project));
+			if (!published) {
+				error("✗ Could not move the fixed Project to target directory");
+				moveFolderContent(tempCurrentSubFolder, faultyDir);
+			}
+			return published;
 		} catch (Exception e) {
-			System.err.println("✗ Could not move the fixed Project to target directory");
+			error("✗ Could not move the fixed Project to target directory");
 			e.printStackTrace();
 			moveFolderContent(tempCurrentSubFolder, faultyDir);
 			return false;
@@ -629,45 +1082,47 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 	private boolean checkRacketNamingConvention(String fileName, String fileContent, String submittorName) {
 		// Filename
 		if (languageMode != LanguageMode.RACKET) {
-			err.println("✗ Method checkRacketNamingConvention() was called in non-racket-Mode");
+			error("✗ Method checkRacketNamingConvention() was called in non-racket-Mode");
 			return false;
 		}
 		RacketActionSetModel racketInstructionSet = (RacketActionSetModel) instructionSet;
 		if (!fileName.matches("H[0-9]+_(?!(?i)NACHNAME_VORNAME(?-i))[a-zA-Z\\-]+(_[a-zA-Z\\-]+)+.rkt")) {
-			err.println("✗ Namenskonvention verletzt bei " + submittorName + ": " + fileName);
+			error("✗ Namenskonvention verletzt bei " + submittorName + ": " + fileName);
 			if (racketInstructionSet.shouldFix_naming_convention()) {
 				// Get correct project name
 				String newProjectName = submittorName.replace(" ", "_").replace("ä", "ae").replace("ö", "oe")
 						.replace("ü", "ue").replace("ß", "ss");
 				String hausuebungsprefix = "H" + racketInstructionSet.getSheet_number();
-				err.println("Projekt nach " + hausuebungsprefix + newProjectName + " umbenannt");
+				error("Projekt nach " + hausuebungsprefix + newProjectName + " umbenannt");
+				emit(Type.NAMING_VIOLATION, "found", fileName, "renamedTo", hausuebungsprefix + newProjectName);
 			} else {
+				emit(Type.NAMING_VIOLATION, "found", fileName, "renamedTo", null);
 				return false;
 			}
 		} else {
-			System.out.println("✓ Namenskonvention eingehalten");
+			info("✓ Namenskonvention eingehalten");
 		}
 		ArrayList<String> check_contained = racketInstructionSet.getVerify_strings_contained();
 		if (check_contained != null && !check_contained.isEmpty()) {
 			for (String contains : check_contained) {
 				if (!fileContent.contains(contains)) {
-					System.err.println("✗ Submission from " + submittorName
+					error("✗ Submission from " + submittorName
 							+ " does not contain the following keyword: " + contains);
 					return false;
 				}
 			}
-			System.out.println("✓ All required Keywords are present");
+			info("✓ All required Keywords are present");
 		}
 		ArrayList<String> check__not_contained = racketInstructionSet.getVerify_strings_not_contained();
 		if (check__not_contained != null && !check__not_contained.isEmpty()) {
 			for (String contains : check__not_contained) {
 				if (fileContent.contains(contains)) {
-					System.err.println("✗ Submission from " + submittorName
+					error("✗ Submission from " + submittorName
 							+ " contains the following forbidden keyword: " + contains);
 					return false;
 				}
 			}
-			System.out.println("✓ No Forbidden functions/keywords used");
+			info("✓ No Forbidden functions/keywords used");
 		}
 		return true;
 	}
@@ -677,21 +1132,30 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 		return checkRacketNamingConvention(rktFile.getName(), SubmittorName, Files.readString(rktFile.toPath()));
 	}
 
+	/**
+	 * @param submittorName the name of the student
+	 * @return the name as used in project names (without spaces and umlauts)
+	 */
+	private static String toProjectName(String submittorName) {
+		return submittorName.replace(" ", "_").replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß",
+				"ss");
+	}
+
 	private boolean checkJavaNamingConvention(File extractedSubmissionFileOrFolder, File submissionProjectFolder,
 			String submittorName, File solutionFolder, File faultyDir) {
 		// Final Naming Convention Check and compatibility check
 		if (Arrays.stream(submissionProjectFolder.listFiles()).anyMatch(x -> x.getName().equals("pom.xml"))) {
-			err.println(
+			error(
 					"Abgabe verwendet Maven-Version. Da niemand motiviert war Maven zu implementieren wird die Abgabe ins \"faulty\"-Verzeichnis verschoben.");
 			return false;
 		}
 		boolean hadProjectFile = true;
 		if (!Arrays.stream(submissionProjectFolder.listFiles()).anyMatch(x -> x.getName().equals(".project"))) {
-			err.println("keine .project Datei bei " + submittorName);
+			error("keine .project Datei bei " + submittorName);
 			try {
 				// Copy .project from Solution
 				if (solutionArchive != null) {
-					err.println("Kopiere .project Datei von Musterlösung");
+					error("Kopiere .project Datei von Musterlösung");
 					Files.copy(Paths.get(solutionFolder.getAbsolutePath(), ".project"),
 							Paths.get(submissionProjectFolder.getAbsolutePath(), ".project"),
 							StandardCopyOption.REPLACE_EXISTING);
@@ -700,44 +1164,51 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 					return false;
 				}
 			} catch (IOException e) {
-				err.println("Error during .project copy: " + e.getMessage());
+				error("Error during .project copy: " + e.getMessage());
 				return false;
 			}
 			hadProjectFile = false;
 		}
 		File projectFile = Paths.get(submissionProjectFolder.getAbsolutePath(), ".project").toFile();
 		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder documentBuilder;
-		Document document;
+		boolean projectFileCopied = !hadProjectFile;
 		try {
-			documentBuilder = documentBuilderFactory.newDocumentBuilder();
-			document = documentBuilder.parse(projectFile);
-			var projectName = document.getElementsByTagName("name").item(0);
-			if (!projectName.getTextContent().trim()
-					.matches("H[0-9]+_(?!(?i)NACHNAME_VORNAME(?-i))[a-zA-Z\\-]+(_[a-zA-Z\\-]+)+")) {
-				if (hadProjectFile) {
-					err.println("Namenskonvention verletzt bei " + submittorName + ": " + projectName.getTextContent());
-				} else {
-					err.println("passe Namenskonvention für " + submittorName + " an...");
-				}
-				// Get correct project name
-				String newProjectName = submittorName.replace(" ", "_").replace("ä", "ae").replace("ö", "oe")
-						.replace("ü", "ue").replace("ß", "ss");
-				String hausuebungsprefix = solutionFolder == null ? "HXX_"
-						: solutionFolder.getName().split("_")[0] + "_";
-				err.println("Projekt nach " + hausuebungsprefix + newProjectName + " umbenannt");
-				projectName.setTextContent(hausuebungsprefix + newProjectName);
-				// Overwrite .project File
-				// 4- Save the result to a new XML doc
-				Transformer xformer = TransformerFactory.newInstance().newTransformer();
-				xformer.transform(new DOMSource(document), new StreamResult(projectFile));
+			metrics.timed(Step.PROJECT_FILE, submittorName, () -> {
+				DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+				Document document = documentBuilder.parse(projectFile);
+				var projectName = document.getElementsByTagName("name").item(0);
+				if (!projectName.getTextContent().trim()
+						.matches("H[0-9]+_(?!(?i)NACHNAME_VORNAME(?-i))[a-zA-Z\\-]+(_[a-zA-Z\\-]+)+")) {
+					if (!projectFileCopied) {
+						error("Namenskonvention verletzt bei " + submittorName + ": " + projectName.getTextContent());
+					} else {
+						error("passe Namenskonvention für " + submittorName + " an...");
+					}
+					// Get correct project name
+					String newProjectName = toProjectName(submittorName);
+					String hausuebungsprefix = solutionFolder == null ? "HXX_"
+							: solutionFolder.getName().split("_")[0] + "_";
+					error("Projekt nach " + hausuebungsprefix + newProjectName + " umbenannt");
+					emit(Type.NAMING_VIOLATION, "found", projectName.getTextContent().trim(), "renamedTo",
+							hausuebungsprefix + newProjectName);
+					projectName.setTextContent(hausuebungsprefix + newProjectName);
+					// Overwrite .project File
+					// 4- Save the result to a new XML doc
+					Transformer xformer = TransformerFactory.newInstance().newTransformer();
+					xformer.transform(new DOMSource(document), new StreamResult(projectFile));
 
-			}
+				}
+			});
 			JavaActionSetModel javaInstructionSet = (JavaActionSetModel) instructionSet;
 			if (instructionSet != null) {
-				mergeProjectContent(solutionFolder, submissionProjectFolder, javaInstructionSet.getAssert_exists(),
-						javaInstructionSet.getAssert_not_exists(), javaInstructionSet.getOverwrite_always(),
-						javaInstructionSet.getCopy_if_not_exists(), javaInstructionSet.getIgnore());
+				MergeReport merge = metrics.timed(Step.MERGE, submittorName,
+						() -> mergeProjectContent(solutionSnapshot, submissionProjectFolder,
+								javaInstructionSet.getAssert_exists(), javaInstructionSet.getAssert_not_exists(),
+								javaInstructionSet.getOverwrite_always(), javaInstructionSet.getCopy_if_not_exists(),
+								javaInstructionSet.getIgnore()));
+				info("Merged with the solution: " + merge);
+				emit(Type.MERGE_FINISHED, "identical", merge.getIdenticalCount(), "overwritten",
+						merge.getDifferingCount(), "copied", merge.getMissingCount());
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -757,99 +1228,419 @@ public class SubmissionsExtractor extends SwingWorker<String, Object> {
 	 *                        directory
 	 * @param ignore          the list of files to skip checking (can contain
 	 *                        folders, will prevent subfolder checking)
+	 * @return the {@link MergeReport}
+	 */
+	MergeReport mergeProjectContent(File solutionDir, File targetDir, ArrayList<Path> assertExist,
+			ArrayList<Path> assertNotExist, ArrayList<Path> overwrite, ArrayList<Path> copyIfNotExists,
+			ArrayList<Path> ignore) {
+		SolutionSnapshot snapshot = solutionSnapshot;
+		if (snapshot == null || !snapshot.getRoot().getPath().equals(solutionDir.toPath().toAbsolutePath())) {
+			try {
+				snapshot = SolutionSnapshot.load(solutionDir);
+			} catch (IOException e) {
+				error("Solution could not be read: " + e.getMessage());
+				return new MergeReport();
+			}
+		}
+		return mergeProjectContent(snapshot, targetDir, assertExist, assertNotExist, overwrite, copyIfNotExists, ignore);
+	}
+
+	/**
+	 * Merges the solution into a project
+	 *
+	 * @param solution        the {@link SolutionSnapshot} of the solution
+	 * @param targetDir       the target directory
+	 * @param assertExist     the List of Files to assert exist
+	 * @param assertNotExist  the List of Files to assert not exist
+	 * @param overwrite       the List of files to overwrite
+	 * @param copyIfNotExists the List of Files to copy if not present in target
+	 *                        directory
+	 * @param ignore          the list of files to skip checking (can contain
+	 *                        folders, will prevent subfolder checking)
+	 * @return the {@link MergeReport}
+	 * @see #mergeProjectContent(File, File, ArrayList, ArrayList, ArrayList,
+	 *      ArrayList, ArrayList)
 	 */
-	private void mergeProjectContent(File solutionDir, File targetDir, ArrayList<Path> assertExist,
+	MergeReport mergeProjectContent(SolutionSnapshot solution, File targetDir, ArrayList<Path> assertExist,
 			ArrayList<Path> assertNotExist, ArrayList<Path> overwrite, ArrayList<Path> copyIfNotExists,
 			ArrayList<Path> ignore) {
-		if (!solutionDir.isDirectory() || !targetDir.isDirectory()) {
+		if (!targetDir.isDirectory()) {
 			throw new IllegalArgumentException("parentDir must be a directory");
 		}
-		for (File file : solutionDir.listFiles()) {
-			Path filePath = file.toPath().toAbsolutePath();
+		MergeReport report = new MergeReport();
+		mergeDirectory(solution.getRoot(), targetDir, new HashSet<>(assertExist), new HashSet<>(assertNotExist),
+				new HashSet<>(overwrite), new HashSet<>(copyIfNotExists), new HashSet<>(ignore), report);
+		return report;
+	}
+
+	private void mergeDirectory(SolutionSnapshot.Node solutionDir, File targetDir, Set<Path> assertExist,
+			Set<Path> assertNotExist, Set<Path> overwrite, Set<Path> copyIfNotExists, Set<Path> ignore,
+			MergeReport report) {
+		// One listing of the target instead of a stat per solution File
+		String[] targetNames = targetDir.list();
+		Set<String> existing = targetNames == null ? Set.of() : new HashSet<>(Arrays.asList(targetNames));
+		for (SolutionSnapshot.Node file : solutionDir.getChildren()) {
+			Path filePath = file.getPath();
 			// ignore mode
 			if (ignore.contains(filePath)) {
 				continue;
 			}
+			boolean exists = existing.contains(file.getName());
 			var assertedExistsTriggered = false;
 			var assertedNotExistsTriggered = false;
 			// assert exist mode
 			if (assertExist.contains(filePath)) {
-				if (!Paths.get(targetDir.getAbsolutePath(), file.getName()).toFile().exists()) {
-					err.println("File " + file.getName() + " missing...");
+				if (!exists) {
+					error("File " + file.getName() + " missing...");
+					emit(Type.FILE_MISSING, "path", relativeToSolution(filePath), "copiedFromSolution",
+							copyIfNotExists.contains(filePath));
 					assertedExistsTriggered = true;
 //					continue;
 				}
 			}
 			// assert Not Exist Mode
 			if (assertNotExist.contains(filePath)) {
-				if (Paths.get(targetDir.getAbsolutePath(), file.getName()).toFile().exists()) {
-					err.println("File " + file.getName() + " existing in Submission...");
+				if (exists) {
+					error("File " + file.getName() + " existing in Submission...");
+					emit(Type.FILE_UNEXPECTED, "path", relativeToSolution(filePath), "overwritten",
+							overwrite.contains(filePath));
 					assertedNotExistsTriggered = true;
 					// continue;
 				}
 			}
+			File target = new File(targetDir, file.getName());
 			if (file.isDirectory()) {
 				// Copy_if_not_exists and overwrite_always mode for directories
-				if (overwrite.contains(file.toPath().toAbsolutePath())) {
-					File copyTargetDir = Paths.get(targetDir.getAbsolutePath(), file.getName()).toFile();
+				if (overwrite.contains(filePath)) {
 					if (assertedNotExistsTriggered) {
-						err.println("Overwriting file that should not have existed:" + file.getName());
-					} else {
-						copyTargetDir.mkdirs();
+						error("Overwriting file that should not have existed:" + file.getName());
+					}
+					FileOperationReport written = file.writeTreeTo(target.toPath(), report);
+					metrics.addWritten(written.getBytes(), written.getFileCount());
+					for (FileOperationReport.Failure failure : written.getFailures()) {
+						error(failure.toString());
 					}
-					copyFolderContent(file, copyTargetDir);
 					continue;
 				}
 				if (assertedExistsTriggered) {
 					if (!copyIfNotExists.contains(filePath)) {
 						continue; // If the directory doesn't exist subfiles wont exist neither
 					} else {
-						err.println("WARNUNG: Verzeichnis das in Abgabe existieren sollte wird aus der Lösung kopiert:"
+						error("WARNUNG: Verzeichnis das in Abgabe existieren sollte wird aus der Lösung kopiert:"
 								+ file.getName() + " DIESES VERZEICHNIS NICHT BEWERTEN");
 					}
 				}
-				mergeProjectContent(file, ensureDirectories(targetDir, file.getName()).get(0), assertExist,
-						assertNotExist, overwrite, copyIfNotExists, ignore);
+				if (!exists && !target.mkdirs()) {
+					error("Folder " + file.getName() + "could not be created");
+				}
+				mergeDirectory(file, target, assertExist, assertNotExist, overwrite, copyIfNotExists, ignore,
+						report);
 			} else {
 				try {
-					Path target = Paths.get(targetDir.getAbsolutePath(), file.getName());
 					// Copy_if_not_exists and overwrite_always mode for files
-					if (!target.toFile().exists()) {
+					if (!exists) {
 						if (assertedExistsTriggered) {
 							if (!copyIfNotExists.contains(filePath)) {
 								continue;
 							} else {
-								err.println(
+								error(
 										"WARNUNG: Datei die in Abgabe existieren sollte wird aus der Lösung kopiert:"
 												+ file.getName() + " DIESE DATEI NICHT BEWERTEN");
 							}
 						}
 //						System.out.println("Copying file " + file.getName());
-						Files.copy(file.toPath(), Paths.get(targetDir.getAbsolutePath(), file.getName()));
+						file.writeTo(target.toPath(), false);
+						metrics.addWritten(file.getSize(), 1);
+						report.missing();
 					} else if (overwrite.contains(filePath)) {
 						if (assertedNotExistsTriggered) {
-							err.println("Overwriting file that should not have existed:" + file.getName());
+							error("Overwriting file that should not have existed:" + file.getName());
 						}
-						Files.copy(file.toPath(), Paths.get(targetDir.getAbsolutePath(), file.getName()),
-								StandardCopyOption.REPLACE_EXISTING);
+						// Identical Files are not written again
+						if (file.contentEquals(target.toPath())) {
+							report.identical();
+							continue;
+						}
+						file.writeTo(target.toPath(), true);
+						metrics.addWritten(file.getSize(), 1);
+						report.differing();
 					}
-					/*
-					 * else if(!filesEqual(file, target.toFile())) { System.err.println("File " +
-					 * file.getName() + "was Modified"); Files.copy(file.toPath(),
-					 * Paths.get(targetDir.getAbsolutePath(), file.getName())); }
-					 */
 				} catch (IOException e) {
-					err.println(e.getMessage());
+					error(e.getMessage());
 				}
 			}
 		}
 	}
 
-	// -- Swing Worker Stuff --\\
+	// -- Logging and Events --\\
+
+	private void info(String message) {
+		log.println(message);
+		for (ExtractionListener listener : listeners) {
+			listener.messageLogged(message, false);
+		}
+		if (messageEvents) {
+			emit(Type.MESSAGE, "level", "info", "message", message);
+		}
+	}
+
+	private void error(String message) {
+		err.println(message);
+		for (ExtractionListener listener : listeners) {
+			listener.messageLogged(message, true);
+		}
+		if (messageEvents) {
+			emit(Type.MESSAGE, "level", "error", "message", message);
+		}
+	}
+
+	private void phase(String phase) {
+		info(phase + "...");
+		metrics.phaseChanged(phase);
+		for (ExtractionListener listener : listeners) {
+			listener.phaseChanged(phase);
+		}
+		emit(Type.PHASE, "phase", phase);
+	}
+
+	/**
+	 * Publishes an {@link ExtractionEvent} for the submission of the current
+	 * thread. No event is created if no listener is registered (the arguments
+	 * are still built by the caller).
+	 *
+	 * @param type      the {@link Type}
+	 * @param keyValues alternating field names and values
+	 */
+	private void emit(Type type, Object... keyValues) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		var event = new ExtractionEvent(type, currentSubmission.get());
+		for (int i = 0; i + 1 < keyValues.length; i += 2) {
+			event.with((String) keyValues[i], keyValues[i + 1]);
+		}
+		for (ExtractionListener listener : listeners) {
+			listener.eventOccurred(event);
+		}
+	}
+
+	private String relativeToSolution(Path path) {
+		if (solutionRoot == null || !path.startsWith(solutionRoot)) {
+			return path.toString();
+		}
+		return solutionRoot.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	private void openEventLog() {
+		if (eventLogFile == null) {
+			return;
+		}
+		try {
+			eventLog = new EventLogWriter(eventLogFile, err);
+			listeners.add(eventLog);
+		} catch (IOException e) {
+			error("Event log could not be opened: " + e.getMessage());
+		}
+	}
+
+	private void closeEventLog() {
+		if (eventLog != null) {
+			listeners.remove(eventLog);
+			eventLog.close();
+			eventLog = null;
+		}
+	}
+
+	private ExtractionResult finish(ExtractionResult result) {
+		metrics.finish();
+		if (!result.wasAborted()) {
+			info(metrics.formatSummary());
+		}
+		if (metricsFile != null && !result.wasAborted()) {
+			try {
+				metrics.writeJson(metricsFile);
+			} catch (IOException e) {
+				error("Metrics could not be written to " + metricsFile + ": " + e.getMessage());
+			}
+		}
+		emit(Type.RUN_FINISHED, "submissions", result.getSubmissionCount(), "successful",
+				result.getSuccessfulCount(), "faulty", result.getFaultyCount(), "durationMillis",
+				result.getDurationMillis(), "abortReason", result.getAbortReason());
+		for (ExtractionListener listener : listeners) {
+			listener.extractionFinished(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Allocates the directory to work on a submission in from the
+	 * {@link ScratchSpace}, falling back to a directory of the submission in the
+	 * shared temporary folder
+	 *
+	 * @param submission      the Submission Directory
+	 * @param submissionBytes the size of the Submission Directory
+	 * @param tempCurrentSub  the shared temporary folder
+	 * @return the directory (null if none could be created)
+	 */
+	private File allocateScratch(File submission, long submissionBytes, File tempCurrentSub) {
+		long expectedBytes = submissionBytes;
+		File[] files = submission.listFiles();
+		if (languageMode == LanguageMode.JAVA && files != null && files.length == 1
+				&& files[0].getName().endsWith(".zip")) {
+			expectedBytes = FileUtils.uncompressedSize(files[0]);
+		}
+		try {
+			return scratchSpace.allocate(submission.getName(), expectedBytes);
+		} catch (IOException e) {
+			// Never the shared folder itself, other workers may be extracting into it
+			File fallback = new File(tempCurrentSub, submission.getName());
+			error("Scratch directory could not be created, using " + fallback + ": " + e.getMessage());
+			if (!fallback.isDirectory() && !fallback.mkdirs()) {
+				error("✗ No directory to extract " + submission.getName() + " into, moving to faulty");
+				return null;
+			}
+			clearFolder(fallback);
+			return fallback;
+		}
+	}
+
+	/**
+	 * Chooses the project folder among the extracted top level entries: the one
+	 * with a {@code .project} File, otherwise the first directory by name. Other
+	 * top level entries (e.g. a {@code README.txt} next to the project) are
+	 * moved into the project, as only the project is published and its name is
+	 * the only one claimed. An entry whose name is taken in the project is
+	 * dropped.
+	 *
+	 * @param tempCurrentSubFolder the folder the submission was extracted to
+	 * @param submittorName        the name of the submittor
+	 * @return the project folder, or null if there is no directory
+	 */
+	private File selectProjectFolder(File tempCurrentSubFolder, String submittorName) {
+		File[] entries = tempCurrentSubFolder.listFiles();
+		Arrays.sort(entries);
+		File project = Arrays.stream(entries).filter(x -> new File(x, ".project").isFile()).findFirst()
+				.orElse(Arrays.stream(entries).filter(File::isDirectory).findFirst().orElse(null));
+		if (project == null) {
+			return null;
+		}
+		for (File stray : entries) {
+			if (stray.equals(project)) {
+				continue;
+			}
+			File target = new File(project, stray.getName());
+			if (!target.exists() && stray.renameTo(target)) {
+				info(stray.getName() + " lag neben dem Projektordner von " + submittorName
+						+ " und wurde in das Projekt verschoben");
+			} else {
+				error("✗ " + stray.getName() + " neben dem Projektordner von " + submittorName
+						+ " wird verworfen (existiert bereits im Projekt)");
+				if (stray.isDirectory()) {
+					removeFolders(stray);
+				} else {
+					stray.delete();
+				}
+			}
+		}
+		return project;
+	}
+
+	/**
+	 * Moves the finished project from the temporary folder to the output
+	 * directory with {@link FileOperations#publish(Path, Path)}, so a crash or an
+	 * Eclipse import during the run sees either nothing or the complete project.
+	 * Its name is journaled first, so a resumed run can tell which of both
+	 * happened. Only the project is published, it is the only name claimed in
+	 * the {@link ProjectNameRegistry}; anything else left in the temporary
+	 * folder is reported and dropped with it.
+	 *
+	 * @param submission the Submission Directory
+	 * @param project    the finished project (folder or File) under its claimed
+	 *                   name
+	 * @return true if the project was published, otherwise it is left in the
+	 *         temporary folder
+	 */
+	private boolean publish(File submission, File project) {
+		for (File stray : project.getParentFile().listFiles(x -> !x.equals(project))) {
+			error("✗ " + stray.getName() + " gehört nicht zum Projekt " + project.getName() + " und wird verworfen");
+		}
+		record(submission.getName(), State.PUBLISHING, project.getName());
+		FileOperationReport report = FileOperations.publish(project.toPath(),
+				outputDir.toPath().resolve(project.getName()));
+		metrics.addWritten(report.getBytes(), report.getFileCount());
+		for (FileOperationReport.Failure failure : report.getFailures()) {
+			error("✗ " + failure);
+		}
+		ExtractionJournal.syncDirectory(outputDir);
+		return report.isSuccessful();
+	}
+
+	/**
+	 * Brings the output directory in line with the journal of an earlier attempt
+	 * before continuing it: leftovers of the temporary folders and interrupted
+	 * staging copies are removed and projects whose rename completed but was not
+	 * journaled anymore are marked as published. All other unfinished
+	 * submissions are redone.
+	 */
+	private void recoverJournal() {
+		for (String temp : new String[] { "tempCurrentSub", "tempAllSubs" }) {
+			File tempDir = new File(outputDir, temp);
+			if (tempDir.isDirectory()) {
+				removeFolders(tempDir);
+			}
+		}
+		for (File staging : outputDir.listFiles(x -> FileOperations.isStaging(x.getName()))) {
+			FileOperations.delete(staging.toPath(), false);
+		}
+		int redone = 0;
+		for (String submission : journal.getSubmissions()) {
+			State state = journal.getState(submission);
+			String project = journal.getProject(submission);
+			if (state == State.PUBLISHING && new File(outputDir, project).exists()) {
+				record(submission, State.PUBLISHED, project);
+			} else if (!state.isFinal()) {
+				redone++;
+			}
+		}
+		info(String.format("Setze abgebrochenen Lauf fort, %s Abgabe(n) bereits fertig, %s unterbrochene werden wiederholt",
+				journal.getFinishedCount(), redone));
+	}
+
+	private void record(String submission, State state, String project) {
+		ExtractionJournal currentJournal = journal;
+		if (currentJournal == null) {
+			return;
+		}
+		try {
+			currentJournal.record(submission, state, project);
+		} catch (IOException e) {
+			// The journal closed itself, so only the first failure is reported
+			error("Journal could not be written, the run cannot be resumed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Removes the temporary directories of a cancelled run, the finished
+	 * projects and the journal are kept to resume the run later
+	 */
+	private ExtractionResult cancelled() {
+		currentSubmission.remove();
+		for (String temp : new String[] { "tempCurrentSub", "tempAllSubs" }) {
+			File tempDir = new File(outputDir, temp);
+			if (tempDir.isDirectory()) {
+				removeFolders(tempDir);
+			}
+		}
+		error("✗ Abgebrochen. Ein erneuter Start mit demselben Zielverzeichnis setzt den Lauf fort.");
+		return abort("Cancelled", startTime);
+	}
+
+	private ExtractionResult abort(String reason, long startTime) {
+		return finish(ExtractionResult.aborted(reason, System.currentTimeMillis() - startTime));
+	}
 
 	@Override
-	protected String doInBackground() throws Exception {
-		extract();
-		return null;
+	public ExtractionResult call() {
+		return extract();
 	}
 }
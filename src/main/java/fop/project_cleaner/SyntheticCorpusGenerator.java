@@ -0,0 +1,448 @@
+package fop.project_cleaner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Generates Moodle submission archives for load tests and benchmarks. The
+ * archive is laid out like a download with "Als Verzeichnis herunterladen"
+ * ({@code <Name>_<id>_assignsubmission_file_/<submission>}) and comes with a
+ * matching solution and File List. Everything is derived from the seed, so the
+ * same settings always produce byte-identical archives.
+ */
+public class SyntheticCorpusGenerator {
+	/**
+	 * The layouts a generated submission can have
+	 */
+	public enum Variant {
+		/**
+		 * A correctly named Eclipse project in a subfolder (Java) or a correctly
+		 * named .rkt File (Racket)
+		 */
+		REGULAR(LanguageMode.JAVA, LanguageMode.RACKET),
+		/**
+		 * A regular project with a __MACOSX folder next to it
+		 */
+		MACOSX(LanguageMode.JAVA),
+		/**
+		 * The project files are in the root of the zip instead of a subfolder
+		 */
+		NO_SUBFOLDER(LanguageMode.JAVA),
+		/**
+		 * A Maven project with a pom.xml and no .project File
+		 */
+		MAVEN(LanguageMode.JAVA),
+		/**
+		 * An Eclipse project without .project File
+		 */
+		MISSING_PROJECT_FILE(LanguageMode.JAVA),
+		/**
+		 * The project or File name does not follow the naming convention
+		 */
+		WRONG_NAME(LanguageMode.JAVA, LanguageMode.RACKET),
+		/**
+		 * A .rkt File saved in the binary WXME format of DrRacket
+		 */
+		WXME(LanguageMode.RACKET);
+
+		private final List<LanguageMode> languageModes;
+
+		Variant(LanguageMode... languageModes) {
+			this.languageModes = List.of(languageModes);
+		}
+
+		/**
+		 * @param languageMode the {@link LanguageMode}
+		 * @return true if submissions of that language can have this layout
+		 */
+		public boolean appliesTo(LanguageMode languageMode) {
+			return languageModes.contains(languageMode);
+		}
+	}
+
+	/**
+	 * The Files of a generated corpus
+	 */
+	public static class Corpus {
+		private final File submissions;
+		private final File solution;
+		private final File fileList;
+		private final Map<Variant, Integer> variantCounts;
+
+		Corpus(File submissions, File solution, File fileList, Map<Variant, Integer> variantCounts) {
+			this.submissions = submissions;
+			this.solution = solution;
+			this.fileList = fileList;
+			this.variantCounts = Collections.unmodifiableMap(variantCounts);
+		}
+
+		/**
+		 * @return the Moodle archive
+		 */
+		public File getSubmissions() {
+			return submissions;
+		}
+
+		/**
+		 * @return the solution archive (Java) or File (Racket)
+		 */
+		public File getSolution() {
+			return solution;
+		}
+
+		/**
+		 * @return the File List
+		 */
+		public File getFileList() {
+			return fileList;
+		}
+
+		/**
+		 * @return how many submissions of each {@link Variant} were generated
+		 */
+		public Map<Variant, Integer> getVariantCounts() {
+			return variantCounts;
+		}
+
+		/**
+		 * @return the number of submissions
+		 */
+		public int getSubmissionCount() {
+			return variantCounts.values().stream().mapToInt(Integer::intValue).sum();
+		}
+	}
+
+	private static final String[] FIRST_NAMES = { "Anna", "Ben", "Clara", "David", "Emma", "Felix", "Greta", "Hannes",
+			"Ida", "Jonas", "Käthe", "Lukas", "Mia", "Noah", "Özlem", "Paul", "Rüdiger", "Sophie", "Tim", "Zoë" };
+	private static final String[] LAST_NAMES = { "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer",
+			"Wagner", "Becker", "Schulz", "Hoffmann", "Koch", "Groß", "Richter", "Klein", "Wolf", "Schröder",
+			"Neumann", "Schwarz", "Zimmermann", "Braun" };
+	/**
+	 * All entries get the same modification time, so archives are reproducible
+	 */
+	private static final long ENTRY_TIME = 1577836800000L;
+	private static final String WXME_HEADER = "#reader(lib\"read.ss\"\"wxme\")WXME0108 ## ";
+
+	private final long seed;
+	private LanguageMode languageMode = LanguageMode.JAVA;
+	private int submissionCount = 100;
+	private int sourceFiles = 10;
+	private int sourceFileSize = 2048;
+	private int sheetNumber = 7;
+	private double variantRate = 0.3;
+
+	/**
+	 * Create a new {@link SyntheticCorpusGenerator}
+	 *
+	 * @param seed the random seed
+	 */
+	public SyntheticCorpusGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @param languageMode the {@link LanguageMode} of the submissions
+	 */
+	public void setLanguageMode(LanguageMode languageMode) {
+		this.languageMode = languageMode;
+	}
+
+	/**
+	 * @param submissionCount the number of submissions
+	 */
+	public void setSubmissionCount(int submissionCount) {
+		this.submissionCount = submissionCount;
+	}
+
+	/**
+	 * @param sourceFiles the number of source Files per Java project (Racket: the
+	 *                    number of function definitions per File)
+	 */
+	public void setSourceFiles(int sourceFiles) {
+		this.sourceFiles = sourceFiles;
+	}
+
+	/**
+	 * @param sourceFileSize the approximate size of each Java source File in bytes
+	 */
+	public void setSourceFileSize(int sourceFileSize) {
+		this.sourceFileSize = sourceFileSize;
+	}
+
+	/**
+	 * @param sheetNumber the number of the exercise sheet
+	 */
+	public void setSheetNumber(int sheetNumber) {
+		this.sheetNumber = sheetNumber;
+	}
+
+	/**
+	 * @param variantRate the fraction of submissions that do not have the
+	 *                    {@link Variant#REGULAR} layout (0 to 1)
+	 */
+	public void setVariantRate(double variantRate) {
+		this.variantRate = variantRate;
+	}
+
+	/**
+	 * Generates the submissions archive, the solution and the File List
+	 *
+	 * @param outputDir the directory to write to (created if necessary)
+	 * @return the generated {@link Corpus}
+	 * @throws IOException if a File cannot be written
+	 */
+	public Corpus generate(File outputDir) throws IOException {
+		Path dir = Files.createDirectories(outputDir.toPath());
+		String prefix = String.format("H%02d", sheetNumber);
+		Random random = new Random(seed);
+		List<Variant> variants = new ArrayList<>();
+		for (Variant variant : Variant.values()) {
+			if (variant != Variant.REGULAR && variant.appliesTo(languageMode)) {
+				variants.add(variant);
+			}
+		}
+		Map<Variant, Integer> counts = new EnumMap<>(Variant.class);
+		Path submissions = dir.resolve(prefix + "_submissions.zip");
+		try (var archive = new ZipOutputStream(Files.newOutputStream(submissions))) {
+			for (int i = 0; i < submissionCount; i++) {
+				String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+				String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+				Variant variant = random.nextDouble() < variantRate ? variants.get(random.nextInt(variants.size()))
+						: Variant.REGULAR;
+				counts.merge(variant, 1, Integer::sum);
+				String folder = firstName + " " + lastName + "_" + (100000 + i) + "_assignsubmission_file_/";
+				String projectName = prefix + "_" + toIdentifier(lastName) + "_" + toIdentifier(firstName);
+				Random submissionRandom = new Random(random.nextLong());
+				if (languageMode == LanguageMode.RACKET) {
+					writeRacketSubmission(archive, folder, projectName, variant, submissionRandom);
+				} else {
+					archive.putNextEntry(entry(folder + projectName + ".zip"));
+					archive.write(javaSubmission(projectName, variant, submissionRandom));
+					archive.closeEntry();
+				}
+			}
+		}
+		Path solution;
+		if (languageMode == LanguageMode.RACKET) {
+			solution = dir.resolve(prefix + "_SOLUTION.rkt");
+			Files.writeString(solution, racketSource(sourceFiles, new Random(seed - 1), false));
+		} else {
+			solution = dir.resolve(prefix + "_SOLUTION.zip");
+			try (var archive = new ZipOutputStream(Files.newOutputStream(solution))) {
+				writeJavaProject(archive, prefix + "_SOLUTION/", prefix + "_SOLUTION", true, new Random(seed - 1));
+			}
+		}
+		Path fileList = dir.resolve("fileList.json");
+		Files.writeString(fileList, fileListJson());
+		return new Corpus(submissions.toFile(), solution.toFile(), fileList.toFile(), counts);
+	}
+
+	private byte[] javaSubmission(String projectName, Variant variant, Random random) throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		try (var zip = new ZipOutputStream(bytes)) {
+			switch (variant) {
+			case NO_SUBFOLDER:
+				writeJavaProject(zip, "", projectName, true, random);
+				break;
+			case MAVEN:
+				putEntry(zip, projectName + "/pom.xml", "<project><modelVersion>4.0.0</modelVersion><artifactId>"
+						+ projectName + "</artifactId></project>\n");
+				writeSources(zip, projectName + "/src/main/java/", random);
+				break;
+			case MISSING_PROJECT_FILE:
+				writeJavaProject(zip, projectName + "/", projectName, false, random);
+				break;
+			case WRONG_NAME:
+				writeJavaProject(zip, projectName + "/", String.format("H%02d_NACHNAME_VORNAME", sheetNumber), true,
+						random);
+				break;
+			case MACOSX:
+				writeJavaProject(zip, projectName + "/", projectName, true, random);
+				putEntry(zip, "__MACOSX/" + projectName + "/._.project", "\0\5\26\7 resource fork");
+				putEntry(zip, "__MACOSX/" + projectName + "/src/._Main.java", "\0\5\26\7 resource fork");
+				break;
+			default:
+				writeJavaProject(zip, projectName + "/", projectName, true, random);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private void writeJavaProject(ZipOutputStream zip, String root, String projectName, boolean withProjectFile,
+			Random random) throws IOException {
+		if (withProjectFile) {
+			putEntry(zip, root + ".project", projectFile(projectName));
+		}
+		putEntry(zip, root + ".classpath", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<classpath>\n"
+				+ "\t<classpathentry kind=\"src\" path=\"src\"/>\n\t<classpathentry kind=\"src\" path=\"test\"/>\n"
+				+ "\t<classpathentry kind=\"lib\" path=\"lib/junit.jar\"/>\n"
+				+ "\t<classpathentry kind=\"output\" path=\"bin\"/>\n</classpath>\n");
+		writeSources(zip, root + "src/", random);
+		String pkg = String.format("h%02d", sheetNumber);
+		for (int i = 0; i < Math.max(1, sourceFiles / 4); i++) {
+			putEntry(zip, root + "test/" + pkg + "/Class" + i + "Test.java",
+					javaSource(pkg, "Class" + i + "Test", sourceFileSize / 2, random));
+		}
+		putEntry(zip, root + "lib/junit.jar", "PK placeholder");
+		putEntry(zip, root + "bin/" + pkg + "/Class0.class", "\u00ca\u00fe\u00ba\u00be");
+	}
+
+	private void writeSources(ZipOutputStream zip, String sourceRoot, Random random) throws IOException {
+		String pkg = String.format("h%02d", sheetNumber);
+		for (int i = 0; i < sourceFiles; i++) {
+			putEntry(zip, sourceRoot + pkg + "/Class" + i + ".java", javaSource(pkg, "Class" + i, sourceFileSize, random));
+		}
+	}
+
+	private void writeRacketSubmission(ZipOutputStream archive, String folder, String projectName, Variant variant,
+			Random random) throws IOException {
+		String code = racketSource(sourceFiles, random, true);
+		switch (variant) {
+		case WRONG_NAME:
+			putEntry(archive, folder + "hausuebung" + sheetNumber + ".rkt", code);
+			break;
+		case WXME:
+			putEntry(archive, folder + projectName + ".rkt", WXME_HEADER + wxmeBody(code));
+			break;
+		default:
+			putEntry(archive, folder + projectName + ".rkt", code);
+		}
+	}
+
+	private String fileListJson() {
+		Map<String, Object> fileList = new LinkedHashMap<>();
+		fileList.put("language_mode", languageMode.name().toLowerCase());
+		fileList.put("sheet_number", sheetNumber);
+		fileList.put("check_naming_convention", true);
+		fileList.put("fix_naming_convention", true);
+		if (languageMode == LanguageMode.RACKET) {
+			fileList.put("remove_student_tests", true);
+			fileList.put("do_tests", false);
+			fileList.put("verify_strings_contained", List.of("(define"));
+			fileList.put("tasks", List.of());
+		} else {
+			fileList.put("assert_exists", List.of("src"));
+			fileList.put("overwrite_always", List.of("test", "lib", ".classpath"));
+			fileList.put("assert_not_exists", List.of("bin"));
+			fileList.put("ignore", List.of(".settings"));
+		}
+		return new GsonBuilder().setPrettyPrinting().create().toJson(fileList);
+	}
+
+	/**
+	 * Writes an Eclipse-like Java project to a directory
+	 *
+	 * @param root        the project directory
+	 * @param projectName the name in the .project File
+	 * @param files       the number of source Files
+	 * @param fileSize    the approximate size of each source File in bytes
+	 * @param random      the source of randomness
+	 * @throws IOException if a File cannot be written
+	 */
+	public static void writeJavaProject(Path root, String projectName, int files, int fileSize, Random random)
+			throws IOException {
+		Files.createDirectories(root.resolve("src/h07"));
+		Files.createDirectories(root.resolve("test/h07"));
+		Files.writeString(root.resolve(".project"), projectFile(projectName));
+		Files.writeString(root.resolve(".classpath"), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<classpath/>\n");
+		for (int i = 0; i < files; i++) {
+			String directory = i % 4 == 0 ? "test/h07" : "src/h07";
+			Files.writeString(root.resolve(directory + "/Class" + i + ".java"),
+					javaSource("h07", "Class" + i, fileSize, random));
+		}
+	}
+
+	/**
+	 * Generates a Racket source File with comments, strings and tests
+	 *
+	 * @param definitions the number of function definitions (each with two tests)
+	 * @param random      the source of randomness
+	 * @param withTests   if student tests should be included
+	 * @return the source code
+	 */
+	public static String racketSource(int definitions, Random random, boolean withTests) {
+		StringBuilder code = new StringBuilder(";; The first three lines of this file were inserted by DrRacket. They record metadata\n"
+				+ ";; about the language level of this file in a form that our tools can easily process.\n"
+				+ "#reader(lib \"htdp-beginner-reader.ss\" \"lang\")((modname H07) (read-case-sensitive #t) (teachpacks ()) (htdp-settings #(#t constructor repeating-decimal #f #t none #f () #f)))\n");
+		for (int i = 0; i < definitions; i++) {
+			code.append(";; f").append(i).append(": Number -> Number\n");
+			if (random.nextInt(4) == 0) {
+				code.append("#| multiline comment with \"quotes\" and (parens) |#\n");
+			}
+			code.append("(define (f").append(i).append(" x) (+ (* x ").append(random.nextInt(100)).append(") ")
+					.append(random.nextInt(100)).append(")) ; inline comment\n");
+			if (withTests) {
+				code.append("(check-expect (f").append(i).append(" 0) ").append(random.nextInt(100)).append(")\n");
+				code.append("(check-within (f").append(i).append(" 1.5) 0 \"(check-expect in a string)\")\n");
+			}
+			code.append('\n');
+		}
+		return code.toString();
+	}
+
+	private static String javaSource(String pkg, String className, int size, Random random) {
+		StringBuilder source = new StringBuilder("package " + pkg + ";\n\n/**\n * " + className
+				+ "\n */\npublic class " + className + " {\n");
+		int method = 0;
+		while (source.length() < size) {
+			source.append("\tpublic int method").append(method++).append("(int x) {\n\t\t// \"").append(random.nextLong())
+					.append("\"\n\t\treturn x * ").append(random.nextInt(1000)).append(" + ").append(random.nextInt(1000))
+					.append(";\n\t}\n\n");
+		}
+		return source.append("}\n").toString();
+	}
+
+	private static String projectFile(String projectName) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<projectDescription>\n\t<name>" + projectName
+				+ "</name>\n\t<comment></comment>\n\t<projects>\n\t</projects>\n\t<buildSpec>\n\t\t<buildCommand>\n"
+				+ "\t\t\t<name>org.eclipse.jdt.core.javabuilder</name>\n\t\t</buildCommand>\n\t</buildSpec>\n"
+				+ "\t<natures>\n\t\t<nature>org.eclipse.jdt.core.javanature</nature>\n\t</natures>\n"
+				+ "</projectDescription>\n";
+	}
+
+	/**
+	 * Imitates the snip-based WXME encoding: the code split into numbered chunks
+	 */
+	private static String wxmeBody(String code) {
+		StringBuilder body = new StringBuilder("\n 1 ").append(code.length()).append('\n');
+		int chunk = 0;
+		for (int i = 0; i < code.length(); i += 64) {
+			String part = code.substring(i, Math.min(code.length(), i + 64));
+			body.append('#').append(chunk++).append(' ').append(part.length()).append(' ')
+					.append(part.replace("\n", "\\n")).append('\n');
+		}
+		return body.toString();
+	}
+
+	private static String toIdentifier(String name) {
+		return name.replace(" ", "_").replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("Ä", "Ae")
+				.replace("Ö", "Oe").replace("Ü", "Ue").replace("ß", "ss").replace("ë", "e");
+	}
+
+	private static ZipEntry entry(String name) {
+		var entry = new ZipEntry(name);
+		entry.setTime(ENTRY_TIME);
+		return entry;
+	}
+
+	private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+		zip.putNextEntry(entry(name));
+		zip.write(content.getBytes(StandardCharsets.UTF_8));
+		zip.closeEntry();
+	}
+}
@@ -0,0 +1,253 @@
+package fop.project_cleaner.ui;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+import fop.project_cleaner.ExtractionControl;
+import fop.project_cleaner.ExtractionListener;
+import fop.project_cleaner.ExtractionMetrics;
+import fop.project_cleaner.ExtractionResult;
+import fop.project_cleaner.SubmissionsExtractor;
+
+/**
+ * Shows the throughput of a running extraction: submissions per second, the
+ * estimated remaining time, the slowest submissions currently in progress, the
+ * number of active workers and the read/write rate. The listener methods only
+ * record the raw state; a {@link Timer} samples it on the EDT at a fixed rate,
+ * so the panel costs nothing per event. The buttons pause, resume and cancel
+ * the extraction through its {@link ExtractionControl}.
+ */
+@SuppressWarnings("serial")
+class ExtractionStatusPanel extends JPanel implements ExtractionListener {
+	private static final int SAMPLE_INTERVAL_MILLIS = 500;
+	/**
+	 * Weight of the newest sample in the smoothed rates
+	 */
+	private static final double SMOOTHING = 0.3;
+	private static final int SHOWN_IN_FLIGHT = 3;
+
+	/**
+	 * A submission that is currently processed
+	 */
+	private static class InFlight {
+		final String name;
+		final long startNanos = System.nanoTime();
+
+		InFlight(String name) {
+			this.name = name;
+		}
+	}
+
+	private final JLabel rateLabel = createLabel();
+	private final JLabel etaLabel = createLabel();
+	private final JLabel workersLabel = createLabel();
+	private final JLabel ioLabel = createLabel();
+	private final JLabel inFlightLabel = createLabel();
+	private final JButton pauseButton = new JButton("Pause");
+	private final JButton cancelButton = new JButton("Abbrechen");
+	private final Timer timer = new Timer(SAMPLE_INTERVAL_MILLIS, e -> sample());
+
+	/**
+	 * One entry per worker thread, so equal student names do not collide
+	 */
+	private final Map<Thread, InFlight> inFlight = new ConcurrentHashMap<>();
+	private final AtomicInteger done = new AtomicInteger();
+	private final AtomicInteger total = new AtomicInteger();
+	private volatile boolean finished;
+	private SubmissionsExtractor extractor;
+
+	// Only accessed on the EDT
+	private long lastSampleNanos;
+	private long lastDone;
+	private long lastBytesRead;
+	private long lastBytesWritten;
+	private double submissionRate;
+	private double readRate;
+	private double writeRate;
+
+	ExtractionStatusPanel() {
+		super(new BorderLayout(12, 0));
+		setOpaque(false);
+		JPanel labels = new JPanel(new GridLayout(1, 5, 12, 0));
+		labels.setOpaque(false);
+		labels.add(rateLabel);
+		labels.add(etaLabel);
+		labels.add(workersLabel);
+		labels.add(ioLabel);
+		labels.add(inFlightLabel);
+		add(labels, BorderLayout.CENTER);
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 6, 0));
+		buttons.setOpaque(false);
+		buttons.add(pauseButton);
+		buttons.add(cancelButton);
+		add(buttons, BorderLayout.EAST);
+		pauseButton.addActionListener(e -> togglePause());
+		cancelButton.addActionListener(e -> cancel());
+		reset();
+		setButtonsEnabled(false);
+	}
+
+	private static JLabel createLabel() {
+		JLabel label = new JLabel();
+		label.setForeground(new Color(200, 200, 200));
+		label.setFont(new Font("Dialog", Font.PLAIN, 12));
+		return label;
+	}
+
+	/**
+	 * Starts showing the status of an extraction, must be called on the EDT
+	 * before the extraction starts
+	 *
+	 * @param extractor the {@link SubmissionsExtractor}
+	 */
+	void attach(SubmissionsExtractor extractor) {
+		if (this.extractor != null) {
+			this.extractor.removeListener(this);
+		}
+		this.extractor = extractor;
+		inFlight.clear();
+		done.set(0);
+		total.set(0);
+		finished = false;
+		submissionRate = 0;
+		readRate = 0;
+		writeRate = 0;
+		lastSampleNanos = System.nanoTime();
+		lastDone = 0;
+		lastBytesRead = 0;
+		lastBytesWritten = 0;
+		extractor.addListener(this);
+		reset();
+		setButtonsEnabled(true);
+		timer.start();
+	}
+
+	private void setButtonsEnabled(boolean enabled) {
+		pauseButton.setText("Pause");
+		pauseButton.setEnabled(enabled);
+		cancelButton.setEnabled(enabled);
+	}
+
+	private void togglePause() {
+		ExtractionControl control = extractor.getControl();
+		if (control.isPaused()) {
+			control.resume();
+			pauseButton.setText("Pause");
+		} else {
+			control.pause();
+			pauseButton.setText("Fortsetzen");
+		}
+	}
+
+	private void cancel() {
+		// Wakes up a paused extraction, so it can stop at its next checkpoint
+		extractor.getControl().cancel();
+		setButtonsEnabled(false);
+		etaLabel.setText("Wird abgebrochen…");
+	}
+
+	private void reset() {
+		rateLabel.setText("– Abgaben/s");
+		etaLabel.setText("Restzeit: –");
+		workersLabel.setText("Aktive Worker: 0");
+		ioLabel.setText("Lesen/Schreiben: –");
+		inFlightLabel.setText("");
+		inFlightLabel.setToolTipText(null);
+	}
+
+	@Override
+	public void extractionStarted(int submissionCount) {
+		total.set(submissionCount);
+	}
+
+	@Override
+	public void submissionStarted(String submittorName) {
+		inFlight.put(Thread.currentThread(), new InFlight(submittorName));
+	}
+
+	@Override
+	public void submissionFinished(String submittorName, boolean successful) {
+		inFlight.remove(Thread.currentThread());
+	}
+
+	@Override
+	public void progressChanged(int done, int total) {
+		this.done.set(done);
+		this.total.set(total);
+	}
+
+	@Override
+	public void extractionFinished(ExtractionResult result) {
+		inFlight.clear();
+		finished = true;
+	}
+
+	/**
+	 * Takes a sample and updates the labels, runs on the EDT
+	 */
+	private void sample() {
+		ExtractionMetrics metrics = extractor.getMetrics();
+		long now = System.nanoTime();
+		double seconds = Math.max(now - lastSampleNanos, 1) / 1e9;
+		long currentDone = done.get();
+		long bytesRead = metrics.getBytesRead();
+		long bytesWritten = metrics.getBytesWritten();
+		// The metrics are replaced when the extraction starts, so deltas can be negative once
+		submissionRate = smooth(submissionRate, Math.max(0, currentDone - lastDone) / seconds);
+		readRate = smooth(readRate, Math.max(0, bytesRead - lastBytesRead) / seconds);
+		writeRate = smooth(writeRate, Math.max(0, bytesWritten - lastBytesWritten) / seconds);
+		lastSampleNanos = now;
+		lastDone = currentDone;
+		lastBytesRead = bytesRead;
+		lastBytesWritten = bytesWritten;
+
+		rateLabel.setText(String.format("%.1f Abgaben/s", submissionRate));
+		int remaining = total.get() - (int) currentDone;
+		ExtractionControl control = extractor.getControl();
+		if (finished) {
+			etaLabel.setText((control.isCancelled() ? "Abgebrochen nach " : "Fertig nach ")
+					+ formatDuration(metrics.getElapsedMillis() / 1000));
+		} else if (control.isCancelled()) {
+			etaLabel.setText("Wird abgebrochen…");
+		} else if (control.isPaused()) {
+			etaLabel.setText("Pausiert");
+		} else if (submissionRate > 0 && remaining > 0) {
+			etaLabel.setText("Restzeit: " + formatDuration((long) (remaining / submissionRate)));
+		} else {
+			etaLabel.setText("Restzeit: –");
+		}
+		workersLabel.setText("Aktive Worker: " + inFlight.size());
+		ioLabel.setText(String.format("Lesen %.1f MB/s, Schreiben %.1f MB/s", readRate / 1e6, writeRate / 1e6));
+		String slowest = inFlight.values().stream().sorted(Comparator.comparingLong(x -> x.startNanos))
+				.limit(SHOWN_IN_FLIGHT)
+				.map(x -> x.name + " (" + formatDuration((now - x.startNanos) / 1_000_000_000) + ")")
+				.collect(Collectors.joining(", "));
+		inFlightLabel.setText(slowest);
+		inFlightLabel.setToolTipText(slowest.isEmpty() ? null : "Am längsten in Bearbeitung: " + slowest);
+		if (finished) {
+			setButtonsEnabled(false);
+			timer.stop();
+		}
+	}
+
+	private static double smooth(double previous, double current) {
+		return previous == 0 ? current : previous * (1 - SMOOTHING) + current * SMOOTHING;
+	}
+
+	private static String formatDuration(long seconds) {
+		return String.format("%d:%02d", seconds / 60, seconds % 60);
+	}
+}
@@ -0,0 +1,108 @@
+package fop.project_cleaner.ui;
+
+import java.awt.Component;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import fop.project_cleaner.ExtractionListener;
+import fop.project_cleaner.ExtractionResult;
+import fop.project_cleaner.SubmissionsExtractor;
+
+/**
+ * Runs a {@link SubmissionsExtractor} in the background and mirrors its
+ * progress on a {@link JProgressBar}. Progress events arrive on the worker
+ * thread; only the latest state is kept and at most one update is queued on
+ * the EDT at any time, so fast extractions do not flood the event queue.
+ * Cancelling the worker cancels the extraction cooperatively through its
+ * {@link fop.project_cleaner.ExtractionControl}.
+ */
+class ExtractionWorker extends SwingWorker<ExtractionResult, Void> implements ExtractionListener {
+	private final SubmissionsExtractor extractor;
+	private final JProgressBar progressBar;
+	/**
+	 * done and total packed into one value so both are always read consistently
+	 */
+	private final AtomicLong progress = new AtomicLong();
+	private final AtomicBoolean updatePending = new AtomicBoolean();
+
+	/**
+	 * Create a new {@link ExtractionWorker}
+	 *
+	 * @param extractor   the {@link SubmissionsExtractor} to run
+	 * @param progressBar the {@link JProgressBar} to update (can be null)
+	 * @param parent      the parent of dialogs shown to the user
+	 */
+	ExtractionWorker(SubmissionsExtractor extractor, JProgressBar progressBar, Component parent) {
+		this.extractor = extractor;
+		this.progressBar = progressBar;
+		extractor.addListener(this);
+		extractor.setClearOutputConfirmation(directory -> confirmClear(parent, directory));
+		addPropertyChangeListener(e -> {
+			if ("state".equals(e.getPropertyName()) && isCancelled()) {
+				extractor.getControl().cancel();
+			}
+		});
+	}
+
+	@Override
+	protected ExtractionResult doInBackground() throws Exception {
+		return extractor.extract();
+	}
+
+	@Override
+	public void extractionStarted(int submissionCount) {
+		if (progressBar != null) {
+			SwingUtilities.invokeLater(() -> progressBar.setEnabled(true));
+		}
+	}
+
+	@Override
+	public void progressChanged(int done, int total) {
+		progress.set(((long) done << 32) | (total & 0xFFFFFFFFL));
+		if (progressBar != null && updatePending.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::updateProgressBar);
+		}
+	}
+
+	private void updateProgressBar() {
+		updatePending.set(false);
+		long current = progress.get();
+		int done = (int) (current >>> 32);
+		int total = (int) current;
+		progressBar.setMinimum(0);
+		progressBar.setMaximum(total);
+		progressBar.setValue(done);
+		progressBar.setString(String.format("%s/%s Abgaben fertig", done, total));
+	}
+
+	/**
+	 * Asks the user on the EDT if a non-empty output directory may be cleared
+	 */
+	private static boolean confirmClear(Component parent, File directory) {
+		AtomicBoolean confirmed = new AtomicBoolean();
+		Runnable ask = () -> confirmed.set(JOptionPane.showConfirmDialog(parent,
+				"The directory " + directory.getAbsolutePath()
+						+ " contains Files but must be empty inorder to proceed.\n Do you want to clear the folder?",
+				"Warning", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION);
+		if (SwingUtilities.isEventDispatchThread()) {
+			ask.run();
+		} else {
+			try {
+				SwingUtilities.invokeAndWait(ask);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (InvocationTargetException e) {
+				return false;
+			}
+		}
+		return confirmed.get();
+	}
+}
@@ -0,0 +1,103 @@
+package fop.project_cleaner.ui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import javax.swing.text.AttributeSet;
+
+/**
+ * A bounded, lock-free buffer for log text. Any number of threads may append
+ * without ever blocking; a single consumer (the EDT) drains it. If the
+ * producers are faster than the consumer, the oldest entries are overwritten
+ * and counted as dropped instead of slowing the producers down.
+ */
+final class LogRingBuffer {
+	/**
+	 * A chunk of log text together with the attributes to render it with
+	 */
+	static final class Entry {
+		final long sequence;
+		final String text;
+		final AttributeSet attributes;
+
+		Entry(long sequence, String text, AttributeSet attributes) {
+			this.sequence = sequence;
+			this.text = text;
+			this.attributes = attributes;
+		}
+	}
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final int mask;
+	private final AtomicLong writeSequence = new AtomicLong();
+	/**
+	 * Only accessed by the consumer
+	 */
+	private long readSequence;
+	private long dropped;
+
+	/**
+	 * Create a new {@link LogRingBuffer}
+	 *
+	 * @param capacity the minimum number of entries to buffer (rounded up to the
+	 *                 next power of two)
+	 */
+	LogRingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Appends text to the buffer, never blocks
+	 *
+	 * @param text       the text
+	 * @param attributes the attributes to render the text with
+	 */
+	void append(String text, AttributeSet attributes) {
+		long sequence = writeSequence.getAndIncrement();
+		slots.lazySet((int) (sequence & mask), new Entry(sequence, text, attributes));
+	}
+
+	/**
+	 * Drains up to {@code maxEntries} entries in the order they were appended.
+	 * Must only be called from one thread at a time.
+	 *
+	 * @param consumer   receives the entries
+	 * @param maxEntries the maximum number of entries to drain
+	 * @return the number of drained entries
+	 */
+	int drain(Consumer<Entry> consumer, int maxEntries) {
+		int drained = 0;
+		while (drained < maxEntries) {
+			Entry entry = slots.get((int) (readSequence & mask));
+			if (entry == null || entry.sequence < readSequence) {
+				// Claimed by a producer but not yet published
+				break;
+			}
+			if (entry.sequence > readSequence) {
+				// A producer lapped us, skip everything that may have been overwritten
+				long oldestValid = Math.max(readSequence + 1, writeSequence.get() - slots.length());
+				dropped += oldestValid - readSequence;
+				readSequence = oldestValid;
+				continue;
+			}
+			consumer.accept(entry);
+			readSequence++;
+			drained++;
+		}
+		return drained;
+	}
+
+	/**
+	 * Returns and resets the number of entries lost because the buffer was full
+	 *
+	 * @return the number of dropped entries since the last call
+	 */
+	long takeDropped() {
+		long result = dropped;
+		dropped = 0;
+		return result;
+	}
+}
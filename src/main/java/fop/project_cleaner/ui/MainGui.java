@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -23,7 +24,10 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.plaf.ColorUIResource;
 import javax.swing.text.DefaultCaret;
 
+import fop.project_cleaner.EventLogWriter;
+import fop.project_cleaner.ExtractionMetrics;
 import fop.project_cleaner.LanguageMode;
+import fop.project_cleaner.SubmissionsExtractor;
 
 /**
  *
@@ -35,6 +39,7 @@ public class MainGui extends javax.swing.JFrame {
 	private LanguageMode currentMode = JAVA;
 	private boolean menuExpanded = false;
 	private String lastDirectory;
+	private File lastEventLog;
 
 	/**
 	 * Creates new form MainGui
@@ -126,6 +131,7 @@ public class MainGui extends javax.swing.JFrame {
 		fileListFileField = new javax.swing.JTextField();
 		fileListFileChooserButton = new javax.swing.JButton();
 		jProgressBar1 = new javax.swing.JProgressBar();
+		extractionStatusPanel = new ExtractionStatusPanel();
 		jScrollPane2 = new javax.swing.JScrollPane();
 		logTextPane = new javax.swing.JTextPane();
 		executeButton = new javax.swing.JButton();
@@ -351,6 +357,9 @@ public class MainGui extends javax.swing.JFrame {
 										.addComponent(jProgressBar1, javax.swing.GroupLayout.Alignment.TRAILING,
 												javax.swing.GroupLayout.DEFAULT_SIZE,
 												javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+										.addComponent(extractionStatusPanel, javax.swing.GroupLayout.Alignment.TRAILING,
+												javax.swing.GroupLayout.DEFAULT_SIZE,
+												javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
 										.addComponent(jScrollPane2, javax.swing.GroupLayout.Alignment.TRAILING)
 										.addGroup(jPanel2Layout.createSequentialGroup()
 												.addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED,
@@ -455,6 +464,9 @@ public class MainGui extends javax.swing.JFrame {
 						.addComponent(jScrollPane2, javax.swing.GroupLayout.DEFAULT_SIZE, 137, Short.MAX_VALUE)
 						.addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED).addComponent(jProgressBar1,
 								javax.swing.GroupLayout.PREFERRED_SIZE, 25, javax.swing.GroupLayout.PREFERRED_SIZE)
+						.addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+						.addComponent(extractionStatusPanel, javax.swing.GroupLayout.PREFERRED_SIZE,
+								javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
 						.addContainerGap()));
 
 		jPanel4.setBackground(new java.awt.Color(11, 18, 35));
@@ -657,6 +669,28 @@ public class MainGui extends javax.swing.JFrame {
 			} catch (IOException ex) {
 				System.err.println("Log konnte nicht gespeichert werden.");
 			}
+			saveEventLog(chooser.getSelectedFile());
+		}
+	}
+
+	/**
+	 * Copies the structured event log of the last extraction next to a saved text
+	 * log (log.txt -&gt; log.events.jsonl), the text log may be truncated
+	 */
+	private void saveEventLog(File textLog) {
+		if (lastEventLog == null || !lastEventLog.isFile()) {
+			return;
+		}
+		String name = textLog.getName().replaceFirst("\\.[^.]*$", "");
+		File target = new File(textLog.getParentFile(), name + ".events.jsonl");
+		if (target.equals(lastEventLog)) {
+			return;
+		}
+		try {
+			Files.copy(lastEventLog.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			System.out.println("Strukturierter Log gespeichert: " + target.getAbsolutePath());
+		} catch (IOException ex) {
+			System.err.println("Strukturierter Log konnte nicht gespeichert werden.");
 		}
 	}
 
@@ -688,9 +722,8 @@ public class MainGui extends javax.swing.JFrame {
 						fileListFileField.getText().equals("") ? null : new File(fileListFileField.getText()), getOut(),
 						getErr());
 //                	extractor.extract();
-				extractor.setProgressBar(jProgressBar1);
 				extractor.setLanguageMode(LanguageMode.JAVA);
-				extractor.execute();
+				startWorker(extractor);
 			} catch (Exception ex) {
 				System.err.println(ex.getMessage());
 			}
@@ -706,9 +739,8 @@ public class MainGui extends javax.swing.JFrame {
 						fileListFileField.getText().equals("") ? null : new File(fileListFileField.getText()), getOut(),
 						getErr());
 //                	extractor.extract();
-				extractor.setProgressBar(jProgressBar1);
 				extractor.setLanguageMode(LanguageMode.RACKET);
-				extractor.execute();
+				startWorker(extractor);
 			} catch (Exception ex) {
 				System.err.println(ex.getMessage());
 			}
@@ -716,6 +748,15 @@ public class MainGui extends javax.swing.JFrame {
 		}
 	}
 
+	private void startWorker(SubmissionsExtractor extractor) {
+		File outputDirectory = new File(outputDirectoryField.getText());
+		lastEventLog = new File(outputDirectory, EventLogWriter.DEFAULT_FILE_NAME);
+		extractor.setEventLogFile(lastEventLog);
+		extractor.setMetricsFile(new File(outputDirectory, ExtractionMetrics.DEFAULT_FILE_NAME));
+		extractionStatusPanel.attach(extractor);
+		new ExtractionWorker(extractor, jProgressBar1, this).execute();
+	}
+
 	public void setSubmissionFile(String submissionFile) {
 		submissionsFileField.setText(submissionFile);
 		lastDirectory = submissionFile;
@@ -892,6 +933,7 @@ public class MainGui extends javax.swing.JFrame {
 	@SuppressWarnings("unused")
 	private javax.swing.JSeparator jSeparator1;
 	private javax.swing.JTextPane logTextPane;
+	private ExtractionStatusPanel extractionStatusPanel;
 	private javax.swing.JLabel menuLabel;
 	private javax.swing.JButton outputDirectoryChooserButton;
 	private javax.swing.JTextField outputDirectoryField;
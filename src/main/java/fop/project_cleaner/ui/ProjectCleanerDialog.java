@@ -149,7 +149,7 @@ public class ProjectCleanerDialog extends JFrame {
             			solutionFileField.getText().equals("") ? null : new File(solutionFileField.getText()),
             			fileListFileField.getText().equals("") ? null : new File(fileListFileField.getText()),
             			getOut(), getErr());
-            	extractor.extract();
+            	new ExtractionWorker(extractor, null, this).execute();
             } catch (Exception ex) {
                 System.err.println(ex.getMessage());
             }
@@ -0,0 +1,132 @@
+package fop.project_cleaner.ui;
+
+import javax.swing.JTextPane;
+import javax.swing.Timer;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
+import java.awt.Color;
+
+/**
+ * The log shown in a {@link JTextPane}. Writers from any thread append to a
+ * {@link LogRingBuffer} without blocking; a {@link Timer} on the EDT drains the
+ * buffer in batches, merges consecutive text with the same attributes into a
+ * single insert and drops the oldest lines once more than
+ * {@link #getMaxRetainedLines()} lines are shown. The limit can be set with the
+ * system property {@value #MAX_LINES_PROPERTY}.
+ */
+class TextPaneLog {
+	/**
+	 * System property to override the default number of retained lines
+	 */
+	static final String MAX_LINES_PROPERTY = "project_cleaner.log.maxLines";
+	static final int DEFAULT_MAX_LINES = 10_000;
+	private static final int BUFFER_CAPACITY = 8192;
+	private static final int REFRESH_INTERVAL_MILLIS = 100;
+
+	private final JTextPane textPane;
+	private final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
+	private final Timer timer;
+	private final SimpleAttributeSet droppedAttributes = new SimpleAttributeSet();
+	private final int maxRetainedLines;
+
+	/**
+	 * Create a new {@link TextPaneLog} and start draining it
+	 *
+	 * @param textPane         the {@link JTextPane} to render to
+	 * @param maxRetainedLines the maximum number of lines kept in the pane (0 for
+	 *                         no limit)
+	 */
+	private TextPaneLog(JTextPane textPane, int maxRetainedLines) {
+		this.textPane = textPane;
+		this.maxRetainedLines = maxRetainedLines;
+		StyleConstants.setForeground(droppedAttributes, Color.ORANGE);
+		StyleConstants.setItalic(droppedAttributes, true);
+		timer = new Timer(REFRESH_INTERVAL_MILLIS, e -> drain());
+		timer.start();
+	}
+
+	/**
+	 * Returns the {@link TextPaneLog} of a {@link JTextPane}, creating it on first
+	 * use. All streams writing to the same pane share one log.
+	 *
+	 * @param textPane the {@link JTextPane}
+	 * @return the {@link TextPaneLog} of the pane
+	 */
+	static synchronized TextPaneLog of(JTextPane textPane) {
+		var log = (TextPaneLog) textPane.getClientProperty(TextPaneLog.class);
+		if (log == null) {
+			log = new TextPaneLog(textPane, Integer.getInteger(MAX_LINES_PROPERTY, DEFAULT_MAX_LINES));
+			textPane.putClientProperty(TextPaneLog.class, log);
+		}
+		return log;
+	}
+
+	/**
+	 * Appends text to the log, can be called from any thread
+	 *
+	 * @param text       the text
+	 * @param attributes the attributes to render the text with
+	 */
+	void append(String text, AttributeSet attributes) {
+		buffer.append(text, attributes);
+	}
+
+	/**
+	 * @return the maximum number of lines kept in the pane
+	 */
+	int getMaxRetainedLines() {
+		return maxRetainedLines;
+	}
+
+	/**
+	 * Moves everything from the buffer to the document, runs on the EDT
+	 */
+	private void drain() {
+		StyledDocument document = textPane.getStyledDocument();
+		var batch = new StringBuilder();
+		AttributeSet[] batchAttributes = new AttributeSet[1];
+		buffer.drain(entry -> {
+			long dropped = buffer.takeDropped();
+			if (batch.length() > 0 && (dropped > 0 || !entry.attributes.isEqual(batchAttributes[0]))) {
+				insert(document, batch.toString(), batchAttributes[0]);
+				batch.setLength(0);
+			}
+			if (dropped > 0) {
+				insert(document, "… " + dropped + " Log-Einträge verworfen …\n", droppedAttributes);
+			}
+			batchAttributes[0] = entry.attributes;
+			batch.append(entry.text);
+		}, BUFFER_CAPACITY);
+		if (batch.length() > 0) {
+			insert(document, batch.toString(), batchAttributes[0]);
+		}
+		trim(document);
+	}
+
+	private static void insert(StyledDocument document, String text, AttributeSet attributes) {
+		try {
+			document.insertString(document.getLength(), text, attributes);
+		} catch (BadLocationException e) {
+		}
+	}
+
+	private void trim(StyledDocument document) {
+		if (maxRetainedLines <= 0) {
+			return;
+		}
+		Element root = document.getDefaultRootElement();
+		int excess = root.getElementCount() - maxRetainedLines;
+		if (excess <= 0) {
+			return;
+		}
+		try {
+			document.remove(0, root.getElement(excess - 1).getEndOffset());
+		} catch (BadLocationException e) {
+		}
+	}
+}
@@ -3,16 +3,18 @@ package fop.project_cleaner.ui;
 import java.awt.Color;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 
 import javax.swing.JTextPane;
 import javax.swing.text.MutableAttributeSet;
-import javax.swing.text.BadLocationException;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 
+/**
+ * Writes to the {@link TextPaneLog} of a {@link JTextPane}. Flushing never
+ * touches the document, so it is safe (and cheap) from any thread.
+ */
 class TextPaneStream extends ByteArrayOutputStream {
-    private JTextPane textPane;
+    private TextPaneLog log;
     private MutableAttributeSet attributes;
 
     public TextPaneStream(JTextPane textPane) {
@@ -20,7 +22,7 @@ class TextPaneStream extends ByteArrayOutputStream {
     }
 
     public TextPaneStream(JTextPane textPane, Color fontColor) {
-        this.textPane = textPane;
+        this.log = TextPaneLog.of(textPane);
         attributes = new SimpleAttributeSet();
         if (fontColor != null) {
             StyleConstants.setForeground(attributes, fontColor);
@@ -28,12 +30,11 @@ class TextPaneStream extends ByteArrayOutputStream {
     }
 
     @Override
-    public void flush() throws IOException {
-        var document = textPane.getStyledDocument();
-        try {
-            document.insertString(document.getLength(), toString(), attributes);
-        } catch (BadLocationException e) {
+    public synchronized void flush() {
+        if (count == 0) {
+            return;
         }
+        log.append(toString(), attributes);
         reset();
     }
 }
@@ -0,0 +1,157 @@
+package fop.project_cleaner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link ArchiveExtractor} and the {@link ExtractionLimits} it
+ * enforces
+ */
+class ArchiveExtractorTest {
+	@TempDir
+	Path temp;
+
+	private File zip(Map<String, byte[]> entries) throws IOException {
+		Path zip = temp.resolve("submission.zip");
+		try (OutputStream out = Files.newOutputStream(zip); ZipOutputStream zipOut = new ZipOutputStream(out)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				zipOut.putNextEntry(new ZipEntry(entry.getKey()));
+				zipOut.write(entry.getValue());
+				zipOut.closeEntry();
+			}
+		}
+		return zip.toFile();
+	}
+
+	private static byte[] text(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private Path destination() {
+		return temp.resolve("out");
+	}
+
+	@Test
+	void extractsAndFiltersEntries() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("H07_Name/src/", new byte[0]);
+		entries.put("H07_Name/src/Main.java", text("class Main {}"));
+		entries.put("H07_Name/bin/Main.class", text("compiled"));
+		entries.put("__MACOSX/H07_Name/._Main.java", text("junk"));
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setEntryFilter(EntryFilter.defaults());
+		extractor.extract(zip(entries), destination().toFile());
+		assertArrayEquals(text("class Main {}"),
+				Files.readAllBytes(destination().resolve("H07_Name/src/Main.java")));
+		assertFalse(Files.exists(destination().resolve("H07_Name/bin")));
+		assertFalse(Files.exists(destination().resolve("__MACOSX")));
+		assertEquals(2, extractor.getSkippedEntries());
+	}
+
+	@Test
+	void remapsPrefixes() throws IOException {
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setPrefixRemap("", "H07_Name/");
+		extractor.extract(zip(Map.of(".project", text("<projectDescription/>"))), destination().toFile());
+		assertTrue(Files.isRegularFile(destination().resolve("H07_Name/.project")));
+	}
+
+	@Test
+	void rejectsEntriesOutsideOfTheDestination() throws IOException {
+		File zip = zip(Map.of("H07_Name/../../evil.txt", text("evil")));
+		ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+				() -> new ArchiveExtractor().extract(zip, destination().toFile()));
+		assertTrue(e.getMessage().contains("outside"), e.getMessage());
+		assertFalse(Files.exists(temp.resolve("evil.txt")));
+		assertFalse(Files.exists(temp.getParent().resolve("evil.txt")));
+	}
+
+	@Test
+	void rejectsBackslashEntriesOutsideOfTheDestination() throws IOException {
+		File zip = zip(Map.of("H07_Name\\..\\..\\evil.txt", text("evil")));
+		assertThrows(ExtractionLimitException.class, () -> new ArchiveExtractor().extract(zip, destination().toFile()));
+	}
+
+	@Test
+	void keepsNamesContainingDots() throws IOException {
+		new ArchiveExtractor().extract(zip(Map.of("H07_Name/..notes.txt", text("ok"))), destination().toFile());
+		assertTrue(Files.isRegularFile(destination().resolve("H07_Name/..notes.txt")));
+	}
+
+	@Test
+	void rejectsTooManyEntriesBeforeExtracting() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		for (int i = 0; i < 3; i++) {
+			entries.put("H07_Name/File" + i + ".txt", text("content"));
+		}
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxEntries(2);
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setLimits(limits);
+		File zip = zip(entries);
+		ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+				() -> extractor.extract(zip, destination().toFile()));
+		assertTrue(e.getMessage().contains("more than 2 entries"), e.getMessage());
+		assertFalse(Files.exists(destination().resolve("H07_Name")));
+	}
+
+	@Test
+	void countsOnlyEntriesThatAreExtracted() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("H07_Name/Main.java", text("class Main {}"));
+		entries.put("H07_Name/bin/A.class", text("a"));
+		entries.put("H07_Name/bin/B.class", text("b"));
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxEntries(1);
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setLimits(limits);
+		extractor.setEntryFilter(EntryFilter.defaults());
+		extractor.extract(zip(entries), destination().toFile());
+		assertTrue(Files.isRegularFile(destination().resolve("H07_Name/Main.java")));
+	}
+
+	@Test
+	void rejectsZipBombs() throws IOException {
+		// 4 MB of zeros deflate to a few KB
+		File zip = zip(Map.of("H07_Name/zeros.bin", new byte[4 * 1024 * 1024]));
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setLimits(new ExtractionLimits());
+		ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+				() -> extractor.extract(zip, destination().toFile()));
+		assertTrue(e.getMessage().contains("zip bomb"), e.getMessage());
+
+		extractor.setLimits(ExtractionLimits.unlimited());
+		extractor.extract(zip, destination().toFile());
+		assertEquals(4 * 1024 * 1024, Files.size(destination().resolve("H07_Name/zeros.bin")));
+	}
+
+	@Test
+	void rejectsLargeArchives() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("H07_Name/A.txt", new byte[600]);
+		entries.put("H07_Name/B.txt", new byte[600]);
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxTotalBytes(1000);
+		ArchiveExtractor extractor = new ArchiveExtractor();
+		extractor.setLimits(limits);
+		File zip = zip(entries);
+		assertThrows(ExtractionLimitException.class, () -> extractor.extract(zip, destination().toFile()));
+	}
+}
@@ -0,0 +1,93 @@
+package fop.project_cleaner;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link EntryFilter}
+ */
+class EntryFilterTest {
+	private final EntryFilter filter = EntryFilter.defaults();
+
+	@Test
+	void keepsProjectContent() {
+		assertTrue(filter.test("H07_Name/src/h07/Class0.java"));
+		assertTrue(filter.test("H07_Name/.project"));
+		assertTrue(filter.test("H07_Name/src/"));
+	}
+
+	@Test
+	void excludesNamePatternsAnywhere() {
+		assertFalse(filter.test("__MACOSX/H07_Name/._.project"));
+		assertFalse(filter.test("H07_Name/src/h07/.DS_Store"));
+		assertFalse(filter.test("H07_Name/src/h07/Class0.class"));
+		assertFalse(filter.test("H07_Name/.idea/workspace.xml"));
+	}
+
+	@Test
+	void excludesDirectoryPatternsNextToAndDirectlyInTheProject() {
+		assertFalse(filter.test("bin/h07/Class0.class"));
+		assertFalse(filter.test("H07_Name/bin/"));
+		assertFalse(filter.test("H07_Name/bin/h07/Main.txt"));
+		assertFalse(filter.test("H07_Name/out/production/h07/Main.txt"));
+	}
+
+	@Test
+	void keepsPackagesNamedLikeDirectoryPatterns() {
+		assertTrue(filter.test("H07_Name/src/bin/Foo.java"));
+		assertTrue(filter.test("H07_Name/src/h07/out/Bar.java"));
+	}
+
+	@Test
+	void keepsFilesNamedLikeDirectoryPatterns() {
+		assertTrue(filter.test("H07_Name/bin"));
+		assertTrue(filter.test("bin"));
+	}
+
+	@Test
+	void withoutProjectFolderStartsTheProjectAtTheTopLevel() {
+		EntryFilter withoutProjectFolder = filter.withoutProjectFolder();
+		assertFalse(withoutProjectFolder.test("bin/h07/Main.txt"));
+		assertTrue(withoutProjectFolder.test("src/bin/Foo.java"));
+		assertFalse(withoutProjectFolder.test("src/h07/Class0.class"));
+		// The original filter is unchanged
+		assertFalse(filter.test("src/bin/Foo.java"));
+	}
+
+	@Test
+	void acceptsBackslashes() {
+		assertFalse(filter.test("H07_Name\\bin\\h07\\Main.txt"));
+		assertTrue(filter.test("H07_Name\\src\\bin\\Foo.java"));
+	}
+
+	@Test
+	void matchesWildcards() {
+		EntryFilter custom = new EntryFilter(List.of("*.bak", "Test?.java", "build*/"));
+		assertFalse(custom.test("H07_Name/src/Main.java.bak"));
+		assertFalse(custom.test("H07_Name/src/Test1.java"));
+		assertTrue(custom.test("H07_Name/src/Test12.java"));
+		assertFalse(custom.test("H07_Name/build-output/Main.txt"));
+		assertTrue(custom.test("H07_Name/src/build/Main.java"));
+		// Regex characters in a pattern are literal
+		assertTrue(new EntryFilter(List.of("a.b")).test("H07_Name/axb"));
+	}
+
+	@Test
+	void emptyListKeepsEverything() {
+		EntryFilter none = new EntryFilter(List.of());
+		assertTrue(none.test("__MACOSX/._.project"));
+		assertTrue(none.test("H07_Name/bin/h07/Main.class"));
+	}
+
+	@Test
+	void rejectsInvalidPatterns() {
+		assertThrows(IllegalArgumentException.class, () -> new EntryFilter(List.of("")));
+		assertThrows(IllegalArgumentException.class, () -> new EntryFilter(List.of("/")));
+		assertThrows(IllegalArgumentException.class, () -> new EntryFilter(List.of("src/bin/")));
+	}
+}
@@ -0,0 +1,70 @@
+package fop.project_cleaner;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ExtractionLimits#checkEntry(ZipEntry, long, long)}
+ */
+class ExtractionLimitsTest {
+	private static final long MB = 1024 * 1024;
+
+	private static ZipEntry entry(long compressedSize) {
+		ZipEntry entry = new ZipEntry("H07_Name/data.bin");
+		entry.setCompressedSize(compressedSize);
+		return entry;
+	}
+
+	@Test
+	void rejectsLargeEntries() {
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxEntryBytes(10);
+		assertDoesNotThrow(() -> limits.checkEntry(entry(10), 10, 10));
+		ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+				() -> limits.checkEntry(entry(11), 11, 11));
+		assertTrue(e.getMessage().contains("H07_Name/data.bin"), e.getMessage());
+	}
+
+	@Test
+	void rejectsLargeTotals() {
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxTotalBytes(100);
+		assertDoesNotThrow(() -> limits.checkEntry(entry(10), 10, 100));
+		assertThrows(ExtractionLimitException.class, () -> limits.checkEntry(entry(10), 10, 101));
+	}
+
+	@Test
+	void rejectsHighCompressionRatios() {
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxCompressionRatio(100);
+		assertDoesNotThrow(() -> limits.checkEntry(entry(MB / 40), 2 * MB, 2 * MB));
+		ExtractionLimitException e = assertThrows(ExtractionLimitException.class,
+				() -> limits.checkEntry(entry(MB / 200), 2 * MB, 2 * MB));
+		assertTrue(e.getMessage().contains("100:1"), e.getMessage());
+	}
+
+	@Test
+	void ignoresTheRatioOfSmallEntries() {
+		ExtractionLimits limits = new ExtractionLimits();
+		limits.setMaxCompressionRatio(2);
+		assertDoesNotThrow(() -> limits.checkEntry(entry(1), MB, MB));
+	}
+
+	@Test
+	void ignoresTheRatioOfUnknownCompressedSizes() {
+		ExtractionLimits limits = new ExtractionLimits();
+		assertDoesNotThrow(() -> limits.checkEntry(entry(-1), 50 * MB, 50 * MB));
+		assertDoesNotThrow(() -> limits.checkEntry(entry(0), 50 * MB, 50 * MB));
+	}
+
+	@Test
+	void unlimitedNeverRejects() {
+		ExtractionLimits limits = ExtractionLimits.unlimited();
+		assertDoesNotThrow(() -> limits.checkEntry(entry(1), Long.MAX_VALUE / 2, Long.MAX_VALUE / 2));
+	}
+}
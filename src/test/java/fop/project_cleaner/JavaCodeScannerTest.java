@@ -0,0 +1,103 @@
+package fop.project_cleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link JavaCodeScanner}
+ */
+class JavaCodeScannerTest {
+	private static final JavaCodeScanner EXIT = new JavaCodeScanner(List.of("System.exit"));
+
+	private static List<String> hits(JavaCodeScanner scanner, String source) {
+		return scanner.scan(source, "Main.java").stream().map(JavaCodeScanner.Hit::toString)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	void findsRulesWithTheirPosition() {
+		String source = "class Main {\n\tvoid quit() {\n\t\tSystem.exit(0);\n\t}\n}\n";
+		List<JavaCodeScanner.Hit> hits = EXIT.scan(source, "src/Main.java");
+		assertEquals(1, hits.size());
+		JavaCodeScanner.Hit hit = hits.get(0);
+		assertEquals("System.exit", hit.getRule());
+		assertEquals("src/Main.java", hit.getPath());
+		assertEquals(3, hit.getLine());
+		assertEquals(3, hit.getColumn());
+		assertEquals("src/Main.java:3:3: System.exit", hit.toString());
+	}
+
+	@Test
+	void matchesTokensNotText() {
+		assertEquals(List.of(), hits(EXIT, "MySystem.exit(0); System.exitNow(); System.exit_();"));
+		assertEquals(List.of("Main.java:1:1: System.exit", "Main.java:2:1: System.exit"),
+				hits(EXIT, "System . exit(0);\nSystem/* why */.\n\texit(1);"));
+	}
+
+	@Test
+	void matchesPrefixesOfQualifiedNames() {
+		JavaCodeScanner scanner = new JavaCodeScanner(List.of("java.util.stream"));
+		assertEquals(List.of("Main.java:1:8: java.util.stream"),
+				hits(scanner, "import java.util.stream.Collectors;\nimport java.util.List;"));
+	}
+
+	@Test
+	void skipsComments() {
+		assertEquals(List.of(), hits(EXIT, "// System.exit(0);\n/* System.exit(0);\n System.exit(0); */"));
+		assertEquals(List.of("Main.java:3:5: System.exit"),
+				hits(EXIT, "/* a\n comment */\n/**/System.exit(0); // System.exit"));
+	}
+
+	@Test
+	void skipsStringAndCharLiterals() {
+		assertEquals(List.of(), hits(EXIT, "String s = \"System.exit(0)\";"));
+		assertEquals(List.of("Main.java:1:15: System.exit"), hits(EXIT, "f(\"\\\"\", '\"'); System.exit(0);"));
+		assertEquals(List.of("Main.java:1:22: System.exit"), hits(EXIT, "f('\\'', \"\\\\\", '\\\\'); System.exit(0);"));
+	}
+
+	@Test
+	void endsUnterminatedLiteralsAtTheLineEnd() {
+		assertEquals(List.of("Main.java:2:1: System.exit"), hits(EXIT, "String s = \"open\nSystem.exit(0);"));
+		assertEquals(List.of("Main.java:2:1: System.exit"), hits(EXIT, "char c = 'x\nSystem.exit(0);"));
+	}
+
+	@Test
+	void doesNotEscapeTheLineEndOfALiteral() {
+		assertEquals(List.of("Main.java:2:1: System.exit"), hits(EXIT, "String s = \"open\\\nSystem.exit(0);"));
+		assertEquals(List.of("Main.java:2:1: System.exit"), hits(EXIT, "char c = '\\\nSystem.exit(0);"));
+	}
+
+	@Test
+	void skipsTextBlocks() {
+		String source = "String s = \"\"\"\n\tSystem.exit(0); \\\"\"\"\n\tstill text \\\n\tSystem.exit(0)\n\t\"\"\";\nSystem.exit(0);";
+		assertEquals(List.of("Main.java:6:1: System.exit"), hits(EXIT, source));
+	}
+
+	@Test
+	void scansFilesWithOtherEncodings(@TempDir Path temp) throws IOException {
+		Path file = temp.resolve("Main.java");
+		Files.write(file, "// Grüße\nSystem.exit(0);".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(List.of("src/Main.java:2:1: System.exit"),
+				EXIT.scan(file, "src/Main.java").stream().map(JavaCodeScanner.Hit::toString)
+						.collect(Collectors.toList()));
+	}
+
+	@Test
+	void rejectsRulesWithoutCode() {
+		assertThrows(IllegalArgumentException.class, () -> new JavaCodeScanner(List.of(" ")));
+		assertThrows(IllegalArgumentException.class, () -> new JavaCodeScanner(List.of("\"exit\"")));
+		assertThrows(IllegalArgumentException.class, () -> new JavaCodeScanner(List.of("System // exit")));
+		assertTrue(new JavaCodeScanner(List.of()).isEmpty());
+	}
+}
@@ -0,0 +1,89 @@
+package fop.project_cleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link ProjectNameRegistry}
+ */
+class ProjectNameRegistryTest {
+	@TempDir
+	Path outputDir;
+
+	@Test
+	void claimsFreeNamesAsTheyAre() {
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.toFile());
+		assertFalse(registry.isTaken("H07_Name"));
+		assertEquals("H07_Name", registry.claim("H07_Name"));
+		assertTrue(registry.isTaken("H07_Name"));
+	}
+
+	@Test
+	void countsUpForTakenNames() {
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.toFile());
+		assertEquals("H07_Name", registry.claim("H07_Name"));
+		assertEquals("H07_Name(1)", registry.claim("H07_Name"));
+		assertEquals("H07_Name(2)", registry.claim("H07_Name"));
+		assertEquals("H07_Other", registry.claim("H07_Other"));
+	}
+
+	@Test
+	void isSeededFromTheOutputDirectory() throws IOException {
+		Files.createDirectory(outputDir.resolve("H07_Name"));
+		Files.createDirectory(outputDir.resolve("H07_Name(1)"));
+		Files.createFile(outputDir.resolve("sheet.rkt"));
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.toFile());
+		assertEquals("H07_Name(2)", registry.claim("H07_Name"));
+		assertEquals("sheet.rkt(1)", registry.claim("sheet.rkt"));
+	}
+
+	@Test
+	void reusesReleasedNames() {
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.toFile());
+		registry.claim("H07_Name");
+		assertEquals("H07_Name(1)", registry.claim("H07_Name"));
+		registry.release("H07_Name(1)");
+		assertFalse(registry.isTaken("H07_Name(1)"));
+		assertEquals("H07_Name(1)", registry.claim("H07_Name"));
+	}
+
+	@Test
+	void acceptsAMissingOutputDirectory() {
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.resolve("missing").toFile());
+		assertEquals("H07_Name", registry.claim("H07_Name"));
+	}
+
+	@Test
+	void parallelClaimsGetDistinctNames() throws Exception {
+		ProjectNameRegistry registry = new ProjectNameRegistry(outputDir.toFile());
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> claims = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				claims.add(executor.submit(() -> registry.claim("H07_Name")));
+			}
+			var names = new HashSet<String>();
+			for (Future<String> claim : claims) {
+				assertTrue(names.add(claim.get()));
+			}
+			assertTrue(names.contains("H07_Name"));
+			assertTrue(names.contains("H07_Name(199)"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}